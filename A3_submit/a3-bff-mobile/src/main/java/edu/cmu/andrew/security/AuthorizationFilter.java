@@ -64,7 +64,8 @@ public class AuthorizationFilter extends OncePerRequestFilter {
 
 			try {
 				if (isJWTTokenMalformed(request, response)) {
-					validateUnsecuredToken(request);
+					Claims claims = validateUnsecuredToken(request);
+					request.setAttribute(ClientIdFilter.CLIENT_ID_ATTRIBUTE, claims.getSubject());
 				} else {
 					SecurityContextHolder.clearContext();
 					throw new MalformedJwtException("Token non exists or malformed");
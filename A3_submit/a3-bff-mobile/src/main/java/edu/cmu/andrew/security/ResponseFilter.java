@@ -91,12 +91,12 @@ public class ResponseFilter extends ZuulFilter {
         			&& response.getStatus() == HttpServletResponse.SC_OK) {
         		ObjectMapper objectMapper = new ObjectMapper();
         		JsonNode jsonNode = objectMapper.readTree(responseDataFiltered);
-        		ObjectNode object = (ObjectNode) jsonNode;
 
-        		if(object.get("genre").asText().equals("non-fiction")) {
-        			object.put("genre", 3);
+        		//only a book has a genre, other responses under /books (lists, search, suggestions) keep their content
+        		if(jsonNode.isObject() && jsonNode.path("genre").asText().equals("non-fiction")) {
+        			((ObjectNode) jsonNode).put("genre", 3);
         		}        		
-        		String updatedJsonResponse = objectMapper.writeValueAsString(object);         		
+        		String updatedJsonResponse = objectMapper.writeValueAsString(jsonNode);         		
          		context.setResponseBody(updatedJsonResponse);
         		
         	}else 
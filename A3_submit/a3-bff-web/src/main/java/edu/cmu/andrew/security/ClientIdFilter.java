@@ -0,0 +1,68 @@
+package edu.cmu.andrew.security;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_DECORATION_FILTER_ORDER;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_TYPE;
+
+import org.springframework.stereotype.Component;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+
+/**
+ * <h1>Client Id Filter</h1>
+ * 
+ * This class is an interceptor that executes before each request is routed to a service, it sends the subject of the
+ * authenticated JWT token in the X-Client-Id header. The services use it to read from the writer the requests of a
+ * client that has just written, the address of the request is the one of this BFF and does not identify the client.
+ * A X-Client-Id header sent by the client is replaced.
+ * 
+ * @author Juan Carlos Villegas Montiel
+ * @version 1.0
+ * @since 2026-10-18
+ */
+@Component
+public class ClientIdFilter extends ZuulFilter {
+
+	public static final String CLIENT_ID_ATTRIBUTE = "edu.cmu.andrew.security.clientId";
+	private final String CLIENT_ID_HEADER = "X-Client-Id";
+
+	/**
+	 * Method that sets the type of interceptor of this class
+	 * In this case PRE_TYPE configure this interceptor to execute before the request is routed.
+	 * @return String the type of Interceptor
+	 */
+	@Override
+	public String filterType() {
+		return PRE_TYPE;
+	}
+
+	/**
+	 * Method that sets the order in which this interceptor will be executed, after the route is decorated
+	 * @return the int number representing the order of execution
+	 */
+	@Override
+	public int filterOrder() {
+		return PRE_DECORATION_FILTER_ORDER + 1;
+	}
+
+	/**
+	 * Method that active the filter to be executed in the application
+	 * @return true if the filter is activated, false otherwise
+	 */
+	@Override
+	public boolean shouldFilter() {
+		return true;
+	}
+
+	/**
+	 * This method executes when the http request is about to be routed. It sets the X-Client-Id header to the
+	 * subject validated by the AuthorizationFilter, or clears it if the request has no subject.
+	 */
+	@Override
+	public Object run() {
+		RequestContext context = RequestContext.getCurrentContext();
+		Object subject = context.getRequest().getAttribute(CLIENT_ID_ATTRIBUTE);
+		context.addZuulRequestHeader(CLIENT_ID_HEADER, subject == null ? "" : subject.toString());
+		return null;
+	}
+}
@@ -1,27 +1,66 @@
 package edu.cmu.andrew.application.business.controller;
 
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
 
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import edu.cmu.andrew.application.business.dto.BookBatchRequestDTO;
+import edu.cmu.andrew.application.business.dto.BookBatchResponseDTO;
 import edu.cmu.andrew.application.business.dto.BookDTO;
+import edu.cmu.andrew.application.business.dto.BookPageDTO;
+import edu.cmu.andrew.application.business.dto.BookSearchResultDTO;
+import edu.cmu.andrew.application.business.dto.BookSuggestResultDTO;
+import edu.cmu.andrew.application.business.dto.GenreFacetsDTO;
 import edu.cmu.andrew.application.business.dto.NotificationMsgDTO;
+import edu.cmu.andrew.application.business.dto.PurchaseLineDTO;
+import edu.cmu.andrew.application.business.dto.PurchaseRequestDTO;
 import edu.cmu.andrew.application.business.dto.RecommendedBookDTO;
 import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.bussines.BookCacheService;
+import edu.cmu.andrew.application.bussines.BookExportService;
+import edu.cmu.andrew.application.bussines.BookFacetService;
+import edu.cmu.andrew.application.bussines.BookImportService;
+import edu.cmu.andrew.application.bussines.BookSearchService;
 import edu.cmu.andrew.application.bussines.BookStoreService;
-import edu.cmu.andrew.application.bussines.RecommendationEngineService;
+import edu.cmu.andrew.application.bussines.BookWriteBehindService;
+import edu.cmu.andrew.application.bussines.CachedBook;
+import edu.cmu.andrew.application.bussines.HotKeyService;
+import edu.cmu.andrew.application.bussines.IsbnFilterService;
+import edu.cmu.andrew.application.bussines.LocalRecommendationService;
+import edu.cmu.andrew.application.bussines.RecommendationCacheService;
 import edu.cmu.andrew.application.persistence.BookRepository;
+import edu.cmu.andrew.application.persistence.InsufficientStockException;
+import edu.cmu.andrew.application.persistence.ReadWriteRoutingDataSource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 /**
@@ -39,21 +78,53 @@ import jakarta.validation.Valid;
 @RestController
 public class BookStoreServiceController implements BookStoreService {
 
+	private static final Logger logger = LoggerFactory.getLogger(BookStoreServiceController.class);
+
 	@Autowired
 	private BookRepository bookRepository;
 	
 	@Autowired
-	private  RecommendationEngineService recommendationEngineService;
+	private RecommendationCacheService recommendationCacheService;
+
+	@Autowired
+	private BookCacheService bookCacheService;
+
+	@Autowired
+	private BookImportService bookImportService;
+
+	@Autowired
+	private BookExportService bookExportService;
+
+	@Autowired
+	private BookSearchService bookSearchService;
+
+	@Autowired
+	private LocalRecommendationService localRecommendationService;
+
+	@Autowired
+	private BookFacetService bookFacetService;
+
+	@Autowired
+	private BookWriteBehindService bookWriteBehindService;
+
+	@Autowired
+	private IsbnFilterService isbnFilterService;
+
+	@Autowired
+	private HotKeyService hotKeyService;
+
+	@Autowired
+	private AsyncTaskExecutor applicationTaskExecutor;
 
 	/**
 	 * Add a book to the system. The ISBN will be the unique identifier for the
 	 * book. The book is added to the Book data table on MySql (the ISBN is the
-	 * primary key). This end point will validate if the given ISBN exists in the
-	 * system before trying the addition in the case of the ISBN is already in the
-	 * system the HTTP status code returned will be a 422 UNPROCESSABLE_ENTITY in
-	 * the case of the ISBN is not in the system the HTTP status code returned will
-	 * be a 201 CREATED Any malformed request will be handled by the Context and
-	 * will return a 400 status code
+	 * primary key) with a single INSERT, there is no previous query to validate
+	 * if the ISBN exists, in the case of the ISBN is already in the system the DB
+	 * rejects the INSERT and the HTTP status code returned will be a 422
+	 * UNPROCESSABLE_ENTITY in the case of the ISBN is not in the system the HTTP
+	 * status code returned will be a 201 CREATED Any malformed request will be
+	 * handled by the Context and will return a 400 status code
 	 * 
 	 * @param newBook a BookDTO object with the data of the book to be registered,
 	 *                the newBook implements field validation to avoid missing
@@ -71,25 +142,36 @@ public class BookStoreServiceController implements BookStoreService {
 
 		final String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().build().toUriString();
 
-		Optional<Book> existingBook = null;
-		existingBook = bookRepository.findById(newBook.getIsbn());
-		if (existingBook.isPresent()) {// If the given ISBN exists in the system
+		Book book = new Book(newBook.getIsbn(), newBook.getTitle(), newBook.getAuthor(), newBook.getDescription(),
+				newBook.getGenre(), newBook.getPrice(), newBook.getQuantity());
+		try {
+			bookFacetService.write(() -> {
+				bookRepository.insert(book);
+				bookFacetService.add(book);
+				return book;
+			});
+		} catch (DataIntegrityViolationException e) {// If the given ISBN exists in the system
+			if (!isDuplicateKey(e)) {
+				throw e;
+			}
+			isbnFilterService.add(book.getIsbn());// it may have been inserted by another writer
 
 			NotificationMsgDTO msg = new NotificationMsgDTO();
 			msg.setMessage("This ISBN already exists in the system.");
 
 			return new ResponseEntity<Object>(msg, HttpStatus.UNPROCESSABLE_ENTITY);
-		} else {// In the case of the given ISBN do not exists in the system
-
-			bookRepository.save(new Book(newBook.getIsbn(), newBook.getTitle(), newBook.getAuthor(),
-					newBook.getDescription(), newBook.getGenre(), newBook.getPrice(), newBook.getQuantity()));
-			HttpHeaders responseHeaders = new HttpHeaders();
-			responseHeaders.add("Location", baseUrl + "/books/" + newBook.getIsbn());
-			ResponseEntity<Object> responseEntity = new ResponseEntity<Object>(newBook, responseHeaders,
-					HttpStatus.CREATED);
-			return responseEntity;
-
 		}
+		// In the case of the given ISBN do not exists in the system
+		bookCacheService.put(book);// replaces a possible negative entry for this ISBN
+		bookSearchService.index(book);
+		localRecommendationService.index(book);
+		isbnFilterService.add(book.getIsbn());
+		HttpHeaders responseHeaders = new HttpHeaders();
+		responseHeaders.add("Location", baseUrl + "/books/" + newBook.getIsbn());
+		responseHeaders.setETag(etag(book));
+		ResponseEntity<Object> responseEntity = new ResponseEntity<Object>(newBook, responseHeaders,
+				HttpStatus.CREATED);
+		return responseEntity;
 	}
 
 	/**
@@ -97,71 +179,514 @@ public class BookStoreServiceController implements BookStoreService {
 	 * identifier for the book. This end point will validate that the given book
 	 * ISBN exists in the system, if the book does exists will proceed with the
 	 * update in the case of non existence the response will contain an HTTP status
-	 * code 404 NOT FOUND
+	 * code 404 NOT FOUND. When the request carries an If-Match header the update is
+	 * only applied if it matches the current ETag of the book, otherwise the
+	 * response will contain an HTTP status code 412 PRECONDITION FAILED. The same
+	 * status is returned when the row was changed by a concurrent update between
+	 * the read and the write (optimistic lock on the version column). An ISBN the
+	 * IsbnFilterService reports as unknown gets the 404 without querying the DB. When the
+	 * write-behind mode is enabled the update is accepted in memory, merged with
+	 * the pending update of the same ISBN and written later by the
+	 * BookWriteBehindService, the book is read from the cache instead of the DB
 	 * 
 	 * @param newBook a BookDTO object with the data of the book to be registered,
 	 *                the newBook implements field validation to avoid missing
 	 *                fields, as well as a validation for price format allowing up
 	 *                to two decimals
-	 * @return a ResponseEntity<Object> that will contain the book updated in case
-	 *         of success or an empty object and a error HTTP status code otherwise
+	 * @param ifMatch the optional If-Match header with the ETag(s) the client
+	 *                expects the book to have
+	 * @return a ResponseEntity<Object> that will contain the book updated and its
+	 *         new ETag in case of success or an empty object and a error HTTP
+	 *         status code otherwise
 	 */
 	@PutMapping("/books/{isbn}")
 	public ResponseEntity<Object> updateBook(@Valid @RequestBody(required = false) BookDTO newBook,
-			@PathVariable String isbn) {
+			@PathVariable String isbn, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
+		if (bookWriteBehindService.isEnabled()) {
+			return updateBookWriteBehind(newBook, isbn, ifMatch);
+		}
+		if (!isbnFilterService.mightExist(isbn)) {// definitely not in the system
+			return new ResponseEntity<Object>(HttpStatus.NOT_FOUND);
+		}
 		Optional<Book> existingBook = null;
 		existingBook = bookRepository.findById(isbn);
 		if (existingBook.isPresent()) { // if the book exists then can be updated
-			bookRepository.save(new Book(isbn, newBook.getTitle(), newBook.getAuthor(), newBook.getDescription(),
-					newBook.getGenre(), newBook.getPrice(), newBook.getQuantity()));
-			return new ResponseEntity<Object>(newBook, HttpStatus.OK);
+			Book book = existingBook.get();
+			if (ifMatch != null && !etagMatches(ifMatch, etag(book))) {
+				return new ResponseEntity<Object>(HttpStatus.PRECONDITION_FAILED);
+			}
+			String previousGenre = book.getGenre();
+			Integer previousQuantity = book.getQuantity();
+			// the loaded entity keeps its version so the UPDATE is guarded by it
+			book.setTitle(newBook.getTitle());
+			book.setAuthor(newBook.getAuthor());
+			book.setDescription(newBook.getDescription());
+			book.setGenre(newBook.getGenre());
+			book.setPrice(newBook.getPrice());
+			book.setQuantity(newBook.getQuantity());
+			Book saved;
+			try {
+				saved = bookFacetService.write(() -> {
+					Book stored = bookRepository.save(book);
+					bookFacetService.update(previousGenre, previousQuantity, stored);
+					return stored;
+				});
+			} catch (ObjectOptimisticLockingFailureException e) {
+				bookCacheService.evict(isbn);
+				return new ResponseEntity<Object>(HttpStatus.PRECONDITION_FAILED);
+			}
+			bookCacheService.put(saved);
+			bookSearchService.index(saved);
+			localRecommendationService.index(saved);
+			return ResponseEntity.ok().eTag(etag(saved)).body(newBook);
 		} else {// if the book does not exists then return a HTTP status error code
 			return new ResponseEntity<Object>(HttpStatus.NOT_FOUND);
 		}
 	}
 
+	/**
+	 * This end-point takes the copies of a purchase order out of stock. Every line is applied in the DB with a
+	 * conditional UPDATE that only decrements the quantity if there are enough copies, so the client does not read
+	 * and write back the book and concurrent purchases of the same book do not lose updates. The lines of the order
+	 * are applied in one transaction, all of them or none: if a book has fewer copies than requested the response
+	 * will contain an HTTP status code 409 CONFLICT, and 404 NOT FOUND if the ISBN is not in the system. Lines with
+	 * the same ISBN are added up. Any malformed request will be handled by the Context and will return a 400 status
+	 * code
+	 * 
+	 * @param order a PurchaseRequestDTO with the ISBN and the copies of every line, up to
+	 *              PurchaseRequestDTO.MAX_LINES
+	 * @return a ResponseEntity<Object> that will contain the order and the HTTP status code 200 in case of success
+	 *         or an error message otherwise
+	 */
+	@PostMapping("/books/purchase")
+	public ResponseEntity<Object> purchaseBooks(@Valid @RequestBody PurchaseRequestDTO order) {
+
+		SortedMap<String, Integer> lines = new TreeMap<>();
+		for (PurchaseLineDTO line : order.getLines()) {
+			lines.merge(line.getIsbn(), line.getQuantity(), Integer::sum);
+		}
+		bookWriteBehindService.flush(lines.keySet());// a pending update must not overwrite the new quantities
+		try {
+			bookFacetService.write(() -> {
+				Map<String, String> genres = bookRepository.purchase(lines);
+				bookFacetService.purchase(genres, lines);
+				return genres;
+			});
+		} catch (InsufficientStockException e) {
+			NotificationMsgDTO msg = new NotificationMsgDTO();
+			msg.setMessage(e.getMessage() + ", the order was not applied.");
+			return new ResponseEntity<Object>(msg,
+					e.getAvailable() == null ? HttpStatus.NOT_FOUND : HttpStatus.CONFLICT);
+		}
+		// the new quantities are not read back, the next read of the books loads them
+		lines.keySet().forEach(bookCacheService::evict);
+		return new ResponseEntity<Object>(order, HttpStatus.OK);
+	}
+
+	/**
+	 * Auxiliary method that applies an update through the write-behind buffer, the in-memory views of the book
+	 * (cache, search index and local recommender) are updated right away, the facets once the update is written
+	 * @param newBook the new data of the book
+	 * @param isbn the ISBN of the book to be updated
+	 * @param ifMatch the optional If-Match header
+	 * @return a ResponseEntity<Object> with the book updated and its new ETag, 404 if the book does not exist or
+	 *         412 if the If-Match header does not match
+	 */
+	private ResponseEntity<Object> updateBookWriteBehind(BookDTO newBook, String isbn, String ifMatch) {
+
+		Optional<Book> storedBook = bookCacheService.getBook(isbn);
+		if (storedBook.isEmpty()) {
+			return new ResponseEntity<Object>(HttpStatus.NOT_FOUND);
+		}
+		BookWriteBehindService.Update update = bookWriteBehindService.update(storedBook.get(), newBook,
+				(book) -> ifMatch == null || etagMatches(ifMatch, etag(book)));
+		if (update == null) {
+			return new ResponseEntity<Object>(HttpStatus.PRECONDITION_FAILED);
+		}
+		Book updated = update.getUpdated();
+		bookCacheService.put(updated);
+		bookSearchService.index(updated);
+		localRecommendationService.index(updated);
+		return ResponseEntity.ok().eTag(etag(updated)).body(newBook);
+	}
+
 	/**
 	 * This end-point query a book with the given ISBN, it validates if the book
 	 * with the given ISBN exists in the system if so, then it return a JSON object
-	 * of the book, otherwise will return a HTTP status error code 404 NOT_FOUND
+	 * of the book, otherwise will return a HTTP status error code 404 NOT_FOUND.
+	 * The lookup is served from the BookCacheService, the DB is only queried on a
+	 * cache miss. If the cache holds the pre-serialized JSON of the book the bytes
+	 * are written as they are, without mapping or serialization. Every response
+	 * carries a strong ETag built from the version of the book, a request with a
+	 * matching If-None-Match header is answered with 304 NOT MODIFIED and no body.
+	 * Every request is counted by the HotKeyService
 	 * 
 	 * @param isbn a String that contains the ISBN number of the book to query
-	 * @return A ResponseEntity<BookDTO> that contains the book found and the HTTP
-	 *         status code 200
+	 * @return A ResponseEntity<Object> that contains the book found (either a
+	 *         BookDTO or its JSON bytes) and the HTTP status code 200
 	 */
 	@RequestMapping(value = { "/books/isbn/{isbn}", "/books/{isbn}" }, method = RequestMethod.GET)
-	public ResponseEntity<BookDTO> getBook(@PathVariable String isbn) {
+	public ResponseEntity<Object> getBook(@PathVariable String isbn) {
 
-		Optional<Book> book = null;
-		book = bookRepository.findById(isbn);
+		hotKeyService.record(HotKeyService.BOOKS, isbn);
+		CachedBook book = bookCacheService.getCachedBook(isbn);
 		if (book.isPresent()) {
 
-			Book entity = book.get();
-			BookDTO bookDto = new BookDTO(entity.getIsbn(), entity.getTitle(), entity.getAuthor(),
-					entity.getDescription(), entity.getGenre(), entity.getPrice(), entity.getQuantity());
-			return new ResponseEntity<BookDTO>(bookDto, HttpStatus.OK);
+			String etag = etag(book.getBook());
+			if (book.getJson() != null) {
+				return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(book.getJson());
+			}
+			return ResponseEntity.ok().eTag(etag).body(new BookDTO(book.getBook()));
+		} else {
+			return new ResponseEntity<Object>(HttpStatus.NOT_FOUND);
+		}
+	}
+	
+	/**
+	 * This end-point query many books in a single request. The ISBNs that are not
+	 * in the cache are resolved with one DB query, the response contains the books
+	 * found (in the order requested, without duplicates) and the list of ISBNs that
+	 * are not in the system. Any malformed request will be handled by the Context
+	 * and will return a 400 status code
+	 * 
+	 * @param request a BookBatchRequestDTO with the list of ISBNs to query, up to
+	 *                BookBatchRequestDTO.MAX_ISBNS
+	 * @return A ResponseEntity<BookBatchResponseDTO> with the books found and the
+	 *         missing ISBNs and the HTTP status code 200
+	 */
+	@PostMapping("/books/batch-get")
+	public ResponseEntity<BookBatchResponseDTO> getBooks(@Valid @RequestBody BookBatchRequestDTO request) {
+
+		Set<String> isbns = new LinkedHashSet<>(request.getIsbns());
+		Map<String, CachedBook> cachedBooks = bookCacheService.getCachedBooks(isbns);
+		List<BookDTO> books = new ArrayList<>();
+		List<String> missing = new ArrayList<>();
+		for (String isbn : isbns) {
+			CachedBook book = cachedBooks.get(isbn);
+			if (book.isPresent()) {
+				books.add(new BookDTO(book.getBook()));
+			} else {
+				missing.add(isbn);
+			}
+		}
+		return new ResponseEntity<BookBatchResponseDTO>(new BookBatchResponseDTO(books, missing), HttpStatus.OK);
+	}
+	
+	/**
+	 * This end-point loads a feed of books into the system. The feed can be NDJSON
+	 * (one BookDTO per line) or CSV with a header row, it is read as a stream and
+	 * the valid records are inserted or updated in chunks. The response is streamed
+	 * as NDJSON with one BookImportResultDTO per record received, a record is
+	 * reported as UPSERTED, INVALID (with the validation errors) or FAILED (if its
+	 * chunk could not be written)
+	 * 
+	 * @param request  the http request with the feed as body
+	 * @param response the http response where the results are streamed
+	 * @throws IOException if the feed can not be read or the results written
+	 */
+	@PostMapping(value = "/books/import", consumes = { BookImportService.NDJSON, BookImportService.CSV })
+	public void importBooks(HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+		boolean csv = MediaType.parseMediaType(request.getContentType())
+				.isCompatibleWith(MediaType.parseMediaType(BookImportService.CSV));
+		response.setStatus(HttpStatus.OK.value());
+		response.setContentType(BookImportService.NDJSON);
+		bookImportService.importBooks(request.getInputStream(), csv, response.getOutputStream());
+	}
+	
+	/**
+	 * This end-point exports the whole catalog. The books are streamed as NDJSON (one
+	 * BookDTO per line) in ISBN order straight from a DB cursor, so the memory used
+	 * does not depend on the size of the catalog; the response is gzip compressed
+	 * when the Accept-Encoding header of the client allows it. An interrupted export
+	 * is resumed by sending the ISBN of the last line received as after
+	 * 
+	 * @param after    the ISBN of the last book already received, absent to export
+	 *                 the whole catalog
+	 * @param request  the http request
+	 * @param response the http response where the books are streamed
+	 * @throws IOException if the books can not be written
+	 */
+	@GetMapping("/books/export")
+	public void exportBooks(@RequestParam(required = false) String after, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+
+		response.setStatus(HttpStatus.OK.value());
+		response.setContentType(BookImportService.NDJSON);
+		response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+			response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+			ExportGzipOutputStream out = new ExportGzipOutputStream(response);
+			try {
+				bookExportService.exportBooks(after, out);
+				out.finish();
+			} finally {
+				out.end();
+			}
 		} else {
-			return new ResponseEntity<BookDTO>(HttpStatus.NOT_FOUND);
+			bookExportService.exportBooks(after, response.getOutputStream());
 		}
 	}
 	
+	/**
+	 * This end-point lists the catalog ordered by ISBN with keyset pagination, a page starts right after the ISBN
+	 * given in the after parameter so the cost of a page does not depend on its position in the catalog. The page
+	 * carries the continuation token (the ISBN to send as after) when there are more books
+	 * 
+	 * @param after the continuation token of the previous page, absent for the first page
+	 * @param limit the maximum number of books of the page, between 1 and 1000
+	 * @param genre optional filter by genre
+	 * @param author optional filter by author
+	 * @return A ResponseEntity<Object> that contains the BookPageDTO and the HTTP status code 200, or a message and
+	 *         the HTTP status code 400 if the limit is out of range
+	 */
+	@GetMapping("/books")
+	public ResponseEntity<Object> listBooks(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "" + BookPageDTO.DEFAULT_LIMIT) int limit,
+			@RequestParam(required = false) String genre, @RequestParam(required = false) String author) {
+
+		if (limit < 1 || limit > BookPageDTO.MAX_LIMIT) {
+			NotificationMsgDTO msg = new NotificationMsgDTO();
+			msg.setMessage("The limit must be between 1 and " + BookPageDTO.MAX_LIMIT + ".");
+			return new ResponseEntity<Object>(msg, HttpStatus.BAD_REQUEST);
+		}
+		// one extra row tells if there is a next page without a COUNT query
+		List<Book> page = bookRepository.findPage(after, genre, author, limit + 1);
+		String next = null;
+		if (page.size() > limit) {
+			page = page.subList(0, limit);
+			next = page.get(limit - 1).getIsbn();
+		}
+		List<BookDTO> books = new ArrayList<>(page.size());
+		page.forEach((book) -> books.add(new BookDTO(book)));
+		return new ResponseEntity<Object>(new BookPageDTO(books, next), HttpStatus.OK);
+	}
+
+	/**
+	 * This end-point searches the catalog by title, author and description. The query is answered by the in-memory
+	 * search index, the books that contain any of its terms are ranked by relevance (a match in the title weighs
+	 * more than one in the author, and this more than one in the description) and the best ones are returned
+	 * 
+	 * @param q the text to search
+	 * @param limit the maximum number of hits, between 1 and 100
+	 * @return A ResponseEntity<Object> that contains the BookSearchResultDTO and the HTTP status code 200, or a
+	 *         message and the HTTP status code 400 if the query is empty or the limit is out of range
+	 */
+	@GetMapping("/books/search")
+	public ResponseEntity<Object> searchBooks(@RequestParam(required = false) String q,
+			@RequestParam(defaultValue = "" + BookSearchResultDTO.DEFAULT_LIMIT) int limit) {
+
+		if (q == null || q.isBlank() || limit < 1 || limit > BookSearchResultDTO.MAX_LIMIT) {
+			NotificationMsgDTO msg = new NotificationMsgDTO();
+			msg.setMessage("The query can not be empty and the limit must be between 1 and "
+					+ BookSearchResultDTO.MAX_LIMIT + ".");
+			return new ResponseEntity<Object>(msg, HttpStatus.BAD_REQUEST);
+		}
+		return new ResponseEntity<Object>(bookSearchService.search(q, limit), HttpStatus.OK);
+	}
+
+	/**
+	 * This end-point returns the typeahead suggestions of a prefix, the titles and authors that start with it
+	 * (ignoring case, accents and punctuation) ordered by popularity, the number of books with that title or
+	 * author. The suggestions are answered by the in-memory suggest index
+	 * 
+	 * @param prefix the text typed by the end-user
+	 * @param limit the maximum number of suggestions, between 1 and 50
+	 * @return A ResponseEntity<Object> that contains the BookSuggestResultDTO and the HTTP status code 200, or a
+	 *         message and the HTTP status code 400 if the prefix is empty or the limit is out of range
+	 */
+	@GetMapping("/books/suggest")
+	public ResponseEntity<Object> suggestBooks(@RequestParam(required = false) String prefix,
+			@RequestParam(defaultValue = "" + BookSuggestResultDTO.DEFAULT_LIMIT) int limit) {
+
+		if (prefix == null || prefix.isBlank() || limit < 1 || limit > BookSuggestResultDTO.MAX_LIMIT) {
+			NotificationMsgDTO msg = new NotificationMsgDTO();
+			msg.setMessage("The prefix can not be empty and the limit must be between 1 and "
+					+ BookSuggestResultDTO.MAX_LIMIT + ".");
+			return new ResponseEntity<Object>(msg, HttpStatus.BAD_REQUEST);
+		}
+		return new ResponseEntity<Object>(new BookSuggestResultDTO(bookSearchService.suggest(prefix, limit)),
+				HttpStatus.OK);
+	}
+
+	/**
+	 * This end-point returns the number of books and the quantity in stock of every genre. The counts are kept in
+	 * memory and adjusted by every write, so the DB is not queried
+	 * 
+	 * @return A ResponseEntity<GenreFacetsDTO> with the facets ordered by genre and the HTTP status code 200
+	 */
+	@GetMapping("/books/facets/genre")
+	public ResponseEntity<GenreFacetsDTO> getGenreFacets() {
+
+		return new ResponseEntity<GenreFacetsDTO>(bookFacetService.getFacets(), HttpStatus.OK);
+	}
+
+	/**
+	 * This end-point counts the books of every genre again in the DB and replaces the counts kept in memory
+	 * 
+	 * @return A ResponseEntity<Object> with the rebuilt facets and the HTTP status code 200, or a message and the
+	 *         HTTP status code 503 if the DB is not available
+	 */
+	@PostMapping("/books/facets/genre/rebuild")
+	public ResponseEntity<Object> rebuildGenreFacets() {
+
+		if (!bookFacetService.rebuild()) {
+			NotificationMsgDTO msg = new NotificationMsgDTO();
+			msg.setMessage("The facets could not be rebuilt, the database is not available.");
+			return new ResponseEntity<Object>(msg, HttpStatus.SERVICE_UNAVAILABLE);
+		}
+		return new ResponseEntity<Object>(bookFacetService.getFacets(), HttpStatus.OK);
+	}
+
 	/**
 	 * This end-point returns a list of book titles that are related to a given book specified via its ISBN.
+	 * The recommendations are cached, a stale list is returned while it is refreshed in background and also
+	 * when the recommendation engine is unavailable. If there is nothing cached the related books are computed
+	 * from the catalog by the LocalRecommendationService (fallback mode), 503/504 is only returned for a book it
+	 * has not indexed. In primary mode every list comes from the LocalRecommendationService. With the
+	 * RelatedBooksPrecomputeService enabled the lists are read from the table RELATED_BOOK, filled ahead of the
+	 * requests, and the header Last-Modified tells when the list was fetched from the engine.
+	 * With enrich=true every related book has the flag stocked and, if it is in the catalog, its price and
+	 * quantity; the books are read through the book cache with a single DB query for the misses, on the
+	 * application task executor with the read-your-writes pin of the request (never on the bulkhead threads).
+	 * The request is processed asynchronously, the web server thread is released while the engine is called.
 	 * 
 	 * @param isbn a String that contains the ISBN number of the book which want to get books related to
-	 * @return A ResponseEntity<Object> that contains the list of related books found and the HTTP
+	 * @param enrich true to add the stock of the catalog to the related books
+	 * @return A CompletableFuture of the ResponseEntity that contains the list of related books found and the HTTP
 	 *         status code 200. If the service is not available it will return 503 http code
 	 */
 	@GetMapping("/books/{isbn}/related-books")
-	public ResponseEntity<List<RecommendedBookDTO>> getRelatedBooks(@PathVariable String isbn) {
+	public CompletableFuture<ResponseEntity<List<RecommendedBookDTO>>> getRelatedBooks(@PathVariable String isbn,
+			@RequestParam(defaultValue = "false") boolean enrich) {
 
-		ResponseEntity<List<RecommendedBookDTO>> listBooksRecommendedResponseEntity = 
-				recommendationEngineService.getRecommendation(isbn);	
-		return listBooksRecommendedResponseEntity;
+		hotKeyService.record(HotKeyService.RELATED_BOOKS, isbn);
+		CompletableFuture<ResponseEntity<List<RecommendedBookDTO>>> related = recommendationCacheService
+				.getRecommendation(isbn);
+		if (!enrich) {
+			return related;
+		}
+		boolean pinned = ReadWriteRoutingDataSource.isPinnedToWriter();
+		return related.thenApplyAsync((response) -> {
+			ReadWriteRoutingDataSource.pinToWriter(pinned);
+			try {
+				return enrich(response);
+			} finally {
+				ReadWriteRoutingDataSource.pinToWriter(false);
+			}
+		}, applicationTaskExecutor);
+	}
+
+	/**
+	 * Auxiliary method that adds the stock of the catalog to a list of related books, the cached lists are not
+	 * modified. If the DB is not available the list is returned without the stock
+	 */
+	private ResponseEntity<List<RecommendedBookDTO>> enrich(ResponseEntity<List<RecommendedBookDTO>> response) {
+		if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+			return response;
+		}
+		Set<String> isbns = new LinkedHashSet<>();
+		for (RecommendedBookDTO book : response.getBody()) {
+			if (book.getIsbn() != null) {
+				isbns.add(book.getIsbn());
+			}
+		}
+		Map<String, CachedBook> cachedBooks;
+		try {
+			cachedBooks = isbns.isEmpty() ? Map.of() : bookCacheService.getCachedBooks(isbns);
+		} catch (DataAccessException e) {
+			logger.warn("Unable to enrich the related books", e);
+			return response;
+		}
+		List<RecommendedBookDTO> books = new ArrayList<>(response.getBody().size());
+		for (RecommendedBookDTO book : response.getBody()) {
+			CachedBook stocked = book.getIsbn() == null ? null : cachedBooks.get(book.getIsbn());
+			books.add(new RecommendedBookDTO(book, stocked == null ? null : stocked.getBook()));
+		}
+		return new ResponseEntity<List<RecommendedBookDTO>>(books, response.getHeaders(), response.getStatusCode());
 	}
 	
 
+	/**
+	 * Auxiliary method that builds the strong ETag of a book from its version, a book without version yet
+	 * (fresh insert) has version 0
+	 * @param book the book stored in the system
+	 * @return the quoted ETag value
+	 */
+	private static String etag(Book book) {
+		return "\"" + (book.getVersion() == null ? 0 : book.getVersion()) + "\"";
+	}
+
+	/**
+	 * Auxiliary method that evaluates an If-Match header against the current ETag, the header may be "*" or a
+	 * comma separated list of ETags. Strong comparison is used so weak ETags never match
+	 * @param header the value of the If-Match header
+	 * @param etag the current ETag of the book
+	 * @return true if the precondition holds
+	 */
+	private static boolean etagMatches(String header, String etag) {
+		for (String candidate : header.split(",")) {
+			String value = candidate.trim();
+			if (value.equals("*") || value.equals(etag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Auxiliary method that evaluates an Accept-Encoding header, the client accepts gzip if it is listed without a
+	 * zero quality
+	 * @param header the value of the Accept-Encoding header, null if absent
+	 * @return true if the response can be gzip compressed
+	 */
+	private static boolean acceptsGzip(String header) {
+		if (header == null) {
+			return false;
+		}
+		for (String candidate : header.split(",")) {
+			String[] parts = candidate.trim().split(";");
+			if (parts[0].trim().equalsIgnoreCase("gzip")) {
+				return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Auxiliary method that tells if an integrity violation is a duplicated unique key (MySQL error 1062, SQL state
+	 * 23505 on other DBs), the other violations (NOT NULL, too long values) are not a duplicate
+	 * @param e the violation raised by the INSERT
+	 * @return true if the row already exists
+	 */
+	private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+		if (e instanceof DuplicateKeyException) {
+			return true;
+		}
+		for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+			if (cause instanceof SQLException sqlException) {
+				return sqlException.getErrorCode() == 1062 || "23505".equals(sqlException.getSQLState());
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gzip stream of an export. Its deflater is released with end() whether the export succeeded or not, without
+	 * writing the gzip trailer when it failed, so the client does not get a truncated catalog as a complete stream
+	 */
+	private static final class ExportGzipOutputStream extends GZIPOutputStream {
+
+		private ExportGzipOutputStream(HttpServletResponse response) throws IOException {
+			super(response.getOutputStream(), 8192);
+		}
+
+		private void end() {
+			def.end();
+		}
+	}
+
 	/**
 	 * Method to handle bad requests and validation errors. This method will
 	 * intercept errors coming from the client data and will produce a comprehensive
@@ -0,0 +1,41 @@
+package edu.cmu.andrew.application.business.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import edu.cmu.andrew.application.business.dto.HotKeyDTO;
+import edu.cmu.andrew.application.bussines.HotKeyService;
+
+/**
+* <h1>Hot Keys actuator endpoint</h1>
+* 
+*  Actuator endpoint (/actuator/hotkeys) with the most requested keys of every tracked request path and their
+*  time-decayed counts, /actuator/hotkeys/{path} returns the keys of one path
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+
+	@Autowired
+	private HotKeyService hotKeyService;
+
+	@ReadOperation
+	public Map<String, List<HotKeyDTO>> hotKeys() {
+		return hotKeyService.top();
+	}
+
+	@ReadOperation
+	public List<HotKeyDTO> hotKeys(@Selector String path) {
+		return hotKeyService.top(path);
+	}
+}
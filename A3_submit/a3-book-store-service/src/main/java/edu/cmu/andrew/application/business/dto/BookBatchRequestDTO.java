@@ -0,0 +1,43 @@
+package edu.cmu.andrew.application.business.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+/**
+* <h1>BookBatchRequestDTO</h1>
+* 
+* Data Transfer Object with the list of ISBNs to be retrieved in a single batch request.
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class BookBatchRequestDTO {
+
+	public static final int MAX_ISBNS = 100;
+
+	@NotEmpty
+	@Size(max = MAX_ISBNS)
+	private List<@NotBlank String> isbns;
+
+	public BookBatchRequestDTO() {
+		super();
+	}
+
+	public BookBatchRequestDTO(List<String> isbns) {
+		super();
+		this.isbns = isbns;
+	}
+
+	public List<String> getIsbns() {
+		return isbns;
+	}
+
+	public void setIsbns(List<String> isbns) {
+		this.isbns = isbns;
+	}
+
+}
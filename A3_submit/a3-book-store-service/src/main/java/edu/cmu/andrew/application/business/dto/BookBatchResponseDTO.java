@@ -0,0 +1,46 @@
+package edu.cmu.andrew.application.business.dto;
+
+import java.util.List;
+
+/**
+* <h1>BookBatchResponseDTO</h1>
+* 
+* Data Transfer Object with the result of a batch request, the books found and the ISBNs that are not in the system.
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class BookBatchResponseDTO {
+
+	private List<BookDTO> books;
+
+	private List<String> missing;
+
+	public BookBatchResponseDTO() {
+		super();
+	}
+
+	public BookBatchResponseDTO(List<BookDTO> books, List<String> missing) {
+		super();
+		this.books = books;
+		this.missing = missing;
+	}
+
+	public List<BookDTO> getBooks() {
+		return books;
+	}
+
+	public void setBooks(List<BookDTO> books) {
+		this.books = books;
+	}
+
+	public List<String> getMissing() {
+		return missing;
+	}
+
+	public void setMissing(List<String> missing) {
+		this.missing = missing;
+	}
+
+}
@@ -4,6 +4,8 @@ package edu.cmu.andrew.application.business.dto;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
+import edu.cmu.andrew.application.business.model.Book;
+
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
@@ -78,6 +80,15 @@ public class BookDTO {
 		this.title = title;
 		this.author = author;
 	}
+	
+	/**
+	 * Creates a DTO with the data of the given Book entity
+	 * @param entity the book entity to copy the data from
+	 */
+	public BookDTO(Book entity) {
+		this(entity.getIsbn(), entity.getTitle(), entity.getAuthor(), entity.getDescription(), entity.getGenre(),
+				entity.getPrice(), entity.getQuantity());
+	}
 	public String getIsbn() {
 		return isbn;
 	}
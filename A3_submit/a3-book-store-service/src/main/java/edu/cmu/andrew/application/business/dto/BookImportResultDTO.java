@@ -0,0 +1,78 @@
+package edu.cmu.andrew.application.business.dto;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+* <h1>BookImportResultDTO</h1>
+* 
+* Data Transfer Object with the result of a single record of a bulk import, one of these is streamed back to the
+* end-user for every record received.
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@JsonPropertyOrder({ "record", "ISBN", "status", "errors" })
+public class BookImportResultDTO {
+
+	public static final String UPSERTED = "UPSERTED";
+	public static final String INVALID = "INVALID";
+	public static final String FAILED = "FAILED";
+
+	private long record;
+
+	@JsonProperty("ISBN")
+	private String isbn;
+
+	private String status;
+
+	private Map<String, String> errors;
+
+	public BookImportResultDTO() {
+		super();
+	}
+
+	public BookImportResultDTO(long record, String isbn, String status, Map<String, String> errors) {
+		super();
+		this.record = record;
+		this.isbn = isbn;
+		this.status = status;
+		this.errors = errors;
+	}
+
+	public long getRecord() {
+		return record;
+	}
+
+	public void setRecord(long record) {
+		this.record = record;
+	}
+
+	public String getIsbn() {
+		return isbn;
+	}
+
+	public void setIsbn(String isbn) {
+		this.isbn = isbn;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public Map<String, String> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(Map<String, String> errors) {
+		this.errors = errors;
+	}
+
+}
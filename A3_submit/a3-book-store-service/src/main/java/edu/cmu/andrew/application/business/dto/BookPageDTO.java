@@ -0,0 +1,50 @@
+package edu.cmu.andrew.application.business.dto;
+
+import java.util.List;
+
+/**
+* <h1>BookPageDTO</h1>
+* 
+* Data Transfer Object with a page of the catalog ordered by ISBN and the continuation token of the next page. The
+* token is the ISBN of the last book of the page and is sent back in the after parameter, it is null on the last page.
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class BookPageDTO {
+
+	public static final int DEFAULT_LIMIT = 100;
+	public static final int MAX_LIMIT = 1000;
+
+	private List<BookDTO> books;
+
+	private String next;
+
+	public BookPageDTO() {
+		super();
+	}
+
+	public BookPageDTO(List<BookDTO> books, String next) {
+		super();
+		this.books = books;
+		this.next = next;
+	}
+
+	public List<BookDTO> getBooks() {
+		return books;
+	}
+
+	public void setBooks(List<BookDTO> books) {
+		this.books = books;
+	}
+
+	public String getNext() {
+		return next;
+	}
+
+	public void setNext(String next) {
+		this.next = next;
+	}
+
+}
@@ -0,0 +1,73 @@
+package edu.cmu.andrew.application.business.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+* <h1>BookSearchHitDTO</h1>
+* 
+* Data Transfer Object with a book found by a search and its relevance score, the fields keep the names of the
+* JSON representation of BookDTO.
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@JsonPropertyOrder({ "ISBN", "title", "Author", "score" })
+public class BookSearchHitDTO {
+
+	@JsonProperty("ISBN")
+	private String isbn;
+
+	private String title;
+
+	@JsonProperty("Author")
+	private String author;
+
+	private float score;
+
+	public BookSearchHitDTO() {
+		super();
+	}
+
+	public BookSearchHitDTO(String isbn, String title, String author, float score) {
+		super();
+		this.isbn = isbn;
+		this.title = title;
+		this.author = author;
+		this.score = score;
+	}
+
+	public String getIsbn() {
+		return isbn;
+	}
+
+	public void setIsbn(String isbn) {
+		this.isbn = isbn;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getAuthor() {
+		return author;
+	}
+
+	public void setAuthor(String author) {
+		this.author = author;
+	}
+
+	public float getScore() {
+		return score;
+	}
+
+	public void setScore(float score) {
+		this.score = score;
+	}
+
+}
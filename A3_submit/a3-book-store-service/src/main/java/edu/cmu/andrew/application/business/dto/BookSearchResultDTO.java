@@ -0,0 +1,50 @@
+package edu.cmu.andrew.application.business.dto;
+
+import java.util.List;
+
+/**
+* <h1>BookSearchResultDTO</h1>
+* 
+* Data Transfer Object with the result of a search, the number of books that match the query and the best hits
+* ordered by relevance.
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class BookSearchResultDTO {
+
+	public static final int DEFAULT_LIMIT = 10;
+	public static final int MAX_LIMIT = 100;
+
+	private long total;
+
+	private List<BookSearchHitDTO> hits;
+
+	public BookSearchResultDTO() {
+		super();
+	}
+
+	public BookSearchResultDTO(long total, List<BookSearchHitDTO> hits) {
+		super();
+		this.total = total;
+		this.hits = hits;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public void setTotal(long total) {
+		this.total = total;
+	}
+
+	public List<BookSearchHitDTO> getHits() {
+		return hits;
+	}
+
+	public void setHits(List<BookSearchHitDTO> hits) {
+		this.hits = hits;
+	}
+
+}
@@ -0,0 +1,38 @@
+package edu.cmu.andrew.application.business.dto;
+
+import java.util.List;
+
+/**
+* <h1>BookSuggestResultDTO</h1>
+* 
+* Data Transfer Object with the typeahead suggestions of a prefix ordered by weight.
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class BookSuggestResultDTO {
+
+	public static final int DEFAULT_LIMIT = 10;
+	public static final int MAX_LIMIT = 50;
+
+	private List<BookSuggestionDTO> suggestions;
+
+	public BookSuggestResultDTO() {
+		super();
+	}
+
+	public BookSuggestResultDTO(List<BookSuggestionDTO> suggestions) {
+		super();
+		this.suggestions = suggestions;
+	}
+
+	public List<BookSuggestionDTO> getSuggestions() {
+		return suggestions;
+	}
+
+	public void setSuggestions(List<BookSuggestionDTO> suggestions) {
+		this.suggestions = suggestions;
+	}
+
+}
@@ -0,0 +1,59 @@
+package edu.cmu.andrew.application.business.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+* <h1>BookSuggestionDTO</h1>
+* 
+* Data Transfer Object with a typeahead suggestion, the title or author to display, its type (title or author) and
+* its weight (the number of books with that title or author).
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@JsonPropertyOrder({ "text", "type", "weight" })
+public class BookSuggestionDTO {
+
+	private String text;
+
+	private String type;
+
+	private int weight;
+
+	public BookSuggestionDTO() {
+		super();
+	}
+
+	public BookSuggestionDTO(String text, String type, int weight) {
+		super();
+		this.text = text;
+		this.type = type;
+		this.weight = weight;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public void setText(String text) {
+		this.text = text;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public int getWeight() {
+		return weight;
+	}
+
+	public void setWeight(int weight) {
+		this.weight = weight;
+	}
+
+}
@@ -0,0 +1,59 @@
+package edu.cmu.andrew.application.business.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+* <h1>GenreFacetDTO</h1>
+* 
+* Data Transfer Object with the facet of a genre, the number of books of the genre and the sum of their quantity in
+* stock.
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@JsonPropertyOrder({ "genre", "books", "quantity" })
+public class GenreFacetDTO {
+
+	private String genre;
+
+	private long books;
+
+	private long quantity;
+
+	public GenreFacetDTO() {
+		super();
+	}
+
+	public GenreFacetDTO(String genre, Long books, Long quantity) {
+		super();
+		this.genre = genre;
+		this.books = books == null ? 0 : books;
+		this.quantity = quantity == null ? 0 : quantity;
+	}
+
+	public String getGenre() {
+		return genre;
+	}
+
+	public void setGenre(String genre) {
+		this.genre = genre;
+	}
+
+	public long getBooks() {
+		return books;
+	}
+
+	public void setBooks(long books) {
+		this.books = books;
+	}
+
+	public long getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(long quantity) {
+		this.quantity = quantity;
+	}
+
+}
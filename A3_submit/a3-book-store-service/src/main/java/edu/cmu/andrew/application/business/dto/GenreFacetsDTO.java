@@ -0,0 +1,35 @@
+package edu.cmu.andrew.application.business.dto;
+
+import java.util.List;
+
+/**
+* <h1>GenreFacetsDTO</h1>
+* 
+* Data Transfer Object with the facets of every genre of the catalog ordered by genre.
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class GenreFacetsDTO {
+
+	private List<GenreFacetDTO> genres;
+
+	public GenreFacetsDTO() {
+		super();
+	}
+
+	public GenreFacetsDTO(List<GenreFacetDTO> genres) {
+		super();
+		this.genres = genres;
+	}
+
+	public List<GenreFacetDTO> getGenres() {
+		return genres;
+	}
+
+	public void setGenres(List<GenreFacetDTO> genres) {
+		this.genres = genres;
+	}
+
+}
@@ -0,0 +1,56 @@
+package edu.cmu.andrew.application.business.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+* <h1>PurchaseLineDTO</h1>
+* 
+* Data Transfer Object with the ISBN and the number of copies of a line of a purchase order.
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@JsonPropertyOrder({ "ISBN", "quantity" })
+public class PurchaseLineDTO {
+
+	@JsonProperty("ISBN")
+	@NotBlank
+	@NotNull
+	private String isbn;
+	@NotNull
+	@Min(1)
+	private Integer quantity;
+
+	public PurchaseLineDTO() {
+		super();
+	}
+
+	public PurchaseLineDTO(String isbn, Integer quantity) {
+		super();
+		this.isbn = isbn;
+		this.quantity = quantity;
+	}
+
+	public String getIsbn() {
+		return isbn;
+	}
+
+	public void setIsbn(String isbn) {
+		this.isbn = isbn;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(Integer quantity) {
+		this.quantity = quantity;
+	}
+
+}
@@ -0,0 +1,44 @@
+package edu.cmu.andrew.application.business.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+* <h1>PurchaseRequestDTO</h1>
+* 
+* Data Transfer Object with the lines of a purchase order, all of them are applied or none.
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class PurchaseRequestDTO {
+
+	public static final int MAX_LINES = 100;
+
+	@NotEmpty
+	@Size(max = MAX_LINES)
+	private List<@Valid @NotNull PurchaseLineDTO> lines;
+
+	public PurchaseRequestDTO() {
+		super();
+	}
+
+	public PurchaseRequestDTO(List<PurchaseLineDTO> lines) {
+		super();
+		this.lines = lines;
+	}
+
+	public List<PurchaseLineDTO> getLines() {
+		return lines;
+	}
+
+	public void setLines(List<PurchaseLineDTO> lines) {
+		this.lines = lines;
+	}
+
+}
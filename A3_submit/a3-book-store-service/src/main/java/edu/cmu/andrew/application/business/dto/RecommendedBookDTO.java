@@ -2,6 +2,8 @@ package edu.cmu.andrew.application.business.dto;
 
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
+import edu.cmu.andrew.application.business.model.Book;
+
 /**
 * <h1>BookDTO</h1>
 * 
@@ -12,7 +14,7 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 * @since   2024-04-09
 */
 
-@JsonPropertyOrder({ "title", "isbn", "authors","publisher" })
+@JsonPropertyOrder({ "title", "isbn", "authors","publisher", "stocked", "price", "quantity" })
 public class RecommendedBookDTO {
 
 
@@ -23,6 +25,12 @@ public class RecommendedBookDTO {
 	private String authors;
 
 	private String publisher;
+
+	private Boolean stocked;// only set in enriched lists, with the price and quantity of the stocked books
+
+	private Double price;
+
+	private Integer quantity;
 	
 	
 
@@ -39,6 +47,20 @@ public class RecommendedBookDTO {
 		this.publisher = publisher;
 	}
 
+	/**
+	 * Copy of a recommended book enriched with the stock of the catalog
+	 * @param recommended the book recommended
+	 * @param book the book of the catalog with the same ISBN, null if it is not stocked
+	 */
+	public RecommendedBookDTO(RecommendedBookDTO recommended, Book book) {
+		this(recommended.getTitle(), recommended.getIsbn(), recommended.getAuthors(), recommended.getPublisher());
+		this.stocked = book != null;
+		if (book != null) {
+			this.price = book.getPrice();
+			this.quantity = book.getQuantity();
+		}
+	}
+
 	public String getTitle() {
 		return title;
 	}
@@ -70,6 +92,30 @@ public class RecommendedBookDTO {
 	public void setPublisher(String publisher) {
 		this.publisher = publisher;
 	}
+
+	public Boolean getStocked() {
+		return stocked;
+	}
+
+	public void setStocked(Boolean stocked) {
+		this.stocked = stocked;
+	}
+
+	public Double getPrice() {
+		return price;
+	}
+
+	public void setPrice(Double price) {
+		this.price = price;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(Integer quantity) {
+		this.quantity = quantity;
+	}
 	
 	
 	
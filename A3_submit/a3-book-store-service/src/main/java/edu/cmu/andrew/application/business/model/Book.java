@@ -9,13 +9,16 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 
 /**
 * <h1>Book Entity</h1>
 * 
-* Entity Mapping for the table BOOK in the DB
+* Entity Mapping for the table BOOK in the DB, the indexes on (genre, ISBN) and (author, ISBN) serve the keyset
+* pagination of the catalog when it is filtered
 *  
 * @author  Juan Carlos Villegas Montiel
 * @version 1.0
@@ -23,7 +26,8 @@ import jakarta.persistence.Table;
 */
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
-@Table(name="BOOK")
+@Table(name="BOOK", indexes = { @Index(name = "BOOK_GENRE_ISBN", columnList = "genre, ISBN"),
+		@Index(name = "BOOK_AUTHOR_ISBN", columnList = "author, ISBN") })
 public class Book {
 
 	@Id
@@ -36,6 +40,8 @@ public class Book {
 	private String genre;
 	private Double price;
 	private Integer quantity;
+	@Version
+	private Long version;// optimistic lock, increased by every update of the row
 	
 	
 	
@@ -159,6 +165,20 @@ public class Book {
 	public void setQuantity(Integer quantity) {
 		this.quantity = quantity;
 	}
+
+
+
+
+	public Long getVersion() {
+		return version;
+	}
+
+
+
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
 	
 	
 	
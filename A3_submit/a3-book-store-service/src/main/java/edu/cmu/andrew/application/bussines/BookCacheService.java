@@ -0,0 +1,238 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import edu.cmu.andrew.application.business.dto.BookDTO;
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.persistence.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+* <h1>Book Cache Service</h1>
+*
+* In-process read-through cache that sits in front of BookRepository.findById. The cache is bounded by size
+* and every entry expires after a TTL, unknown ISBNs are cached as negative entries with a shorter TTL so
+* repeated lookups of missing books do not reach the DB. Hit, miss and eviction statistics are published
+* to the meter registry under the cache name "books".
+*
+* When bookstore.cache.serialized-responses is enabled every entry also keeps the final JSON bytes of the
+* book, serialized with the application ObjectMapper so the configured property inclusion is honored.
+*
+* Concurrent misses of the same ISBN are collapsed with a SingleFlight named "books". A miss of a book with an
+* update waiting in the BookWriteBehindService loads the pending state instead of the row of the DB, a miss of an
+* ISBN the IsbnFilterService reports as unknown is answered as not found without querying the DB (and without
+* filling the cache with negative entries). A miss of a book in the BookSnapshotService is served from the mapped
+* snapshot without querying the DB and without filling the cache, the writes are recorded in its delta.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Service
+public class BookCacheService {
+
+	private static final Logger logger = LoggerFactory.getLogger(BookCacheService.class);
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private IsbnFilterService isbnFilterService;
+
+	@Autowired
+	private BookSnapshotService bookSnapshotService;
+
+	@Lazy// the write-behind buffer evicts from this cache
+	@Autowired
+	private BookWriteBehindService bookWriteBehindService;
+
+	@Value("${bookstore.cache.maximum-size:10000}")
+	private long maximumSize;
+
+	@Value("${bookstore.cache.ttl:10m}")
+	private Duration ttl;
+
+	@Value("${bookstore.cache.negative-ttl:30s}")
+	private Duration negativeTtl;
+
+	@Value("${bookstore.cache.serialized-responses:false}")
+	private boolean serializedResponses;
+
+	private Cache<String, CachedBook> books;
+
+	private SingleFlight<String, CachedBook> booksFlight;
+
+	/**
+	 * Builds the cache once the configuration values are injected and binds its statistics to the meter registry
+	 */
+	@PostConstruct
+	public void init() {
+		books = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfter(new Expiry<String, CachedBook>() {
+					@Override
+					public long expireAfterCreate(String isbn, CachedBook book, long currentTime) {
+						return book.isPresent() ? ttl.toNanos() : negativeTtl.toNanos();
+					}
+
+					@Override
+					public long expireAfterUpdate(String isbn, CachedBook book, long currentTime,
+							long currentDuration) {
+						return expireAfterCreate(isbn, book, currentTime);
+					}
+
+					@Override
+					public long expireAfterRead(String isbn, CachedBook book, long currentTime,
+							long currentDuration) {
+						return currentDuration;
+					}
+				})
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, books, "books");
+		booksFlight = new SingleFlight<>("books", meterRegistry);
+	}
+
+	/**
+	 * Method to get a book by its ISBN, the DB is only queried when the ISBN is not in the cache
+	 * @param isbn the unique key identifier of the book to be query
+	 * @return an Optional with the book found, empty if the ISBN is not in the system
+	 */
+	public Optional<Book> getBook(String isbn) {
+		return getCachedBook(isbn).asOptional();
+	}
+
+	/**
+	 * Method to get the cache entry of a book, including its pre-serialized JSON when that mode is enabled.
+	 * Concurrent misses of the same ISBN share a single BookRepository.findById call. The entry is loaded atomically,
+	 * a put or an evict of the ISBN issued during the load waits for it and is applied after, never overwritten
+	 * @param isbn the unique key identifier of the book to be query
+	 * @return the cache entry, CachedBook.NOT_FOUND if the ISBN is not in the system
+	 */
+	public CachedBook getCachedBook(String isbn) {
+		CachedBook book = books.getIfPresent(isbn);
+		if (book == null && !isbnFilterService.mightExist(isbn)) {
+			return CachedBook.NOT_FOUND;
+		}
+		if (book == null) {
+			book = bookSnapshotService.get(isbn);
+		}
+		if (book == null) {
+			book = booksFlight.execute(isbn, () -> books.get(isbn, (key) -> {// a concurrent write waits for the load
+				Book pending = bookWriteBehindService.pending(key);
+				return toEntry(pending != null ? pending : bookRepository.findById(key).orElse(null));
+			}));
+		}
+		return book;
+	}
+
+	/**
+	 * Method to get the cache entries of many books at once, all the ISBNs that are not in the cache or the snapshot
+	 * are resolved with a single BookRepository.findAllById query and the ISBNs not found are cached as negative
+	 * entries
+	 * @param isbns the unique key identifiers of the books to be query
+	 * @return a map with one entry per distinct ISBN, CachedBook.NOT_FOUND for the ISBNs not in the system
+	 */
+	public Map<String, CachedBook> getCachedBooks(Collection<String> isbns) {
+		Map<String, CachedBook> result = new HashMap<>(books.getAllPresent(isbns));
+		Set<String> misses = new LinkedHashSet<>(isbns);
+		misses.removeAll(result.keySet());
+		for (String isbn : new ArrayList<>(misses)) {
+			CachedBook stored = isbnFilterService.mightExist(isbn) ? bookSnapshotService.get(isbn) : CachedBook.NOT_FOUND;
+			if (stored != null) {
+				result.put(isbn, stored);
+				misses.remove(isbn);
+			}
+		}
+		for (String isbn : new ArrayList<>(misses)) {
+			Book pending = bookWriteBehindService.pending(isbn);
+			if (pending != null) {
+				CachedBook entry = toEntry(pending);
+				books.put(isbn, entry);
+				result.put(isbn, entry);
+				misses.remove(isbn);
+			}
+		}
+		if (!misses.isEmpty()) {
+			for (Book book : bookRepository.findAllById(misses)) {
+				CachedBook entry = toEntry(book);
+				books.put(book.getIsbn(), entry);
+				result.put(book.getIsbn(), entry);
+				misses.remove(book.getIsbn());
+			}
+			for (String isbn : misses) {
+				books.put(isbn, CachedBook.NOT_FOUND);
+				result.put(isbn, CachedBook.NOT_FOUND);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Method to store the current state of a book after it is written in the DB, it replaces any negative entry
+	 * and rebuilds the pre-serialized JSON
+	 * @param book the book instance that was stored in the system
+	 */
+	public void put(Book book) {
+		CachedBook entry = toEntry(book);
+		books.put(book.getIsbn(), entry);
+		bookSnapshotService.put(book.getIsbn(), entry);
+	}
+
+	/**
+	 * Method to drop a book from the cache, the next read will go to the DB
+	 * @param isbn the unique key identifier of the book to be removed from the cache
+	 */
+	public void evict(String isbn) {
+		books.invalidate(isbn);
+		bookSnapshotService.evict(isbn);
+	}
+
+	/**
+	 * Auxiliary method that wraps a book into a cache entry, serializing it if the serialized responses mode is enabled
+	 * @param book the book to wrap, null for a negative entry
+	 * @return the cache entry for the given book
+	 */
+	private CachedBook toEntry(Book book) {
+		if (book == null) {
+			return CachedBook.NOT_FOUND;
+		}
+		byte[] json = null;
+		if (serializedResponses) {
+			try {
+				json = objectMapper.writeValueAsBytes(new BookDTO(book));
+			} catch (JsonProcessingException e) {
+				logger.warn("Unable to serialize book {}", book.getIsbn(), e);
+			}
+		}
+		return new CachedBook(book, json);
+	}
+}
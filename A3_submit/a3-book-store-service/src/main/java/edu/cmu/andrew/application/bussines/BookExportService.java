@@ -0,0 +1,112 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import edu.cmu.andrew.application.business.dto.BookDTO;
+import edu.cmu.andrew.application.persistence.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+* <h1>Book Export Service</h1>
+*
+* Business service that writes the whole catalog as NDJSON (one BookDTO per line, the same representation as
+* GET /books/{isbn}) in ISBN order. The books are read through a forward-only cursor and are written and detached
+* one by one, so the memory used does not depend on the size of the catalog. With the default
+* bookstore.export.fetch-size (Integer.MIN_VALUE) the MySQL driver streams the rows from the open result, a positive
+* size reads that many rows at a time from a server-side cursor but needs useCursorFetch=true in the datasource URL,
+* which turns every statement of the pool into a server-side prepared statement. An interrupted export is resumed by sending the ISBN of the last line received
+* as the checkpoint.
+*
+* Metrics: the counter "book.export.rows" and the timer "book.export" tagged with its outcome (success, failure
+* when the DB fails, aborted when the client goes away).
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Service
+public class BookExportService {
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private BookWriteBehindService bookWriteBehindService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${bookstore.export.fetch-size:" + Integer.MIN_VALUE + "}")
+	private int fetchSize;
+
+	private ObjectWriter bookWriter;
+
+	private Counter rowsCounter;
+
+	/**
+	 * Prepares the writer of the lines and binds the metrics to the meter registry
+	 */
+	@PostConstruct
+	public void init() {
+		// every line is written to the same stream, it is neither closed nor flushed after every book
+		bookWriter = objectMapper.writerFor(BookDTO.class)
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		rowsCounter = Counter.builder("book.export.rows")
+				.description("Books written by the catalog exports")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Method that writes the books of the catalog as NDJSON
+	 * @param after the ISBN of the last book already received (exclusive), null to export the whole catalog
+	 * @param out the stream where the books are written, it is not closed
+	 * @return the number of books written
+	 * @throws IOException if the books can not be written, the client went away
+	 */
+	public long exportBooks(String after, OutputStream out) throws IOException {
+		bookWriteBehindService.flush();// the pending updates are exported with the rest of the catalog
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "success";
+		try {
+			return bookRepository.forEachBook(after, fetchSize, (book) -> {
+				try {
+					bookWriter.writeValue(out, new BookDTO(book));
+					out.write('\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				rowsCounter.increment();
+			});
+		} catch (UncheckedIOException e) {
+			outcome = "aborted";
+			throw e.getCause();
+		} catch (DataAccessException e) {
+			outcome = "failure";
+			throw e;
+		} finally {
+			sample.stop(Timer.builder("book.export")
+					.description("Time to export the catalog")
+					.tag("outcome", outcome)
+					.register(meterRegistry));
+		}
+	}
+}
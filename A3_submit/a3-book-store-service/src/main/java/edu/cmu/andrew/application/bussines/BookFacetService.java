@@ -0,0 +1,211 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import edu.cmu.andrew.application.business.dto.GenreFacetDTO;
+import edu.cmu.andrew.application.business.dto.GenreFacetsDTO;
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.persistence.BookRepository;
+
+/**
+* <h1>Book Facet Service</h1>
+*
+* Business service that keeps in memory the number of books and the quantity in stock of every genre. The counts
+* are rebuilt from the DB with one GROUP BY query when the application is ready (and on demand), the writes of the
+* service adjust them with the genre and quantity of the book before and after the write. The counts are an
+* immutable map replaced on every write, so a read costs O(number of genres) and never sees a book moved between
+* genres counted twice or not at all.
+*
+* The writes of the books run their DB write and the adjustment of the counts through write(), holding a shared
+* lock, and the rebuild holds it exclusively while it counts the DB and replaces the counts. So every write is
+* either seen by the GROUP BY query or applied on top of its result, never both or none of them. The writes wait
+* while the query runs.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Service
+public class BookFacetService {
+
+	private static final Logger logger = LoggerFactory.getLogger(BookFacetService.class);
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	private volatile SortedMap<String, Facet> facets = Collections.emptySortedMap();
+
+	private final ReadWriteLock counting = new ReentrantReadWriteLock();// shared by the writes, exclusive to rebuild
+
+	/**
+	 * Counters of a genre
+	 */
+	private static final class Facet {
+		private final long books;
+		private final long quantity;
+
+		private Facet(long books, long quantity) {
+			this.books = books;
+			this.quantity = quantity;
+		}
+	}
+
+	/**
+	 * Change of the counters of a genre made by a write
+	 */
+	private static final class Adjustment {
+		private final String genre;
+		private final long books;
+		private final long quantity;
+
+		private Adjustment(String genre, long books, long quantity) {
+			this.genre = genre;
+			this.books = books;
+			this.quantity = quantity;
+		}
+	}
+
+	/**
+	 * Rebuilds the counts once the application is ready
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		rebuild();
+	}
+
+	/**
+	 * Method to get the facets of every genre
+	 * @return the facets ordered by genre
+	 */
+	public GenreFacetsDTO getFacets() {
+		List<GenreFacetDTO> genres = new ArrayList<>();
+		facets.forEach((genre, facet) -> genres.add(new GenreFacetDTO(genre, facet.books, facet.quantity)));
+		return new GenreFacetsDTO(genres);
+	}
+
+	/**
+	 * Method to run a write of the DB together with the adjustment of the counts it makes, no rebuild counts the DB
+	 * in between
+	 * @param write the DB write followed by the call to add, update or purchase
+	 * @return the result of the write
+	 */
+	public <T> T write(Supplier<T> write) {
+		Lock lock = counting.readLock();
+		lock.lock();
+		try {
+			return write.get();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Method to count a new book after it is inserted in the DB, called within write()
+	 * @param book the book instance that was stored in the system
+	 */
+	public void add(Book book) {
+		apply(List.of(new Adjustment(book.getGenre(), 1, quantity(book.getQuantity()))));
+	}
+
+	/**
+	 * Method to move a book between genres and update its quantity after it is updated in the DB, called within
+	 * write()
+	 * @param previousGenre the genre of the book before the update
+	 * @param previousQuantity the quantity of the book before the update
+	 * @param book the book instance that was stored in the system
+	 */
+	public void update(String previousGenre, Integer previousQuantity, Book book) {
+		apply(List.of(new Adjustment(previousGenre, -1, -quantity(previousQuantity)),
+				new Adjustment(book.getGenre(), 1, quantity(book.getQuantity()))));
+	}
+
+	/**
+	 * Method to take the copies of a purchase order out of the quantity of their genres after it is applied in the
+	 * DB, called within write()
+	 * @param genres the genre of every book of the order
+	 * @param lines the copies taken of every book of the order
+	 */
+	public void purchase(Map<String, String> genres, Map<String, Integer> lines) {
+		List<Adjustment> adjustments = new ArrayList<>();
+		lines.forEach((isbn, copies) -> adjustments.add(new Adjustment(genres.get(isbn), 0, -copies)));
+		apply(adjustments);
+	}
+
+	/**
+	 * Method to count the books of every genre again in the DB, used when the writes can not be applied one by
+	 * one (bulk imports) or on demand
+	 * @return true if the counts were rebuilt, false if the DB could not be queried
+	 */
+	public boolean rebuild() {
+		Lock lock = counting.writeLock();
+		lock.lock();
+		try {
+			List<GenreFacetDTO> counted;
+			try {
+				counted = bookRepository.countByGenre();
+			} catch (DataAccessException e) {
+				logger.warn("Unable to count the books by genre: {}", e.getMessage());
+				return false;
+			}
+			SortedMap<String, Facet> rebuilt = new TreeMap<>();
+			for (GenreFacetDTO facet : counted) {
+				if (facet.getGenre() != null) {
+					rebuilt.put(facet.getGenre(), new Facet(facet.getBooks(), facet.getQuantity()));
+				}
+			}
+			facets = Collections.unmodifiableSortedMap(rebuilt);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Auxiliary method that replaces the counts with a copy that includes the adjustments of a write
+	 */
+	private synchronized void apply(List<Adjustment> adjustments) {
+		facets = adjusted(facets, adjustments);
+	}
+
+	/**
+	 * Auxiliary method that copies the counts with a list of adjustments applied, the genres without books are
+	 * removed
+	 */
+	private static SortedMap<String, Facet> adjusted(SortedMap<String, Facet> current, List<Adjustment> adjustments) {
+		SortedMap<String, Facet> copy = new TreeMap<>(current);
+		for (Adjustment adjustment : adjustments) {
+			if (adjustment.genre == null) {// rows written outside the service may not have a genre
+				continue;
+			}
+			Facet facet = copy.getOrDefault(adjustment.genre, new Facet(0, 0));
+			Facet updated = new Facet(facet.books + adjustment.books, facet.quantity + adjustment.quantity);
+			if (updated.books > 0) {
+				copy.put(adjustment.genre, updated);
+			} else {
+				copy.remove(adjustment.genre);
+			}
+		}
+		return Collections.unmodifiableSortedMap(copy);
+	}
+
+	private static long quantity(Integer quantity) {
+		return quantity == null ? 0 : quantity;
+	}
+}
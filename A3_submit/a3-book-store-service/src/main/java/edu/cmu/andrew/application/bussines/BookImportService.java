@@ -0,0 +1,216 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import edu.cmu.andrew.application.business.dto.BookDTO;
+import edu.cmu.andrew.application.business.dto.BookImportResultDTO;
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.persistence.BookBatchRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+* <h1>Book Import Service</h1>
+*
+* Business service that loads a feed of books (NDJSON or CSV with a header row) into the system. The feed is read
+* as a stream, every record is validated with the BookDTO constraints and the valid ones are upserted in chunks
+* through the BookBatchRepository. A result per record is written back as NDJSON once its chunk is flushed, so the
+* memory used does not depend on the size of the feed.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Service
+public class BookImportService {
+
+	public static final String NDJSON = "application/x-ndjson";
+	public static final String CSV = "text/csv";
+
+	@Autowired
+	private BookBatchRepository bookBatchRepository;
+
+	@Autowired
+	private BookCacheService bookCacheService;
+
+	@Autowired
+	private BookSearchService bookSearchService;
+
+	@Autowired
+	private LocalRecommendationService localRecommendationService;
+
+	@Autowired
+	private BookFacetService bookFacetService;
+
+	@Autowired
+	private BookWriteBehindService bookWriteBehindService;
+
+	@Autowired
+	private IsbnFilterService isbnFilterService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private Validator validator;
+
+	@Value("${bookstore.import.chunk-size:500}")
+	private int chunkSize;
+
+	private final CsvMapper csvMapper = (CsvMapper) new CsvMapper()
+			.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+	/**
+	 * Source of records of a feed
+	 */
+	private interface RecordSource {
+		/**
+		 * @return the next record of the feed, null at the end of the feed
+		 * @throws JsonProcessingException if the record is malformed, the next call continues with the next record
+		 */
+		BookDTO next() throws IOException;
+	}
+
+	/**
+	 * Method that reads the whole feed, upserts the valid records and writes one BookImportResultDTO per record
+	 * @param in the feed received from the end-user
+	 * @param csv true if the feed is CSV with a header row, false if it is NDJSON
+	 * @param out the stream where the results are written as NDJSON
+	 * @throws IOException if the feed can not be read or the results can not be written
+	 */
+	public void importBooks(InputStream in, boolean csv, OutputStream out) throws IOException {
+
+		RecordSource source = csv ? csvSource(in) : ndjsonSource(in);
+		List<Book> chunk = new ArrayList<>();
+		List<BookImportResultDTO> results = new ArrayList<>();
+		long record = 0;
+		boolean upserts = false;
+		while (true) {
+			record++;
+			BookDTO bookDTO;
+			try {
+				bookDTO = source.next();
+			} catch (JsonProcessingException e) {
+				results.add(new BookImportResultDTO(record, null, BookImportResultDTO.INVALID,
+						Map.of("record", String.valueOf(e.getOriginalMessage()))));
+				flushIfFull(chunk, results, out);
+				continue;
+			}
+			if (bookDTO == null) {
+				break;
+			}
+
+			Set<ConstraintViolation<BookDTO>> violations = validator.validate(bookDTO);
+			if (violations.isEmpty()) {
+				upserts = true;
+				chunk.add(new Book(bookDTO.getIsbn(), bookDTO.getTitle(), bookDTO.getAuthor(),
+						bookDTO.getDescription(), bookDTO.getGenre(), bookDTO.getPrice(), bookDTO.getQuantity()));
+				results.add(new BookImportResultDTO(record, bookDTO.getIsbn(), BookImportResultDTO.UPSERTED, null));
+			} else {
+				Map<String, String> errors = new HashMap<>();
+				violations.forEach((violation) -> errors.put(violation.getPropertyPath().toString(),
+						violation.getMessage()));
+				results.add(new BookImportResultDTO(record, bookDTO.getIsbn(), BookImportResultDTO.INVALID, errors));
+			}
+			flushIfFull(chunk, results, out);
+		}
+		flush(chunk, results, out);
+		if (upserts) {// the previous genre and quantity of the upserted books are unknown
+			bookFacetService.rebuild();
+		}
+	}
+
+	/**
+	 * Auxiliary method that flushes the pending chunk once it reaches the configured size
+	 */
+	private void flushIfFull(List<Book> chunk, List<BookImportResultDTO> results, OutputStream out)
+			throws IOException {
+		if (chunk.size() >= chunkSize || results.size() >= chunkSize) {
+			flush(chunk, results, out);
+		}
+	}
+
+	/**
+	 * Auxiliary method that upserts the pending chunk and writes the results of its records. If the chunk can not
+	 * be written all its valid records are reported as FAILED
+	 * @param chunk the valid books pending to be written
+	 * @param results the results of the records read since the last flush, in the same order as the feed
+	 * @param out the stream where the results are written
+	 */
+	private void flush(List<Book> chunk, List<BookImportResultDTO> results, OutputStream out) throws IOException {
+		if (!chunk.isEmpty()) {
+			try {
+				// a pending update written after the chunk would overwrite the imported books
+				bookWriteBehindService.flush(chunk.stream().map(Book::getIsbn).toList());
+				bookBatchRepository.upsertAll(List.copyOf(chunk));
+				chunk.forEach((book) -> {
+					bookCacheService.evict(book.getIsbn());
+					bookSearchService.index(book);
+					localRecommendationService.index(book);
+					isbnFilterService.add(book.getIsbn());
+				});
+			} catch (DataAccessException e) {
+				for (BookImportResultDTO result : results) {
+					if (BookImportResultDTO.UPSERTED.equals(result.getStatus())) {
+						result.setStatus(BookImportResultDTO.FAILED);
+						result.setErrors(Map.of("chunk", String.valueOf(e.getMostSpecificCause().getMessage())));
+					}
+				}
+			}
+		}
+		for (BookImportResultDTO result : results) {
+			out.write(objectMapper.writeValueAsBytes(result));
+			out.write('\n');
+		}
+		out.flush();
+		chunk.clear();
+		results.clear();
+	}
+
+	/**
+	 * Auxiliary method that reads one JSON document per line, blank lines are skipped
+	 */
+	private RecordSource ndjsonSource(InputStream in) {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		return () -> {
+			String line;
+			do {
+				line = reader.readLine();
+			} while (line != null && line.isBlank());
+			return line == null ? null : objectMapper.readValue(line, BookDTO.class);
+		};
+	}
+
+	/**
+	 * Auxiliary method that reads CSV rows, the column names are taken from the header row and use the same names
+	 * as the JSON representation (ISBN, title, Author, description, genre, price, quantity)
+	 */
+	private RecordSource csvSource(InputStream in) throws IOException {
+		MappingIterator<BookDTO> iterator = csvMapper.readerFor(BookDTO.class)
+				.with(CsvSchema.emptySchema().withHeader())
+				.readValues(new InputStreamReader(in, StandardCharsets.UTF_8));
+		return () -> iterator.hasNextValue() ? iterator.nextValue() : null;
+	}
+}
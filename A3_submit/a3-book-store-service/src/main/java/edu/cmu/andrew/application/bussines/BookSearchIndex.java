@@ -0,0 +1,422 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import edu.cmu.andrew.application.business.dto.BookSearchHitDTO;
+import edu.cmu.andrew.application.business.dto.BookSearchResultDTO;
+import edu.cmu.andrew.application.business.model.Book;
+
+/**
+* <h1>Book Search Index</h1>
+*
+* In-memory inverted index over the title, author and description of the books. Every book gets an internal
+* document number and every term keeps its postings (document numbers in ascending order with the boosted
+* frequency of the term in the book), so a query only reads the postings of its own terms. Results are ranked with
+* BM25 over the boosted frequencies (a match in the title weighs more than one in the description) and the best
+* k are kept in a bounded heap while the postings are merged.
+*
+* Re-indexing a book marks its previous document as deleted, the stale postings are skipped by the searches and
+* dropped by a compaction once the deleted documents exceed the compact ratio. Searches run in parallel under a read
+* lock, index changes take the write lock.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class BookSearchIndex {
+
+	private static final float K1 = 1.2f;
+	private static final float B = 0.75f;
+	private static final float MIN_IDF = 0.01f;
+	private static final Set<String> STOPWORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "by", "for",
+			"from", "in", "is", "it", "of", "on", "or", "the", "to", "with");
+	private static final Comparator<Hit> WORST_FIRST = Comparator.<Hit>comparingDouble((hit) -> hit.score)
+			.thenComparing(Comparator.<Hit>comparingInt((hit) -> hit.doc).reversed());
+
+	private final float titleBoost;
+	private final float authorBoost;
+	private final float descriptionBoost;
+	private final double compactRatio;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<String, Integer> docIds = new HashMap<>();
+	private final Map<String, Postings> terms = new HashMap<>();
+	private String[] isbns = new String[16];
+	private String[] titles = new String[16];
+	private String[] authors = new String[16];
+	private float[] lengths = new float[16];
+	private int maxDoc;
+	private int deletedDocs;
+	private double totalLength;
+
+	/**
+	 * Postings of a term, the document numbers in ascending order and the boosted frequency of the term in each one
+	 */
+	private static final class Postings {
+		private int[] docs = new int[2];
+		private float[] weights = new float[2];
+		private int size;
+
+		private void add(int doc, float weight) {
+			if (size == docs.length) {
+				int capacity = size + (size >> 1) + 1;
+				docs = Arrays.copyOf(docs, capacity);
+				weights = Arrays.copyOf(weights, capacity);
+			}
+			docs[size] = doc;
+			weights[size] = weight;
+			size++;
+		}
+
+		/**
+		 * Drops the postings of deleted documents and renumbers the others, the order is kept
+		 * @param remap the new number of every document, -1 for the deleted ones
+		 */
+		private void remap(int[] remap) {
+			int kept = 0;
+			for (int i = 0; i < size; i++) {
+				int doc = remap[docs[i]];
+				if (doc >= 0) {
+					docs[kept] = doc;
+					weights[kept] = weights[i];
+					kept++;
+				}
+			}
+			size = kept;
+			docs = Arrays.copyOf(docs, kept);
+			weights = Arrays.copyOf(weights, kept);
+		}
+	}
+
+	/**
+	 * Candidate of the top-k heap
+	 */
+	private static final class Hit {
+		private final int doc;
+		private final float score;
+
+		private Hit(int doc, float score) {
+			this.doc = doc;
+			this.score = score;
+		}
+	}
+
+	/**
+	 * @param titleBoost the weight of a term found in the title
+	 * @param authorBoost the weight of a term found in the author
+	 * @param descriptionBoost the weight of a term found in the description
+	 * @param compactRatio the fraction of deleted documents that triggers a compaction
+	 */
+	public BookSearchIndex(float titleBoost, float authorBoost, float descriptionBoost, double compactRatio) {
+		this.titleBoost = titleBoost;
+		this.authorBoost = authorBoost;
+		this.descriptionBoost = descriptionBoost;
+		this.compactRatio = compactRatio;
+	}
+
+	/**
+	 * Method to add a book to the index or replace the indexed version of it
+	 * @param book the current state of the book
+	 */
+	public void index(Book book) {
+		lock.writeLock().lock();
+		try {
+			add(book);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Method to add a book only if it is not indexed yet, used by the initial load so a book indexed by a
+	 * concurrent write is not replaced by the older version read from the DB
+	 * @param book the book read from the DB
+	 * @return true if the book was added
+	 */
+	public boolean indexIfAbsent(Book book) {
+		lock.writeLock().lock();
+		try {
+			if (docIds.containsKey(book.getIsbn())) {
+				return false;
+			}
+			add(book);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Method to get the indexed version of a book
+	 * @param isbn the unique key identifier of the book
+	 * @return a Book with the ISBN, title and author indexed, null if the book is not indexed
+	 */
+	public Book indexed(String isbn) {
+		lock.readLock().lock();
+		try {
+			Integer doc = docIds.get(isbn);
+			return doc == null ? null : new Book(isbn, titles[doc], authors[doc], null, null, null, null);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Method to search the books that contain any of the terms of the query
+	 * @param query the text to search, it is tokenized as the indexed fields
+	 * @param limit the maximum number of hits returned
+	 * @return the number of books that match and the best hits ordered by relevance
+	 */
+	public BookSearchResultDTO search(String query, int limit) {
+		List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(tokens(query)));
+		lock.readLock().lock();
+		try {
+			List<Postings> lists = new ArrayList<>(queryTerms.size());
+			for (String term : queryTerms) {
+				Postings postings = terms.get(term);
+				if (postings != null) {
+					lists.add(postings);
+				}
+			}
+			if (lists.isEmpty()) {
+				return new BookSearchResultDTO(0, List.of());
+			}
+
+			int live = docIds.size();
+			float averageLength = live == 0 ? 1f : (float) (totalLength / live);
+			float[] idfs = new float[lists.size()];
+			for (int i = 0; i < idfs.length; i++) {
+				int df = lists.get(i).size;
+				idfs[i] = Math.max(MIN_IDF, (float) Math.log(1 + (live - df + 0.5) / (df + 0.5)));
+			}
+
+			// document at a time merge of the postings, the heap keeps the best k seen so far
+			int[] cursors = new int[lists.size()];
+			int[][] docs = new int[lists.size()][];
+			float[][] weights = new float[lists.size()][];
+			int[] sizes = new int[lists.size()];
+			for (int i = 0; i < sizes.length; i++) {
+				docs[i] = lists.get(i).docs;
+				weights[i] = lists.get(i).weights;
+				sizes[i] = lists.get(i).size;
+			}
+			float lengthNorm = K1 * B / averageLength;
+			float baseNorm = K1 * (1 - B);
+			PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, WORST_FIRST);
+			float threshold = Float.NEGATIVE_INFINITY;
+			long total = 0;
+			while (true) {
+				int doc = Integer.MAX_VALUE;
+				for (int i = 0; i < sizes.length; i++) {
+					if (cursors[i] < sizes[i] && docs[i][cursors[i]] < doc) {
+						doc = docs[i][cursors[i]];
+					}
+				}
+				if (doc == Integer.MAX_VALUE) {
+					break;
+				}
+				float norm = baseNorm + lengthNorm * lengths[doc];
+				float score = 0f;
+				for (int i = 0; i < sizes.length; i++) {
+					if (cursors[i] < sizes[i] && docs[i][cursors[i]] == doc) {
+						float weight = weights[i][cursors[i]];
+						score += idfs[i] * weight * (K1 + 1) / (weight + norm);
+						cursors[i]++;
+					}
+				}
+				if (isbns[doc] == null) {// stale postings of a re-indexed book
+					continue;
+				}
+				total++;
+				if (score > threshold) {
+					top.add(new Hit(doc, score));
+					if (top.size() > limit) {
+						top.poll();
+					}
+					if (top.size() == limit) {
+						threshold = top.peek().score;
+					}
+				}
+			}
+
+			List<Hit> best = new ArrayList<>(top);
+			best.sort(WORST_FIRST.reversed());
+			List<BookSearchHitDTO> hits = new ArrayList<>(best.size());
+			for (Hit hit : best) {
+				hits.add(new BookSearchHitDTO(isbns[hit.doc], titles[hit.doc], authors[hit.doc], hit.score));
+			}
+			return new BookSearchResultDTO(total, hits);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of books indexed
+	 */
+	public int documents() {
+		lock.readLock().lock();
+		try {
+			return docIds.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of distinct terms indexed
+	 */
+	public int terms() {
+		lock.readLock().lock();
+		try {
+			return terms.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Method that estimates the heap used by the index (compressed references, one byte per character strings)
+	 * @return the estimated size in bytes
+	 */
+	public long memoryBytes() {
+		lock.readLock().lock();
+		try {
+			long bytes = 16L * isbns.length;
+			for (int doc = 0; doc < maxDoc; doc++) {
+				if (isbns[doc] != null) {
+					bytes += 120 + isbns[doc].length() + titles[doc].length() + authors[doc].length();
+				}
+			}
+			bytes += 56L * docIds.size();
+			for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+				bytes += 120 + entry.getKey().length() + 8L * entry.getValue().docs.length;
+			}
+			return bytes;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Auxiliary method that indexes a book, the caller holds the write lock
+	 */
+	private void add(Book book) {
+		Integer previous = docIds.get(book.getIsbn());
+		if (previous != null) {
+			totalLength -= lengths[previous];
+			isbns[previous] = null;
+			titles[previous] = null;
+			authors[previous] = null;
+			deletedDocs++;
+		}
+
+		Map<String, Float> weights = new HashMap<>();
+		float length = addTokens(book.getTitle(), titleBoost, weights)
+				+ addTokens(book.getAuthor(), authorBoost, weights)
+				+ addTokens(book.getDescription(), descriptionBoost, weights);
+		if (maxDoc == isbns.length) {
+			int capacity = maxDoc + (maxDoc >> 1);
+			isbns = Arrays.copyOf(isbns, capacity);
+			titles = Arrays.copyOf(titles, capacity);
+			authors = Arrays.copyOf(authors, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+		}
+		int doc = maxDoc++;
+		isbns[doc] = book.getIsbn();
+		titles[doc] = book.getTitle();
+		authors[doc] = book.getAuthor();
+		lengths[doc] = length;
+		totalLength += length;
+		docIds.put(book.getIsbn(), doc);
+		weights.forEach((term, weight) -> terms.computeIfAbsent(term, (key) -> new Postings()).add(doc, weight));
+
+		if (deletedDocs > compactRatio * maxDoc) {
+			compact();
+		}
+	}
+
+	/**
+	 * Auxiliary method that drops the deleted documents and their postings and renumbers the live documents, the
+	 * caller holds the write lock
+	 */
+	private void compact() {
+		int[] remap = new int[maxDoc];
+		int live = 0;
+		for (int doc = 0; doc < maxDoc; doc++) {
+			if (isbns[doc] == null) {
+				remap[doc] = -1;
+				continue;
+			}
+			remap[doc] = live;
+			isbns[live] = isbns[doc];
+			titles[live] = titles[doc];
+			authors[live] = authors[doc];
+			lengths[live] = lengths[doc];
+			docIds.put(isbns[live], live);
+			live++;
+		}
+		Arrays.fill(isbns, live, maxDoc, null);
+		Arrays.fill(titles, live, maxDoc, null);
+		Arrays.fill(authors, live, maxDoc, null);
+		for (Iterator<Postings> iterator = terms.values().iterator(); iterator.hasNext();) {
+			Postings postings = iterator.next();
+			postings.remap(remap);
+			if (postings.size == 0) {
+				iterator.remove();
+			}
+		}
+		maxDoc = live;
+		deletedDocs = 0;
+	}
+
+	/**
+	 * Auxiliary method that adds the boosted frequency of every term of a field
+	 * @return the boosted length of the field
+	 */
+	private static float addTokens(String text, float boost, Map<String, Float> weights) {
+		List<String> tokens = tokens(text);
+		tokens.forEach((token) -> weights.merge(token, boost, Float::sum));
+		return tokens.size() * boost;
+	}
+
+	/**
+	 * Method that splits a text in lower case terms on any character that is not a letter or a digit, stop words
+	 * are dropped
+	 * @param text the text to tokenize, may be null
+	 * @return the terms in the order they appear
+	 */
+	static List<String> tokens(String text) {
+		List<String> tokens = new ArrayList<>();
+		if (text == null) {
+			return tokens;
+		}
+		String lower = text.toLowerCase(Locale.ROOT);
+		int start = -1;
+		for (int i = 0; i <= lower.length(); i++) {
+			if (i < lower.length() && Character.isLetterOrDigit(lower.charAt(i))) {
+				if (start < 0) {
+					start = i;
+				}
+			} else if (start >= 0) {
+				String token = lower.substring(start, i);
+				if (!STOPWORDS.contains(token)) {
+					tokens.add(token);
+				}
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,181 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import edu.cmu.andrew.application.business.dto.BookSearchResultDTO;
+import edu.cmu.andrew.application.business.dto.BookSuggestionDTO;
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.persistence.BookRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+* <h1>Book Search Service</h1>
+*
+* Business service that keeps the BookSearchIndex and the BookSuggestIndex of the catalog. Once the application is
+* ready the indexes are loaded in background from BookRepository, walking the catalog with the keyset pages of
+* findPage, and the writes of the service (add, update and import) index the new state of every book they store, so
+* the DB is never scanned by a search or a suggestion. Until the initial load finishes the searches only see the
+* books loaded so far, the suggestions see them in large batches.
+*
+* The time of the initial load is published in "search.index.build" (tagged with its outcome) and the size of the
+* indexes in the gauges "search.index.documents", "search.index.terms", "search.index.memory" (estimated bytes),
+* "suggest.index.entries" and "suggest.index.memory".
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Service
+public class BookSearchService {
+
+	private static final Logger logger = LoggerFactory.getLogger(BookSearchService.class);
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${bookstore.search.boost.title:3}")
+	private float titleBoost;
+
+	@Value("${bookstore.search.boost.author:2}")
+	private float authorBoost;
+
+	@Value("${bookstore.search.boost.description:1}")
+	private float descriptionBoost;
+
+	@Value("${bookstore.search.compact-ratio:0.2}")
+	private double compactRatio;
+
+	@Value("${bookstore.search.load-page-size:1000}")
+	private int loadPageSize;
+
+	@Value("${bookstore.suggest.merge-threshold:4096}")
+	private int suggestMergeThreshold;
+
+	private BookSearchIndex index;
+
+	private BookSuggestIndex suggestIndex;
+
+	/**
+	 * Builds the empty indexes once the configuration values are injected and binds their gauges to the meter
+	 * registry
+	 */
+	@PostConstruct
+	public void init() {
+		index = new BookSearchIndex(titleBoost, authorBoost, descriptionBoost, compactRatio);
+		suggestIndex = new BookSuggestIndex(suggestMergeThreshold);
+		Gauge.builder("search.index.documents", index, BookSearchIndex::documents)
+				.description("Books in the search index")
+				.register(meterRegistry);
+		Gauge.builder("search.index.terms", index, BookSearchIndex::terms)
+				.description("Distinct terms in the search index")
+				.register(meterRegistry);
+		Gauge.builder("search.index.memory", index, BookSearchIndex::memoryBytes)
+				.description("Estimated heap used by the search index")
+				.baseUnit("bytes")
+				.register(meterRegistry);
+		Gauge.builder("suggest.index.entries", suggestIndex, BookSuggestIndex::entries)
+				.description("Titles and authors in the suggest index")
+				.register(meterRegistry);
+		Gauge.builder("suggest.index.memory", suggestIndex, BookSuggestIndex::memoryBytes)
+				.description("Heap used by the arrays of the suggest index")
+				.baseUnit("bytes")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Starts the initial load of the indexes without holding the startup of the application
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void startLoad() {
+		Thread loader = new Thread(this::load, "search-index-load");
+		loader.setDaemon(true);
+		loader.start();
+	}
+
+	/**
+	 * Method to index the current state of a book after it is written in the DB, the writes are serialized so
+	 * the suggestions are adjusted with the version of the book that was indexed before
+	 * @param book the book instance that was stored in the system
+	 */
+	public synchronized void index(Book book) {
+		Book previous = index.indexed(book.getIsbn());
+		index.index(book);
+		suggestIndex.replace(previous, book);
+	}
+
+	/**
+	 * Method to search the catalog
+	 * @param query the text to search in the title, author and description of the books
+	 * @param limit the maximum number of hits
+	 * @return the number of books that match and the best hits ordered by relevance
+	 */
+	public BookSearchResultDTO search(String query, int limit) {
+		return index.search(query, limit);
+	}
+
+	/**
+	 * Method to get the typeahead suggestions of a prefix
+	 * @param prefix the text typed by the end-user
+	 * @param limit the maximum number of suggestions
+	 * @return the titles and authors that start with the prefix, the most popular first
+	 */
+	public List<BookSuggestionDTO> suggest(String prefix, int limit) {
+		return suggestIndex.suggest(prefix, limit);
+	}
+
+	/**
+	 * Auxiliary method that loads every book of the DB, page by page ordered by ISBN
+	 */
+	private void load() {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "success";
+		long loaded = 0;
+		try {
+			String after = null;
+			List<Book> page;
+			do {
+				page = bookRepository.findPage(after, null, null, loadPageSize);
+				for (Book book : page) {
+					load(book);
+				}
+				loaded += page.size();
+				after = page.isEmpty() ? after : page.get(page.size() - 1).getIsbn();
+			} while (page.size() == loadPageSize);
+		} catch (RuntimeException e) {
+			outcome = "failure";
+			logger.error("Unable to load the search index after {} books", loaded, e);
+		}
+		suggestIndex.flush();
+		long nanos = sample.stop(Timer.builder("search.index.build")
+				.description("Time to load the search index from the DB")
+				.tag("outcome", outcome)
+				.register(meterRegistry));
+		if (outcome.equals("success")) {
+			logger.info("Search index loaded with {} books in {}ms", loaded, nanos / 1_000_000);
+		}
+	}
+
+	/**
+	 * Auxiliary method that indexes a book of the initial load unless a write indexed it already
+	 * @param book the book read from the DB
+	 */
+	private synchronized void load(Book book) {
+		if (index.indexIfAbsent(book)) {
+			suggestIndex.load(book);
+		}
+	}
+}
@@ -0,0 +1,389 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import edu.cmu.andrew.application.business.model.Book;
+
+/**
+* <h1>Book Snapshot</h1>
+*
+* Read-only, memory-mapped file with the books of the catalog. The file is an array of keys (the ISBN-13 of every
+* book as a primitive long, sorted), an array with the offset of the record of every key and the records, every
+* record holds the fields of the book and optionally its pre-serialized JSON:
+*
+* <pre>
+* header   magic, format, count, records length (int) and written at (long, epoch millis)
+* keys     count longs, ascending
+* offsets  count ints, offset of the record of the key in the records
+* records  ISBN, null mask (byte), version (long), price (double), quantity (int), title, author, description,
+*          genre and JSON, the strings and the JSON as an int length (-1 for null) and the UTF-8 bytes
+* </pre>
+*
+* A lookup is a binary search over the mapped keys and the decoding of one record, the file is read by the OS page
+* cache and nothing of it lives in the heap. Only the ISBNs that are an ISBN-13 or an ISBN-10 (stored as their
+* ISBN-13), with or without hyphens and spaces, have a key; the record keeps the ISBN as it was written and a lookup
+* only matches the same string. The books without a key and the second book of a key are left out of the file. A
+* single mapping is used, so the file is limited to 2 GB.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public final class BookSnapshot {
+
+	private static final int MAGIC = 0x424B5331;// "BKS1"
+	private static final int FORMAT = 1;
+	private static final int HEADER = 24;
+	private static final int NULL_VERSION = 1;
+	private static final int NULL_PRICE = 2;
+	private static final int NULL_QUANTITY = 4;
+
+	private final MappedByteBuffer buffer;
+	private final int count;
+	private final int records;// position of the first record
+	private final long writtenAt;
+
+	private BookSnapshot(MappedByteBuffer buffer, int count, long writtenAt) {
+		this.buffer = buffer;
+		this.count = count;
+		this.records = HEADER + count * 12;
+		this.writtenAt = writtenAt;
+	}
+
+	/**
+	 * Maps a snapshot file, the data is not read until it is looked up
+	 * @param path the snapshot file
+	 * @return the snapshot
+	 * @throws IOException if the file can not be read or it is not a valid snapshot
+	 */
+	public static BookSnapshot open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER || size > Integer.MAX_VALUE) {
+				throw new IOException("Invalid snapshot size " + size);
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);// valid after the close
+			int count = buffer.getInt(8);
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT || count < 0
+					|| HEADER + count * 12L + buffer.getInt(12) != size) {
+				throw new IOException("Invalid snapshot header");
+			}
+			return new BookSnapshot(buffer, count, buffer.getLong(16));
+		}
+	}
+
+	/**
+	 * Starts writing a new snapshot, the file is replaced when the writer finishes
+	 * @param path the snapshot file
+	 * @return the writer of the books
+	 * @throws IOException if the temporary files can not be created
+	 */
+	public static Writer writer(Path path) throws IOException {
+		return new Writer(path);
+	}
+
+	/**
+	 * Method to get the key of an ISBN
+	 * @param isbn the unique key identifier of a book
+	 * @return its ISBN-13 as a number, -1 if it is neither an ISBN-13 nor an ISBN-10
+	 */
+	public static long key(String isbn) {
+		long key = 0;
+		int digits = 0;
+		boolean check10 = false;// ISBN-10 check digit X
+		for (int i = 0; i < isbn.length(); i++) {
+			char c = isbn.charAt(i);
+			if (c >= '0' && c <= '9' && digits < 13 && !check10) {
+				key = key * 10 + (c - '0');
+				digits++;
+			} else if ((c == 'X' || c == 'x') && digits == 9) {
+				check10 = true;
+				digits++;
+			} else if (c != '-' && c != ' ') {
+				return -1;
+			}
+		}
+		if (digits == 13 && !check10) {
+			return key;
+		}
+		if (digits != 10) {
+			return -1;
+		}
+		// ISBN-10 to ISBN-13: 978 prefix, the first nine digits and a new check digit
+		long body = 978_000_000_000L + (check10 ? key : key / 10);
+		int sum = 0;
+		long rest = body;
+		for (int i = 0; i < 12; i++) {
+			sum += (int) (rest % 10) * (i % 2 == 0 ? 3 : 1);
+			rest /= 10;
+		}
+		return body * 10 + (10 - sum % 10) % 10;
+	}
+
+	/**
+	 * Method to look up a book
+	 * @param isbn the unique key identifier of the book
+	 * @param withJson true to read the pre-serialized JSON of the book too
+	 * @return a cache entry with a new instance of the book, null if it is not in the snapshot
+	 */
+	public CachedBook get(String isbn, boolean withJson) {
+		long key = key(isbn);
+		int low = 0;
+		int high = count - 1;
+		while (low <= high && key >= 0) {
+			int middle = (low + high) >>> 1;
+			long found = buffer.getLong(HEADER + middle * 8);
+			if (found < key) {
+				low = middle + 1;
+			} else if (found > key) {
+				high = middle - 1;
+			} else {
+				return read(records + buffer.getInt(HEADER + count * 8 + middle * 4), isbn, withJson);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the number of books in the snapshot
+	 */
+	public int entries() {
+		return count;
+	}
+
+	/**
+	 * @return the size of the mapped file in bytes
+	 */
+	public long sizeBytes() {
+		return buffer.capacity();
+	}
+
+	/**
+	 * @return when the snapshot was written, in epoch milliseconds
+	 */
+	public long writtenAt() {
+		return writtenAt;
+	}
+
+	/**
+	 * Auxiliary method that decodes the record at a position if it is the one of the ISBN
+	 */
+	private CachedBook read(int position, String isbn, boolean withJson) {
+		byte[] expected = isbn.getBytes(StandardCharsets.UTF_8);
+		if (buffer.getInt(position) != expected.length) {
+			return null;
+		}
+		position += 4;
+		for (int i = 0; i < expected.length; i++) {
+			if (buffer.get(position + i) != expected[i]) {
+				return null;
+			}
+		}
+		position += expected.length;
+		int nulls = buffer.get(position);
+		Book book = new Book(isbn, null, null, null, null,
+				(nulls & NULL_PRICE) != 0 ? null : buffer.getDouble(position + 9),
+				(nulls & NULL_QUANTITY) != 0 ? null : buffer.getInt(position + 17));
+		book.setVersion((nulls & NULL_VERSION) != 0 ? null : buffer.getLong(position + 1));
+		position += 21;
+		String[] fields = new String[4];
+		for (int i = 0; i < fields.length; i++) {
+			int length = buffer.getInt(position);
+			position += 4;
+			if (length >= 0) {
+				fields[i] = new String(bytes(position, length), StandardCharsets.UTF_8);
+				position += length;
+			}
+		}
+		book.setTitle(fields[0]);
+		book.setAuthor(fields[1]);
+		book.setDescription(fields[2]);
+		book.setGenre(fields[3]);
+		int length = buffer.getInt(position);
+		return new CachedBook(book, withJson && length >= 0 ? bytes(position + 4, length) : null);
+	}
+
+	/**
+	 * Auxiliary method that copies bytes of the mapped file
+	 */
+	private byte[] bytes(int position, int length) {
+		byte[] bytes = new byte[length];
+		buffer.get(position, bytes);
+		return bytes;
+	}
+
+	/**
+	 * Writer of a snapshot file. The records are appended to a temporary file as the books are added and only the
+	 * keys and the offsets are kept in memory (12 bytes per book); finish sorts them and writes the new snapshot
+	 * next to the file, which is then renamed over it so the readers never see a partial file
+	 */
+	public static final class Writer implements Closeable {
+
+		private final Path path;
+		private final Path recordsPath;
+		private final Path temporary;
+		private final DataOutputStream records;
+		private long[] keys = new long[1024];
+		private int[] offsets = new int[1024];
+		private int count;
+		private long length;
+
+		private Writer(Path path) throws IOException {
+			this.path = path;
+			if (path.toAbsolutePath().getParent() != null) {
+				Files.createDirectories(path.toAbsolutePath().getParent());
+			}
+			this.recordsPath = path.resolveSibling(path.getFileName() + ".records");
+			this.temporary = path.resolveSibling(path.getFileName() + ".tmp");
+			this.records = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(recordsPath), 65536));
+		}
+
+		/**
+		 * Method to add a book to the snapshot, the books without key are ignored
+		 * @param book the book to be added
+		 * @param json the pre-serialized JSON of the book, null to leave it out
+		 * @return true if the book was added
+		 * @throws IOException if the record can not be written or the snapshot would be larger than 2 GB
+		 */
+		public boolean add(Book book, byte[] json) throws IOException {
+			long key = key(book.getIsbn());
+			if (key < 0) {
+				return false;
+			}
+			if (count == keys.length) {
+				keys = Arrays.copyOf(keys, count * 2);
+				offsets = Arrays.copyOf(offsets, count * 2);
+			}
+			keys[count] = key;
+			offsets[count] = (int) length;
+			count++;
+			int start = records.size();
+			writeBytes(book.getIsbn().getBytes(StandardCharsets.UTF_8));
+			records.writeByte((book.getVersion() == null ? NULL_VERSION : 0) | (book.getPrice() == null ? NULL_PRICE : 0)
+					| (book.getQuantity() == null ? NULL_QUANTITY : 0));
+			records.writeLong(book.getVersion() == null ? 0 : book.getVersion());
+			records.writeDouble(book.getPrice() == null ? 0 : book.getPrice());
+			records.writeInt(book.getQuantity() == null ? 0 : book.getQuantity());
+			writeString(book.getTitle());
+			writeString(book.getAuthor());
+			writeString(book.getDescription());
+			writeString(book.getGenre());
+			writeBytes(json);
+			length += records.size() - start;
+			if (HEADER + count * 12L + length > Integer.MAX_VALUE) {
+				throw new IOException("The snapshot is limited to 2 GB");
+			}
+			return true;
+		}
+
+		/**
+		 * Method to write the snapshot file with the books added
+		 * @return the number of books in the snapshot
+		 * @throws IOException if the file can not be written
+		 */
+		public int finish() throws IOException {
+			records.close();
+			sort(keys, offsets, count);
+			int unique = 0;
+			for (int i = 0; i < count; i++) {// the first book added of a key wins
+				if (unique == 0 || keys[i] != keys[unique - 1]) {
+					keys[unique] = keys[i];
+					offsets[unique++] = offsets[i];
+				} else if (offsets[i] < offsets[unique - 1]) {
+					offsets[unique - 1] = offsets[i];
+				}
+			}
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				OutputStream stream = Channels.newOutputStream(channel);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 65536));
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT);
+				out.writeInt(unique);
+				out.writeInt((int) length);
+				out.writeLong(System.currentTimeMillis());
+				for (int i = 0; i < unique; i++) {
+					out.writeLong(keys[i]);
+				}
+				for (int i = 0; i < unique; i++) {
+					out.writeInt(offsets[i]);
+				}
+				Files.copy(recordsPath, out);
+				out.flush();
+				channel.force(true);
+			}
+			Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return unique;
+		}
+
+		/**
+		 * Drops the temporary files
+		 */
+		@Override
+		public void close() throws IOException {
+			records.close();
+			Files.deleteIfExists(recordsPath);
+			Files.deleteIfExists(temporary);
+		}
+
+		private void writeString(String value) throws IOException {
+			writeBytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+		}
+
+		private void writeBytes(byte[] value) throws IOException {
+			records.writeInt(value == null ? -1 : value.length);
+			if (value != null) {
+				records.write(value);
+			}
+		}
+
+		/**
+		 * Auxiliary method that sorts the keys and their offsets with a heapsort, without boxing them
+		 */
+		private static void sort(long[] keys, int[] offsets, int count) {
+			for (int i = count / 2 - 1; i >= 0; i--) {
+				siftDown(keys, offsets, i, count);
+			}
+			for (int end = count - 1; end > 0; end--) {
+				swap(keys, offsets, 0, end);
+				siftDown(keys, offsets, 0, end);
+			}
+		}
+
+		private static void siftDown(long[] keys, int[] offsets, int root, int count) {
+			while (2 * root + 1 < count) {
+				int child = 2 * root + 1;
+				if (child + 1 < count && keys[child + 1] > keys[child]) {
+					child++;
+				}
+				if (keys[root] >= keys[child]) {
+					return;
+				}
+				swap(keys, offsets, root, child);
+				root = child;
+			}
+		}
+
+		private static void swap(long[] keys, int[] offsets, int i, int j) {
+			long key = keys[i];
+			keys[i] = keys[j];
+			keys[j] = key;
+			int offset = offsets[i];
+			offsets[i] = offsets[j];
+			offsets[j] = offset;
+		}
+	}
+}
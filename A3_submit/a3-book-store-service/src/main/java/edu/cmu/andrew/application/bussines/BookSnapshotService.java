@@ -0,0 +1,318 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.cmu.andrew.application.business.dto.BookDTO;
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.persistence.BookRepository;
+import edu.cmu.andrew.application.persistence.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+* <h1>Book Snapshot Service</h1>
+*
+* Opt-in warm start of the book lookups (bookstore.snapshot.enabled). The catalog is kept in a BookSnapshot file at
+* bookstore.snapshot.path (an emptyDir of the pod in k8s) that is mapped when the service starts, so a restarted
+* instance serves the misses of the BookCacheService from the page cache instead of sending them to the DB; the
+* books read from the snapshot are not kept in the heap. The books written through this instance since the snapshot was written are kept in a
+* delta in front of it: the cache puts store the new state of the book and the evictions mark it as unknown, so it
+* is read from the DB.
+*
+* The snapshot is written again in background, walking the catalog with the export cursor of the writer pool, once
+* the application is ready if there is no file or it is older than bookstore.snapshot.rebuild-interval, then every
+* interval (0 to only write it when missing) and whenever the delta grows over bookstore.snapshot.max-delta books.
+* The delta entries written before a new snapshot started are dropped once it is mapped. As the cache, the snapshot
+* does not see the books written by other instances until the next rebuild.
+*
+* Metrics: the gauges "book.snapshot.entries", "book.snapshot.size" (bytes, off-heap) and "book.snapshot.delta",
+* the counter "book.snapshot.hits" and the timers "book.snapshot.load" and "book.snapshot.build" tagged with their
+* outcome.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Service
+public class BookSnapshotService {
+
+	private static final Logger logger = LoggerFactory.getLogger(BookSnapshotService.class);
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Lazy// the write-behind buffer writes through the cache, which reads from this service
+	@Autowired
+	private BookWriteBehindService bookWriteBehindService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${bookstore.snapshot.enabled:false}")
+	private boolean enabled;
+
+	@Value("${bookstore.snapshot.path:catalog.snapshot}")
+	private Path path;
+
+	@Value("${bookstore.snapshot.rebuild-interval:10m}")
+	private Duration rebuildInterval;
+
+	@Value("${bookstore.snapshot.max-delta:100000}")
+	private int maxDelta;
+
+	@Value("${bookstore.export.fetch-size:" + Integer.MIN_VALUE + "}")
+	private int fetchSize;
+
+	@Value("${bookstore.cache.serialized-responses:false}")
+	private boolean serializedResponses;
+
+	private volatile BookSnapshot snapshot;// null until a file is mapped
+
+	/**
+	 * A write of a book after the snapshot, the state of the book or null if it must be read from the DB
+	 */
+	private static final class Change {
+		private final CachedBook book;
+		private final long sequence;
+
+		private Change(CachedBook book, long sequence) {
+			this.book = book;
+			this.sequence = sequence;
+		}
+	}
+
+	private final ConcurrentMap<String, Change> delta = new ConcurrentHashMap<>();
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	private final AtomicBoolean buildRequested = new AtomicBoolean();
+
+	private ScheduledExecutorService builder;
+
+	private Counter hitsCounter;
+
+	/**
+	 * Binds the metrics of the snapshot to the meter registry and maps the snapshot file if there is one
+	 */
+	@PostConstruct
+	public void init() {
+		hitsCounter = Counter.builder("book.snapshot.hits")
+				.description("Lookups served from the catalog snapshot")
+				.register(meterRegistry);
+		Gauge.builder("book.snapshot.entries", this, (service) -> service.snapshot == null ? 0 : service.snapshot.entries())
+				.description("Books in the catalog snapshot")
+				.register(meterRegistry);
+		Gauge.builder("book.snapshot.size", this, (service) -> service.snapshot == null ? 0 : service.snapshot.sizeBytes())
+				.description("Size of the mapped catalog snapshot, outside of the heap")
+				.baseUnit("bytes")
+				.register(meterRegistry);
+		Gauge.builder("book.snapshot.delta", delta, ConcurrentMap::size)
+				.description("Books written after the catalog snapshot")
+				.register(meterRegistry);
+		if (enabled && Files.exists(path)) {
+			load();
+		}
+	}
+
+	/**
+	 * Starts the rebuilds of the snapshot without holding the startup of the application
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void startBuilds() {
+		if (!enabled) {
+			return;
+		}
+		builder = Executors.newSingleThreadScheduledExecutor((task) -> {
+			Thread thread = new Thread(task, "book-snapshot-build");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long age = snapshot == null ? Long.MAX_VALUE : System.currentTimeMillis() - snapshot.writtenAt();
+		long delay = Math.max(0, rebuildInterval.toMillis() - age);
+		if (rebuildInterval.isZero()) {
+			if (snapshot == null) {
+				builder.execute(this::rebuild);
+			}
+		} else {
+			builder.scheduleWithFixedDelay(this::rebuild, delay, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (builder != null) {
+			builder.shutdownNow();
+		}
+	}
+
+	/**
+	 * Method to look up a book in the snapshot and the writes after it
+	 * @param isbn the unique key identifier of the book
+	 * @return the cache entry of the book, null if it has to be read from the DB
+	 */
+	public CachedBook get(String isbn) {
+		if (!enabled) {
+			return null;
+		}
+		Change change = delta.get(isbn);
+		if (change != null) {
+			return change.book;
+		}
+		BookSnapshot current = snapshot;
+		CachedBook book = current == null ? null : current.get(isbn, serializedResponses);
+		if (book != null) {
+			hitsCounter.increment();
+		}
+		return book;
+	}
+
+	/**
+	 * Method to record the new state of a book after it is written
+	 * @param isbn the unique key identifier of the book
+	 * @param book the cache entry of the book
+	 */
+	public void put(String isbn, CachedBook book) {
+		record(isbn, book.isPresent() ? book : null);
+	}
+
+	/**
+	 * Method to record that a book was written and its new state is only in the DB
+	 * @param isbn the unique key identifier of the book
+	 */
+	public void evict(String isbn) {
+		record(isbn, null);
+	}
+
+	/**
+	 * Method to know if the lookups are served from a snapshot
+	 * @return true once a snapshot is mapped
+	 */
+	public boolean isReady() {
+		return snapshot != null;
+	}
+
+	/**
+	 * Method to write the snapshot with the current catalog and map it, it waits for a build in progress
+	 * @return true if the new snapshot is mapped, false if the build failed and the current one is kept
+	 */
+	public synchronized boolean rebuild() {
+		long started = sequence.get();
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "success";
+		int written = 0;
+		ReadWriteRoutingDataSource.pinToWriter(true);// the writes before the build must be in the snapshot
+		try (BookSnapshot.Writer writer = BookSnapshot.writer(path)) {
+			bookWriteBehindService.flush();
+			bookRepository.forEachBook(null, fetchSize, (book) -> {
+				try {
+					writer.add(book, json(book));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			written = writer.finish();
+			snapshot = BookSnapshot.open(path);
+			delta.values().removeIf((change) -> change.sequence <= started);
+		} catch (IOException | UncheckedIOException e) {
+			outcome = "failure";
+			logger.warn("Unable to write the catalog snapshot {}: {}", path, e.getMessage());
+		} catch (RuntimeException e) {// the periodic build must not stop
+			outcome = e instanceof DataAccessException ? "failure" : "error";
+			logger.warn("Unable to write the catalog snapshot {}", path, e);
+		} finally {
+			ReadWriteRoutingDataSource.pinToWriter(false);
+		}
+		long nanos = sample.stop(Timer.builder("book.snapshot.build")
+				.description("Time to write the catalog snapshot from the DB")
+				.tag("outcome", outcome)
+				.register(meterRegistry));
+		if (outcome.equals("success")) {
+			logger.info("Catalog snapshot written with {} books in {}ms", written, nanos / 1_000_000);
+		}
+		return outcome.equals("success");
+	}
+
+	/**
+	 * Auxiliary method that maps the snapshot file written by a previous run, an invalid file is ignored and
+	 * written again
+	 */
+	private void load() {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "success";
+		try {
+			snapshot = BookSnapshot.open(path);
+		} catch (IOException e) {
+			outcome = "failure";
+			logger.warn("Unable to load the catalog snapshot {}: {}", path, e.getMessage());
+		}
+		long nanos = sample.stop(Timer.builder("book.snapshot.load")
+				.description("Time to map the catalog snapshot at startup")
+				.tag("outcome", outcome)
+				.register(meterRegistry));
+		if (snapshot != null) {
+			logger.info("Catalog snapshot with {} books loaded in {}ms", snapshot.entries(), nanos / 1_000_000);
+		}
+	}
+
+	/**
+	 * Auxiliary method that records a write in the delta, a delta too large asks for a new snapshot
+	 */
+	private void record(String isbn, CachedBook book) {
+		if (!enabled) {
+			return;
+		}
+		delta.put(isbn, new Change(book, sequence.incrementAndGet()));
+		if (delta.size() > maxDelta && builder != null && buildRequested.compareAndSet(false, true)) {
+			builder.execute(() -> {
+				buildRequested.set(false);
+				rebuild();
+			});
+		}
+	}
+
+	/**
+	 * Auxiliary method that serializes a book for the snapshot if the serialized responses mode is enabled
+	 */
+	private byte[] json(Book book) {
+		if (!serializedResponses) {
+			return null;
+		}
+		try {
+			return objectMapper.writeValueAsBytes(new BookDTO(book));
+		} catch (JsonProcessingException e) {
+			logger.warn("Unable to serialize book {}: {}", book.getIsbn(), e.getMessage());
+			return null;
+		}
+	}
+}
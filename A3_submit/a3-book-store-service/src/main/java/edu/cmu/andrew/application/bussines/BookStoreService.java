@@ -1,13 +1,21 @@
 package edu.cmu.andrew.application.bussines;
 
+import java.io.IOException;
+
 import org.springframework.http.ResponseEntity;
 
 
+import edu.cmu.andrew.application.business.dto.BookBatchRequestDTO;
+import edu.cmu.andrew.application.business.dto.BookBatchResponseDTO;
 import edu.cmu.andrew.application.business.dto.BookDTO;
+import edu.cmu.andrew.application.business.dto.GenreFacetsDTO;
+import edu.cmu.andrew.application.business.dto.PurchaseRequestDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
 * <h1>BookStore Service</h1>
@@ -42,6 +50,7 @@ public interface BookStoreService  {
 	 * Method to update a existing book in the system
 	 * @param newBook the book instance to be updated
 	 * @param isbn the unique key identifier of the book to be updated
+	 * @param ifMatch optional ETag(s) the book must have for the update to be applied
 	 * @return a Response entity of Object type allowing flexibility for returning either a book instance or a DTO with information to the user
 	 */
 	@Operation(
@@ -49,24 +58,166 @@ public interface BookStoreService  {
             description = "The book is added to the Book datasource (the ISBN is the primary key)")
     @ApiResponses(value = {
     		@ApiResponse(responseCode = "200", description = "The book has been updated successfully"),
-    		@ApiResponse(responseCode = "404", description = "The book with the given ISBN is not in the system")
+    		@ApiResponse(responseCode = "404", description = "The book with the given ISBN is not in the system"),
+    		@ApiResponse(responseCode = "412", description = "The If-Match ETag does not match the current version of the book")
     		
     })
-	public ResponseEntity<Object> updateBook(BookDTO  newBook,  String isbn);
+	public ResponseEntity<Object> updateBook(BookDTO  newBook,  String isbn, String ifMatch);
 	
 	/**
 	 * Method to get a book from the system
 	 * @param isbn the unique key identifier of the book to be query
-	 * @return a Response entity of BookDTO, a data transfer object of the book found
+	 * @return a Response entity of Object type, either a BookDTO or the pre-serialized JSON of the book found
 	 */
 	@Operation(
             summary = "Query the book information in the system",
             description = "The book is added to the Book datasource (the ISBN is the primary key)")
     @ApiResponses(value = {
     		@ApiResponse(responseCode = "200", description = "The bookin formation is returned"),
+    		@ApiResponse(responseCode = "304", description = "The If-None-Match ETag matches the current version of the book"),
     		@ApiResponse(responseCode = "404", description = "The book with the given ISBN is not in the system")
     		
     })
-	public ResponseEntity<BookDTO> getBook(String isbn);
+	public ResponseEntity<Object> getBook(String isbn);
+
+	/**
+	 * Method to get many books from the system in a single request
+	 * @param request the list of unique key identifiers of the books to be query
+	 * @return a Response entity of BookBatchResponseDTO with the books found and the ISBNs that are not in the system
+	 */
+	@Operation(
+            summary = "Query the information of many books in the system",
+            description = "The books are resolved with a single query to the Book datasource (the ISBN is the primary key)")
+    @ApiResponses(value = {
+    		@ApiResponse(responseCode = "200", description = "The books found and the list of missing ISBNs are returned"),
+    		@ApiResponse(responseCode = "400", description = "The request is malformed")
+    		
+    })
+	public ResponseEntity<BookBatchResponseDTO> getBooks(BookBatchRequestDTO request);
+
+	/**
+	 * Method to list the catalog page by page
+	 * @param after the continuation token of the previous page (the last ISBN), null for the first page
+	 * @param limit the maximum number of books of the page
+	 * @param genre optional filter by genre
+	 * @param author optional filter by author
+	 * @return a Response entity of Object type, a BookPageDTO with the books and the continuation token of the next page
+	 */
+	@Operation(
+            summary = "List the books in the system",
+            description = "Keyset pagination ordered by ISBN, the next field of a page is sent back as after to get the following page")
+    @ApiResponses(value = {
+    		@ApiResponse(responseCode = "200", description = "The page of books is returned"),
+    		@ApiResponse(responseCode = "400", description = "The limit is out of range")
+    		
+    })
+	public ResponseEntity<Object> listBooks(String after, int limit, String genre, String author);
+
+	/**
+	 * Method to search books by title, author and description
+	 * @param q the text to search
+	 * @param limit the maximum number of hits
+	 * @return a Response entity of Object type, a BookSearchResultDTO with the number of books that match and the best hits
+	 */
+	@Operation(
+            summary = "Search books by title, author and description",
+            description = "The hits are ordered by relevance, a match in the title weighs more than one in the author or the description")
+    @ApiResponses(value = {
+    		@ApiResponse(responseCode = "200", description = "The hits are returned"),
+    		@ApiResponse(responseCode = "400", description = "The query is empty or the limit is out of range")
+    		
+    })
+	public ResponseEntity<Object> searchBooks(String q, int limit);
+
+	/**
+	 * Method to get typeahead suggestions of titles and authors
+	 * @param prefix the text typed by the end-user
+	 * @param limit the maximum number of suggestions
+	 * @return a Response entity of Object type, a BookSuggestResultDTO with the suggestions ordered by popularity
+	 */
+	@Operation(
+            summary = "Suggest titles and authors that start with a prefix",
+            description = "Case, accents and punctuation are ignored, the titles and authors with more books come first")
+    @ApiResponses(value = {
+    		@ApiResponse(responseCode = "200", description = "The suggestions are returned"),
+    		@ApiResponse(responseCode = "400", description = "The prefix is empty or the limit is out of range")
+    		
+    })
+	public ResponseEntity<Object> suggestBooks(String prefix, int limit);
+
+	/**
+	 * Method to get the number of books and the quantity in stock of every genre
+	 * @return a Response entity of GenreFacetsDTO type with the facets ordered by genre
+	 */
+	@Operation(
+            summary = "Count the books of every genre",
+            description = "The counts are kept in memory and updated by every write")
+    @ApiResponses(value = {
+    		@ApiResponse(responseCode = "200", description = "The facets are returned")
+    		
+    })
+	public ResponseEntity<GenreFacetsDTO> getGenreFacets();
+
+	/**
+	 * Method to count the books of every genre again in the database
+	 * @return a Response entity of Object type, the rebuilt GenreFacetsDTO
+	 */
+	@Operation(
+            summary = "Rebuild the genre counts from the database",
+            description = "Replaces the counts kept in memory with a GROUP BY of the BOOK table")
+    @ApiResponses(value = {
+    		@ApiResponse(responseCode = "200", description = "The rebuilt facets are returned"),
+    		@ApiResponse(responseCode = "503", description = "The database is not available")
+    		
+    })
+	public ResponseEntity<Object> rebuildGenreFacets();
+
+	/**
+	 * Method to load a feed of books (NDJSON or CSV) into the system
+	 * @param request the http request with the feed as body
+	 * @param response the http response where one result per record is streamed as NDJSON
+	 * @throws IOException if the feed can not be read or the results written
+	 */
+	@Operation(
+            summary = "Insert or update a feed of books in the system",
+            description = "Every record is validated and the valid ones are upserted in chunks to the Book datasource (the ISBN is the primary key)")
+    @ApiResponses(value = {
+    		@ApiResponse(responseCode = "200", description = "The result of every record is streamed as NDJSON"),
+    		@ApiResponse(responseCode = "415", description = "The feed is not NDJSON or CSV")
+    		
+    })
+	public void importBooks(HttpServletRequest request, HttpServletResponse response) throws IOException;
+
+	/**
+	 * Method to export the catalog
+	 * @param after the ISBN of the last book already received, to resume an interrupted export
+	 * @param request the http request, its Accept-Encoding header tells if the books can be sent compressed
+	 * @param response the http response where the books are streamed as NDJSON
+	 * @throws IOException if the books can not be written
+	 */
+	@Operation(
+            summary = "Export the whole catalog",
+            description = "Streams every book of the Book datasource as NDJSON in ISBN order, gzip compressed if the client accepts it")
+    @ApiResponses(value = {
+    		@ApiResponse(responseCode = "200", description = "The books are streamed as NDJSON, one BookDTO per line")
+    		
+    })
+	public void exportBooks(String after, HttpServletRequest request, HttpServletResponse response) throws IOException;
 
+	/**
+	 * Method to take the copies of a purchase order out of stock
+	 * @param order the ISBN and copies of every line of the order
+	 * @return a Response entity of Object type, the order
+	 */
+	@Operation(
+            summary = "Purchase copies of one or more books",
+            description = "Decrements the stock with a conditional update per line, all the lines are applied or none")
+    @ApiResponses(value = {
+    		@ApiResponse(responseCode = "200", description = "The order was applied"),
+    		@ApiResponse(responseCode = "400", description = "The order is malformed"),
+    		@ApiResponse(responseCode = "404", description = "A book of the order is not in the system"),
+    		@ApiResponse(responseCode = "409", description = "A book of the order has not enough copies in stock")
+    		
+    })
+	public ResponseEntity<Object> purchaseBooks(PurchaseRequestDTO order);
 }
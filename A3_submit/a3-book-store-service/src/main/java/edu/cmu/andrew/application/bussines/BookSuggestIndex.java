@@ -0,0 +1,565 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import edu.cmu.andrew.application.business.dto.BookSuggestionDTO;
+import edu.cmu.andrew.application.business.model.Book;
+
+/**
+* <h1>Book Suggest Index</h1>
+*
+* Compact prefix index of the normalized titles and authors of the books (lower case, without accents and with the
+* punctuation collapsed to single spaces). The entries are kept sorted in flat arrays: the UTF-8 bytes of the keys
+* and of the text to display are stored back to back in two byte pools addressed by offsets, next to the type, the
+* weight and a segment tree with the heaviest entry of every range. A prefix maps to a contiguous range of entries
+* found with two binary searches and its k heaviest entries are taken from the segment tree, so a lookup does not
+* depend on the number of entries that share the prefix.
+*
+* The weight of an entry is its popularity in the catalog, the number of books with that title or author. Writes
+* are recorded as weight adjustments in a small sorted delta that is visible to the lookups and merged into the
+* arrays once it reaches the merge threshold. The books of the initial load are aggregated apart and merged in
+* large batches.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class BookSuggestIndex {
+
+	public static final byte TITLE = 0;
+	public static final byte AUTHOR = 1;
+	private static final String[] TYPE_NAMES = { "title", "author" };
+	private static final int LOAD_BATCH = 1 << 18;
+	private static final Comparator<Change> BYTE_ORDER = (a, b) -> {
+		int cmp = Arrays.compareUnsigned(a.key, b.key);
+		return cmp != 0 ? cmp : Byte.compare(a.type, b.type);
+	};
+
+	private final int mergeThreshold;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private Snapshot snapshot = new Snapshot(0, new byte[0], new int[1], new byte[0], new int[1], new byte[0],
+			new int[0]);
+	private final TreeMap<String, Change> delta = new TreeMap<>();
+	private final Map<String, Change> loaded = new HashMap<>();
+
+	/**
+	 * Weight adjustment of an entry that is not merged yet, with the weight and the display of the entry in the
+	 * current snapshot so a lookup does not search them
+	 */
+	private static final class Change {
+		private final byte[] key;
+		private final byte type;
+		private byte[] display;
+		private int adjustment;
+		private int base;
+
+		private Change(byte[] key, byte type) {
+			this.key = key;
+			this.type = type;
+		}
+	}
+
+	/**
+	 * Sorted and immutable entries with the segment tree of their weights
+	 */
+	private static final class Snapshot {
+		private final int size;
+		private final byte[] keys;
+		private final int[] keyOffsets;
+		private final byte[] displays;
+		private final int[] displayOffsets;
+		private final byte[] types;
+		private final int[] weights;
+		private final int[] tree;
+
+		private Snapshot(int size, byte[] keys, int[] keyOffsets, byte[] displays, int[] displayOffsets,
+				byte[] types, int[] weights) {
+			this.size = size;
+			this.keys = keys;
+			this.keyOffsets = keyOffsets;
+			this.displays = displays;
+			this.displayOffsets = displayOffsets;
+			this.types = types;
+			this.weights = weights;
+			this.tree = new int[2 * size];
+			for (int i = 0; i < size; i++) {
+				tree[size + i] = i;
+			}
+			for (int node = size - 1; node > 0; node--) {
+				tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+			}
+		}
+
+		/**
+		 * @return the heaviest of two entries, the first one in the order on ties
+		 */
+		private int heavier(int a, int b) {
+			if (a < 0) {
+				return b;
+			}
+			if (b < 0) {
+				return a;
+			}
+			return weights[a] > weights[b] || (weights[a] == weights[b] && a < b) ? a : b;
+		}
+
+		/**
+		 * @return the heaviest entry between from (inclusive) and to (exclusive)
+		 */
+		private int heaviest(int from, int to) {
+			int best = -1;
+			for (int l = from + size, r = to + size; l < r; l >>= 1, r >>= 1) {
+				if ((l & 1) == 1) {
+					best = heavier(best, tree[l++]);
+				}
+				if ((r & 1) == 1) {
+					best = heavier(best, tree[--r]);
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Compares the key of an entry with a prefix, the key is truncated to the length of the prefix
+		 * @return negative if the key sorts before the prefix, 0 if it starts with it, positive otherwise
+		 */
+		private int comparePrefix(int entry, byte[] prefix) {
+			int from = keyOffsets[entry];
+			int length = keyOffsets[entry + 1] - from;
+			int cmp = Arrays.compareUnsigned(keys, from, from + Math.min(length, prefix.length), prefix, 0,
+					Math.min(length, prefix.length));
+			if (cmp != 0) {
+				return cmp;
+			}
+			return length < prefix.length ? -1 : 0;
+		}
+
+		private int compare(int entry, byte[] key, byte type) {
+			int cmp = Arrays.compareUnsigned(keys, keyOffsets[entry], keyOffsets[entry + 1], key, 0, key.length);
+			return cmp != 0 ? cmp : Byte.compare(types[entry], type);
+		}
+
+		/**
+		 * @return the first entry whose truncated key compares above the given value (-1 for lower, 0 for upper)
+		 */
+		private int bound(byte[] prefix, int above) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (comparePrefix(middle, prefix) > above) {
+					high = middle;
+				} else {
+					low = middle + 1;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * @return the position of the entry, -1 if it is not in the snapshot
+		 */
+		private int find(byte[] key, byte type) {
+			int low = 0;
+			int high = size - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				int cmp = compare(middle, key, type);
+				if (cmp < 0) {
+					low = middle + 1;
+				} else if (cmp > 0) {
+					high = middle - 1;
+				} else {
+					return middle;
+				}
+			}
+			return -1;
+		}
+
+		private String key(int entry) {
+			return new String(keys, keyOffsets[entry], keyOffsets[entry + 1] - keyOffsets[entry],
+					StandardCharsets.UTF_8);
+		}
+
+		private String display(int entry) {
+			return new String(displays, displayOffsets[entry], displayOffsets[entry + 1] - displayOffsets[entry],
+					StandardCharsets.UTF_8);
+		}
+
+		private long bytes() {
+			return keys.length + displays.length + 4L * (keyOffsets.length + displayOffsets.length) + types.length
+					+ 4L * weights.length + 4L * tree.length;
+		}
+	}
+
+	/**
+	 * Growable arrays used to write a new snapshot in order
+	 */
+	private static final class SnapshotBuilder {
+		private int size;
+		private byte[] keys;
+		private int[] keyOffsets;
+		private byte[] displays;
+		private int[] displayOffsets;
+		private byte[] types;
+		private int[] weights;
+
+		private SnapshotBuilder(int entries, int keyBytes, int displayBytes) {
+			keys = new byte[keyBytes];
+			keyOffsets = new int[entries + 1];
+			displays = new byte[displayBytes];
+			displayOffsets = new int[entries + 1];
+			types = new byte[entries];
+			weights = new int[entries];
+		}
+
+		private void add(byte[] key, int keyFrom, int keyTo, byte[] display, int displayFrom, int displayTo,
+				byte type, int weight) {
+			if (size == types.length) {
+				int capacity = size + (size >> 1) + 16;
+				keyOffsets = Arrays.copyOf(keyOffsets, capacity + 1);
+				displayOffsets = Arrays.copyOf(displayOffsets, capacity + 1);
+				types = Arrays.copyOf(types, capacity);
+				weights = Arrays.copyOf(weights, capacity);
+			}
+			keys = append(keys, keyOffsets[size], key, keyFrom, keyTo);
+			keyOffsets[size + 1] = keyOffsets[size] + keyTo - keyFrom;
+			displays = append(displays, displayOffsets[size], display, displayFrom, displayTo);
+			displayOffsets[size + 1] = displayOffsets[size] + displayTo - displayFrom;
+			types[size] = type;
+			weights[size] = weight;
+			size++;
+		}
+
+		private static byte[] append(byte[] pool, int position, byte[] source, int from, int to) {
+			if (position + to - from > pool.length) {
+				pool = Arrays.copyOf(pool, Math.max(position + to - from, pool.length + (pool.length >> 1) + 64));
+			}
+			System.arraycopy(source, from, pool, position, to - from);
+			return pool;
+		}
+
+		private Snapshot build() {
+			return new Snapshot(size, Arrays.copyOf(keys, keyOffsets[size]), Arrays.copyOf(keyOffsets, size + 1),
+					Arrays.copyOf(displays, displayOffsets[size]), Arrays.copyOf(displayOffsets, size + 1),
+					Arrays.copyOf(types, size), Arrays.copyOf(weights, size));
+		}
+	}
+
+	/**
+	 * Candidate of a lookup
+	 */
+	private static final class Candidate {
+		private final String key;
+		private final String display;
+		private final byte type;
+		private final int weight;
+
+		private Candidate(String key, String display, byte type, int weight) {
+			this.key = key;
+			this.display = display;
+			this.type = type;
+			this.weight = weight;
+		}
+	}
+
+	/**
+	 * @param mergeThreshold the number of pending changes that triggers a merge into the sorted arrays
+	 */
+	public BookSuggestIndex(int mergeThreshold) {
+		this.mergeThreshold = mergeThreshold;
+	}
+
+	/**
+	 * Method to record the write of a book, the weights of its previous title and author are decreased and the ones
+	 * of the current title and author increased
+	 * @param previous the indexed version of the book, null for a new book
+	 * @param current the current state of the book
+	 */
+	public void replace(Book previous, Book current) {
+		lock.writeLock().lock();
+		try {
+			if (previous != null) {
+				adjust(delta, previous.getTitle(), TITLE, -1);
+				adjust(delta, previous.getAuthor(), AUTHOR, -1);
+			}
+			adjust(delta, current.getTitle(), TITLE, 1);
+			adjust(delta, current.getAuthor(), AUTHOR, 1);
+			if (delta.size() >= mergeThreshold) {
+				if (!loaded.isEmpty()) {// a decrease of a loaded book that is not merged yet would be dropped
+					mergeLoaded();
+				}
+				merge(delta.values());
+				delta.clear();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Method to add a book of the initial load, the loaded books are aggregated and merged in large batches, they
+	 * are visible once their batch is merged or flush is called
+	 * @param book the book read from the DB
+	 */
+	public void load(Book book) {
+		lock.writeLock().lock();
+		try {
+			adjust(loaded, book.getTitle(), TITLE, 1);
+			adjust(loaded, book.getAuthor(), AUTHOR, 1);
+			if (loaded.size() >= LOAD_BATCH) {
+				mergeLoaded();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Method to merge the books of the initial load that are still pending
+	 */
+	public void flush() {
+		lock.writeLock().lock();
+		try {
+			mergeLoaded();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Method to get the heaviest titles and authors that start with a prefix
+	 * @param prefix the text typed by the end-user, it is normalized as the indexed titles and authors
+	 * @param limit the maximum number of suggestions
+	 * @return the suggestions ordered by weight
+	 */
+	public List<BookSuggestionDTO> suggest(String prefix, int limit) {
+		String key = normalize(prefix);
+		if (key.isEmpty()) {
+			return List.of();
+		}
+		byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+		lock.readLock().lock();
+		try {
+			Snapshot entries = snapshot;
+			List<Candidate> candidates = new ArrayList<>();
+
+			// heaviest entries of the range of the prefix, one segment tree query per entry taken
+			PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> entries.heavier(a[2], b[2]) == a[2] ? -1 : 1);
+			int from = entries.bound(bytes, -1);
+			int to = entries.bound(bytes, 0);
+			if (from < to) {
+				ranges.add(new int[] { from, to, entries.heaviest(from, to) });
+			}
+			int taken = 0;
+			while (taken < limit && !ranges.isEmpty()) {
+				int[] range = ranges.poll();
+				int entry = range[2];
+				if (range[0] < entry) {
+					ranges.add(new int[] { range[0], entry, entries.heaviest(range[0], entry) });
+				}
+				if (entry + 1 < range[1]) {
+					ranges.add(new int[] { entry + 1, range[1], entries.heaviest(entry + 1, range[1]) });
+				}
+				String entryKey = entries.key(entry);
+				if (delta.containsKey(id(entryKey, entries.types[entry]))) {
+					continue;
+				}
+				candidates.add(new Candidate(entryKey, entries.display(entry), entries.types[entry],
+						entries.weights[entry]));
+				taken++;
+			}
+
+			// the pending changes replace the snapshot entry they adjust, only the ones that can make the top k
+			int lightest = taken < limit ? 1 : candidates.get(taken - 1).weight;
+			for (Change change : delta.subMap(key, key + Character.MAX_VALUE).values()) {
+				int weight = change.base + change.adjustment;
+				if (weight > 0 && weight >= lightest) {
+					candidates.add(new Candidate(new String(change.key, StandardCharsets.UTF_8),
+							new String(change.display, StandardCharsets.UTF_8), change.type, weight));
+				}
+			}
+
+			candidates.sort(Comparator.<Candidate>comparingInt((candidate) -> -candidate.weight)
+					.thenComparing((candidate) -> candidate.key)
+					.thenComparingInt((candidate) -> candidate.type));
+			List<BookSuggestionDTO> suggestions = new ArrayList<>(Math.min(limit, candidates.size()));
+			for (Candidate candidate : candidates.subList(0, Math.min(limit, candidates.size()))) {
+				suggestions.add(new BookSuggestionDTO(candidate.display, TYPE_NAMES[candidate.type],
+						candidate.weight));
+			}
+			return suggestions;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of merged entries
+	 */
+	public int entries() {
+		lock.readLock().lock();
+		try {
+			return snapshot.size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Method that returns the heap used by the merged entries, the pending changes are not included
+	 * @return the size in bytes of the arrays of the index
+	 */
+	public long memoryBytes() {
+		lock.readLock().lock();
+		try {
+			return snapshot.bytes();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Method that normalizes a title or an author: lower case, accents removed and every run of characters that
+	 * are not letters or digits replaced by a single space
+	 * @param text the text to normalize, may be null
+	 * @return the normalized text, empty if it has no letters or digits
+	 */
+	public static String normalize(String text) {
+		if (text == null) {
+			return "";
+		}
+		String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+		StringBuilder normalized = new StringBuilder(decomposed.length());
+		boolean space = false;
+		for (int i = 0; i < decomposed.length(); i++) {
+			char c = decomposed.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				if (space && normalized.length() > 0) {
+					normalized.append(' ');
+				}
+				normalized.append(c);
+				space = false;
+			} else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+				space = true;
+			}
+		}
+		return normalized.toString();
+	}
+
+	/**
+	 * Auxiliary method that adds a weight adjustment to a set of changes, the caller holds the write lock
+	 */
+	private void adjust(Map<String, Change> changes, String text, byte type, int adjustment) {
+		String key = normalize(text);
+		if (key.isEmpty()) {
+			return;
+		}
+		Change change = changes.get(id(key, type));
+		if (change == null) {
+			change = new Change(key.getBytes(StandardCharsets.UTF_8), type);
+			rebase(change);
+			changes.put(id(key, type), change);
+		}
+		change.adjustment += adjustment;
+		if (adjustment > 0) {
+			change.display = text.trim().getBytes(StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Auxiliary method that takes the weight and the display of the entry of a change from the current snapshot,
+	 * the display of the change is kept if it has its own
+	 */
+	private void rebase(Change change) {
+		int entry = snapshot.find(change.key, change.type);
+		change.base = entry < 0 ? 0 : snapshot.weights[entry];
+		if (change.display == null && entry >= 0) {
+			change.display = Arrays.copyOfRange(snapshot.displays, snapshot.displayOffsets[entry],
+					snapshot.displayOffsets[entry + 1]);
+		}
+	}
+
+	/**
+	 * Auxiliary method that merges the aggregated books of the initial load, the changes of the delta are rebased
+	 * on the new snapshot. The caller holds the write lock
+	 */
+	private void mergeLoaded() {
+		merge(loaded.values());
+		loaded.clear();
+		delta.values().forEach(this::rebase);
+	}
+
+	/**
+	 * Auxiliary method that merges a set of changes into a new snapshot, the entries whose weight drops to zero are
+	 * removed. The caller holds the write lock
+	 */
+	private void merge(Iterable<Change> pending) {
+		List<Change> changes = new ArrayList<>();
+		int keyBytes = snapshot.keys.length;
+		int displayBytes = snapshot.displays.length;
+		for (Change change : pending) {
+			changes.add(change);
+			keyBytes += change.key.length;
+			displayBytes += change.display == null ? 0 : change.display.length;
+		}
+		if (changes.isEmpty()) {
+			return;
+		}
+		changes.sort(BYTE_ORDER);
+
+		Snapshot current = snapshot;
+		SnapshotBuilder builder = new SnapshotBuilder(current.size + changes.size(), keyBytes, displayBytes);
+		int entry = 0;
+		int next = 0;
+		while (entry < current.size || next < changes.size()) {
+			Change change = next < changes.size() ? changes.get(next) : null;
+			int cmp = change == null ? -1 : entry == current.size ? 1 : current.compare(entry, change.key, change.type);
+			if (cmp < 0) {
+				builder.add(current.keys, current.keyOffsets[entry], current.keyOffsets[entry + 1], current.displays,
+						current.displayOffsets[entry], current.displayOffsets[entry + 1], current.types[entry],
+						current.weights[entry]);
+				entry++;
+			} else if (cmp > 0) {
+				if (change.adjustment > 0 && change.display != null) {
+					builder.add(change.key, 0, change.key.length, change.display, 0, change.display.length,
+							change.type, change.adjustment);
+				}
+				next++;
+			} else {
+				int weight = current.weights[entry] + change.adjustment;
+				if (weight > 0) {
+					if (change.display != null) {
+						builder.add(change.key, 0, change.key.length, change.display, 0, change.display.length,
+								change.type, weight);
+					} else {
+						builder.add(current.keys, current.keyOffsets[entry], current.keyOffsets[entry + 1],
+								current.displays, current.displayOffsets[entry], current.displayOffsets[entry + 1],
+								change.type, weight);
+					}
+				}
+				entry++;
+				next++;
+			}
+		}
+		snapshot = builder.build();
+	}
+
+	/**
+	 * @return the identifier of an entry in the changes, the separator sorts before any character of a key
+	 */
+	private static String id(String key, byte type) {
+		return key + '\u0000' + type;
+	}
+}
@@ -0,0 +1,368 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import edu.cmu.andrew.application.business.dto.BookDTO;
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.persistence.BookBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+* <h1>Book Write Behind Service</h1>
+*
+* Opt-in write-behind buffer for the updates of books (bookstore.write-behind.enabled). An update is accepted in
+* memory and merged with the pending update of the same ISBN, every bookstore.write-behind.window the pending
+* updates are written with one batched UPDATE, so a burst of updates of a title costs one row write. Until then
+* the BookCacheService serves the pending state of the book.
+*
+* Every pending update carries the version the row had when the first update of the burst was accepted and the
+* version it will have once written (one more per update merged, so every state has its own ETag). The UPDATE is
+* guarded by the first one, a row changed by another writer in between is not overwritten: the pending update is
+* dropped and counted as a conflict, the row is read again from the writer and the cache, the search index and the
+* local recommender get its current state back. An update merged while the dropped one was written is kept, based
+* on the version read, and written by the next flush. The other writes of the service (purchases and imports)
+* flush the pending updates of their ISBNs before writing. The pending updates are flushed when the application
+* shuts down, a flush that fails keeps them for the next one.
+*
+* The cache, the search index and the local recommender get the pending state of a book when its update is
+* accepted, the genre facets once it is written: the flush runs within BookFacetService.write() and moves every
+* book from the state the facets counted to the state now in the DB.
+*
+* Metrics: the counters "book.write-behind.updates" (updates accepted), "book.write-behind.writes" (rows written)
+* and "book.write-behind.conflicts", the gauge "book.write-behind.coalescing.ratio" (updates written per row
+* written), the gauge "book.write-behind.pending" and the timer "book.write-behind.flush" tagged with its outcome.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Service
+public class BookWriteBehindService {
+
+	private static final Logger logger = LoggerFactory.getLogger(BookWriteBehindService.class);
+
+	@Autowired
+	private BookBatchRepository bookBatchRepository;
+
+	@Autowired
+	private BookCacheService bookCacheService;
+
+	@Autowired
+	private BookSearchService bookSearchService;
+
+	@Autowired
+	private LocalRecommendationService localRecommendationService;
+
+	@Autowired
+	private BookFacetService bookFacetService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${bookstore.write-behind.enabled:false}")
+	private boolean enabled;
+
+	@Value("${bookstore.write-behind.window:200ms}")
+	private Duration window;
+
+	private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+
+	private final Object flushLock = new Object();
+
+	private final AtomicLong updatesWritten = new AtomicLong();
+
+	private final AtomicLong rowsWritten = new AtomicLong();
+
+	private ScheduledExecutorService flusher;
+
+	private Counter updatesCounter;
+
+	private Counter writesCounter;
+
+	private Counter conflictsCounter;
+
+	/**
+	 * Latest state of a book waiting to be written
+	 */
+	private static final class Pending {
+		private final Book book;// its version is the one the row will have once written
+		private final Book base;// the state of the row the pending update replaces, counted by the facets
+		private final int updates;
+
+		private Pending(Book book, Book base, int updates) {
+			this.book = book;
+			this.base = base;
+			this.updates = updates;
+		}
+	}
+
+	/**
+	 * State of a book before and after an update accepted by the buffer
+	 */
+	public static final class Update {
+		private final Book previous;
+		private final Book updated;
+
+		private Update(Book previous, Book updated) {
+			this.previous = previous;
+			this.updated = updated;
+		}
+
+		public Book getPrevious() {
+			return previous;
+		}
+
+		public Book getUpdated() {
+			return updated;
+		}
+	}
+
+	/**
+	 * Binds the metrics to the meter registry and starts the periodic flush when the mode is enabled
+	 */
+	@PostConstruct
+	public void init() {
+		updatesCounter = Counter.builder("book.write-behind.updates")
+				.description("Updates accepted by the write-behind buffer")
+				.register(meterRegistry);
+		writesCounter = Counter.builder("book.write-behind.writes")
+				.description("Rows written by the flushes of the write-behind buffer")
+				.register(meterRegistry);
+		conflictsCounter = Counter.builder("book.write-behind.conflicts")
+				.description("Pending updates dropped because the row was changed by another writer")
+				.register(meterRegistry);
+		Gauge.builder("book.write-behind.coalescing.ratio", this, BookWriteBehindService::coalescingRatio)
+				.description("Updates written per row written")
+				.register(meterRegistry);
+		Gauge.builder("book.write-behind.pending", pending, ConcurrentMap::size)
+				.description("Books with an update waiting to be written")
+				.register(meterRegistry);
+		if (enabled) {
+			flusher = Executors.newSingleThreadScheduledExecutor((task) -> {
+				Thread thread = new Thread(task, "book-write-behind");
+				thread.setDaemon(true);
+				return thread;
+			});
+			flusher.scheduleWithFixedDelay(this::flush, window.toMillis(), window.toMillis(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Stops the periodic flush and writes the pending updates before the datasource is closed
+	 */
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		if (flusher != null) {
+			flusher.shutdown();
+			flusher.awaitTermination(window.toMillis() + 10_000, TimeUnit.MILLISECONDS);
+		}
+		flush();
+		if (!pending.isEmpty()) {
+			logger.error("Unable to write the pending updates of the books {}", pending.keySet());
+		}
+	}
+
+	/**
+	 * Method to know if the updates have to be sent to the write-behind buffer
+	 * @return true if the write-behind mode is enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Method to get the pending state of a book
+	 * @param isbn the unique key identifier of the book
+	 * @return the latest state accepted for the book, null if it has no update waiting to be written
+	 */
+	public Book pending(String isbn) {
+		Pending current = pending.get(isbn);
+		return current == null ? null : current.book;
+	}
+
+	/**
+	 * Method to accept an update of a book, it is merged with the pending update of the same ISBN
+	 * @param stored the book as read from the cache or the DB, used when the book has no pending update
+	 * @param changes the new data of the book
+	 * @param precondition the condition the current state of the book must meet to be updated
+	 * @return the state of the book before and after the update, null if the precondition is not met
+	 */
+	public synchronized Update update(Book stored, BookDTO changes, Predicate<Book> precondition) {
+		Pending current = pending.get(stored.getIsbn());
+		Book previous = current == null ? stored : current.book;
+		if (!precondition.test(previous)) {
+			return null;
+		}
+		Book updated = new Book(stored.getIsbn(), changes.getTitle(), changes.getAuthor(), changes.getDescription(),
+				changes.getGenre(), changes.getPrice(), changes.getQuantity());
+		updated.setVersion(version(previous) + 1);
+		pending.put(stored.getIsbn(), current == null ? new Pending(updated, stored, 1)
+				: new Pending(updated, current.base, current.updates + 1));
+		updatesCounter.increment();
+		return new Update(previous, updated);
+	}
+
+	/**
+	 * Method to write every pending update
+	 */
+	public void flush() {
+		flush(pending.keySet());
+	}
+
+	/**
+	 * Method to write the pending updates of some books with one batched UPDATE, called by the periodic flush and
+	 * by the writes that must not be overwritten by an older pending update
+	 * @param isbns the unique key identifiers of the books to be written
+	 */
+	public void flush(Collection<String> isbns) {
+		if (pending.isEmpty()) {
+			return;
+		}
+		synchronized (flushLock) {
+			List<Pending> batch = new ArrayList<>();
+			for (String isbn : isbns) {
+				Pending current = pending.get(isbn);
+				if (current != null) {
+					batch.add(current);
+				}
+			}
+			if (batch.isEmpty()) {
+				return;
+			}
+			List<Book> books = new ArrayList<>(batch.size());
+			List<Long> versions = new ArrayList<>(batch.size());
+			batch.forEach((current) -> {
+				books.add(current.book);
+				versions.add(version(current.base));
+			});
+			Timer.Sample sample = Timer.start(meterRegistry);
+			String outcome = "success";
+			try {
+				bookFacetService.write(() -> {
+					written(batch, bookBatchRepository.updateAll(books, versions));
+					return batch;
+				});
+			} catch (RuntimeException e) {// kept for the next flush, the periodic flush must not stop
+				outcome = e instanceof DataAccessException ? "failure" : "error";
+				logger.warn("Unable to write {} pending book updates: {}", batch.size(), e.getMessage());
+			}
+			sample.stop(Timer.builder("book.write-behind.flush")
+					.description("Time to write a batch of pending book updates")
+					.tag("outcome", outcome)
+					.register(meterRegistry));
+		}
+	}
+
+	/**
+	 * Auxiliary method that removes the pending updates once written and moves the facets of the books written, an
+	 * update merged while it was written is kept and based on the state just written. The books that were changed
+	 * by another writer are reconciled with the state of the DB
+	 */
+	private void written(List<Pending> batch, int[] counts) {
+		List<Pending> conflicts = new ArrayList<>();
+		synchronized (this) {
+			for (int i = 0; i < batch.size(); i++) {
+				Pending written = batch.get(i);
+				if (counts[i] == 0) {
+					conflicts.add(written);
+					continue;
+				}
+				String isbn = written.book.getIsbn();
+				Pending current = pending.get(isbn);
+				writesCounter.increment();
+				rowsWritten.incrementAndGet();
+				updatesWritten.addAndGet(written.updates);
+				bookFacetService.update(written.base.getGenre(), written.base.getQuantity(), written.book);
+				if (current == written) {
+					pending.remove(isbn);
+				} else {
+					pending.put(isbn, new Pending(current.book, written.book, current.updates - written.updates));
+				}
+			}
+		}
+		if (!conflicts.isEmpty()) {
+			conflicts(conflicts);
+		}
+	}
+
+	/**
+	 * Auxiliary method that reconciles the pending updates dropped because the row was changed by another writer:
+	 * the row is read again from the writer, the facets move from the state they counted to it and the cache, the
+	 * search index and the local recommender get it back. An update merged after the dropped one is kept and based
+	 * on the row read, so it is written by the next flush
+	 */
+	private void conflicts(List<Pending> conflicts) {
+		Map<String, Book> rows = new HashMap<>();
+		List<String> isbns = new ArrayList<>(conflicts.size());
+		conflicts.forEach((dropped) -> isbns.add(dropped.book.getIsbn()));
+		bookBatchRepository.findAllCurrent(isbns).forEach((row) -> rows.put(row.getIsbn(), row));
+		synchronized (this) {
+			for (Pending dropped : conflicts) {
+				String isbn = dropped.book.getIsbn();
+				Book row = rows.get(isbn);
+				Pending current = pending.get(isbn);
+				conflictsCounter.increment();
+				if (row == null) {// deleted by another writer, the next read gets the 404
+					logger.warn("The pending update of the book {} was dropped, the book was deleted", isbn);
+					pending.remove(isbn);
+					bookCacheService.evict(isbn);
+					continue;
+				}
+				bookFacetService.update(dropped.base.getGenre(), dropped.base.getQuantity(), row);
+				Book state = row;
+				if (current == dropped) {
+					logger.warn("The pending update of the book {} was dropped, the book was changed", isbn);
+					pending.remove(isbn);
+				} else {
+					logger.warn("The pending update of the book {} was dropped, the book was changed, the {} updates "
+							+ "merged after it are kept", isbn, current.updates - dropped.updates);
+					state = copy(current.book, version(row) + 1);
+					pending.put(isbn, new Pending(state, row, current.updates - dropped.updates));
+				}
+				bookCacheService.put(state);
+				bookSearchService.index(state);
+				localRecommendationService.index(state);
+			}
+		}
+	}
+
+	private double coalescingRatio() {
+		long rows = rowsWritten.get();
+		return rows == 0 ? 0 : (double) updatesWritten.get() / rows;
+	}
+
+	private static Book copy(Book book, long version) {
+		Book copy = new Book(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getDescription(),
+				book.getGenre(), book.getPrice(), book.getQuantity());
+		copy.setVersion(version);
+		return copy;
+	}
+
+	private static long version(Book book) {
+		return book.getVersion() == null ? 0 : book.getVersion();
+	}
+}
@@ -0,0 +1,48 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.util.Optional;
+
+import edu.cmu.andrew.application.business.model.Book;
+
+/**
+* <h1>Cached Book</h1>
+*
+* Immutable entry stored by the BookCacheService. It holds the book entity and, when the serialized responses
+* mode is active, the final UTF-8 JSON representation of the book ready to be written to the response.
+* A negative entry (ISBN not in the system) has no book and no JSON.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public final class CachedBook {
+
+	public static final CachedBook NOT_FOUND = new CachedBook(null, null);
+
+	private final Book book;
+	private final byte[] json;
+
+	public CachedBook(Book book, byte[] json) {
+		this.book = book;
+		this.json = json;
+	}
+
+	public boolean isPresent() {
+		return book != null;
+	}
+
+	public Book getBook() {
+		return book;
+	}
+
+	public Optional<Book> asOptional() {
+		return Optional.ofNullable(book);
+	}
+
+	/**
+	 * @return the pre-serialized JSON of the book, null if the serialized responses mode is disabled
+	 */
+	public byte[] getJson() {
+		return json;
+	}
+}
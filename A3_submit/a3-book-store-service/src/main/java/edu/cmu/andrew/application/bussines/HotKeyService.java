@@ -0,0 +1,121 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import edu.cmu.andrew.application.business.dto.HotKeyDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+* <h1>Hot Key Service</h1>
+*
+* Business service that tracks the hot keys of the read paths of the service, one HotKeySketch per path: the ISBNs
+* of GET /books/{isbn} ("books") and of GET /books/{isbn}/related-books ("related-books"). Every sketch is halved
+* every bookstore.hotkeys.half-life, so the counts are time-decayed and the top lists follow the current traffic.
+* The top lists are exposed by the "hotkeys" actuator endpoint.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Service
+public class HotKeyService {
+
+	public static final String BOOKS = "books";
+	public static final String RELATED_BOOKS = "related-books";
+
+	@Value("${bookstore.hotkeys.enabled:true}")
+	private boolean enabled;
+
+	@Value("${bookstore.hotkeys.depth:4}")
+	private int depth;
+
+	@Value("${bookstore.hotkeys.width:8192}")
+	private int width;
+
+	@Value("${bookstore.hotkeys.top-k:20}")
+	private int topK;
+
+	@Value("${bookstore.hotkeys.half-life:5m}")
+	private Duration halfLife;
+
+	private Map<String, HotKeySketch> sketches;
+
+	private ScheduledExecutorService decay;
+
+	/**
+	 * Builds the sketches once the configuration values are injected and starts their decay
+	 */
+	@PostConstruct
+	public void init() {
+		sketches = new LinkedHashMap<>();
+		sketches.put(BOOKS, new HotKeySketch(depth, width, topK));
+		sketches.put(RELATED_BOOKS, new HotKeySketch(depth, width, topK));
+		if (enabled) {
+			decay = Executors.newSingleThreadScheduledExecutor((task) -> {
+				Thread thread = new Thread(task, "hotkeys-decay");
+				thread.setDaemon(true);
+				return thread;
+			});
+			decay.scheduleAtFixedRate(() -> sketches.values().forEach(HotKeySketch::decay), halfLife.toMillis(),
+					halfLife.toMillis(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (decay != null) {
+			decay.shutdownNow();
+		}
+	}
+
+	/**
+	 * Method to count a request of a key
+	 * @param path the name of the request path, BOOKS or RELATED_BOOKS
+	 * @param key the key requested
+	 */
+	public void record(String path, String key) {
+		if (enabled) {
+			sketches.get(path).record(key);
+		}
+	}
+
+	/**
+	 * Method to get the estimated count of a key
+	 * @param path the name of the request path, BOOKS or RELATED_BOOKS
+	 * @param key the key to look up
+	 * @return the decayed count of the key, 0 if the hot keys are not tracked
+	 */
+	public int estimate(String path, String key) {
+		return enabled ? sketches.get(path).estimate(key) : 0;
+	}
+
+	/**
+	 * Method to get the hot keys of every request path
+	 * @return the top keys of every path, the most requested first
+	 */
+	public Map<String, List<HotKeyDTO>> top() {
+		Map<String, List<HotKeyDTO>> top = new LinkedHashMap<>();
+		sketches.forEach((path, sketch) -> top.put(path, sketch.top()));
+		return top;
+	}
+
+	/**
+	 * Method to get the hot keys of a request path
+	 * @param path the name of the request path
+	 * @return the top keys of the path, null if the path is not tracked
+	 */
+	public List<HotKeyDTO> top(String path) {
+		HotKeySketch sketch = sketches.get(path);
+		return sketch == null ? null : sketch.top();
+	}
+}
@@ -0,0 +1,200 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+* <h1>ISBN Bloom Filter</h1>
+*
+* Scalable Bloom filter of ISBNs, it answers if an ISBN is definitely not in the set or may be in it. The filter is
+* a chain of layers: every layer is a plain Bloom filter sized for a number of ISBNs, when it is full a new layer
+* twice as large and with half the false-positive rate is added, so the filter grows with the catalog and the
+* false-positive rate of the whole chain stays below twice the rate of the first layer. An ISBN already reported
+* as present is not added again.
+*
+* The bits of a layer are set with compare-and-set, so the lookups and the adds do not lock; only the creation of
+* a new layer is serialized. Every ISBN is hashed once (64-bit FNV-1a with the MurmurHash3 finalizer) and the
+* positions of a layer are derived from two halves of the hash (double hashing).
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class IsbnBloomFilter {
+
+	private static final double GROWTH = 2;
+	private static final double TIGHTENING = 0.5;
+
+	private volatile Layer[] layers;
+
+	private final LongAdder entries = new LongAdder();
+
+	/**
+	 * Plain Bloom filter sized for a number of ISBNs
+	 */
+	private static final class Layer {
+		private final AtomicLongArray bits;
+		private final long size;// number of bits
+		private final int hashes;
+		private final long capacity;
+		private final double falsePositiveRate;
+		private final LongAdder added = new LongAdder();
+
+		private Layer(long capacity, double falsePositiveRate) {
+			this.capacity = capacity;
+			this.falsePositiveRate = falsePositiveRate;
+			long bitsNeeded = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+			this.bits = new AtomicLongArray((int) Math.max(1, (bitsNeeded + 63) / 64));
+			this.size = (long) bits.length() * 64;
+			this.hashes = Math.max(1, (int) Math.round(-Math.log(falsePositiveRate) / Math.log(2)));
+		}
+
+		private boolean mightContain(long hash) {
+			long h1 = (int) hash;
+			long h2 = (int) (hash >>> 32);
+			for (int i = 1; i <= hashes; i++) {
+				long position = Math.floorMod(h1 + i * h2, size);
+				if ((bits.get((int) (position >>> 6)) & (1L << position)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void put(long hash) {
+			long h1 = (int) hash;
+			long h2 = (int) (hash >>> 32);
+			for (int i = 1; i <= hashes; i++) {
+				long position = Math.floorMod(h1 + i * h2, size);
+				long mask = 1L << position;
+				int word = (int) (position >>> 6);
+				long current = bits.get(word);
+				while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+					current = bits.get(word);
+				}
+			}
+			added.increment();
+		}
+
+		/**
+		 * Estimated false-positive rate from the fraction of bits set
+		 */
+		private double estimatedFalsePositiveRate() {
+			long set = 0;
+			for (int i = 0; i < bits.length(); i++) {
+				set += Long.bitCount(bits.get(i));
+			}
+			return Math.pow((double) set / size, hashes);
+		}
+	}
+
+	/**
+	 * @param expectedIsbns the number of ISBNs the first layer is sized for
+	 * @param falsePositiveRate the false-positive rate of the first layer, the rate of the whole filter stays below
+	 *                          twice this value
+	 */
+	public IsbnBloomFilter(long expectedIsbns, double falsePositiveRate) {
+		layers = new Layer[] { new Layer(Math.max(1, expectedIsbns), falsePositiveRate) };
+	}
+
+	/**
+	 * Method to know if an ISBN may be in the filter
+	 * @param isbn the ISBN to look up
+	 * @return false if the ISBN was never added, true if it was added or in case of a false positive
+	 */
+	public boolean mightContain(String isbn) {
+		long hash = hash(isbn);
+		for (Layer layer : layers) {
+			if (layer.mightContain(hash)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Method to add an ISBN, a new layer is created when the last one is full
+	 * @param isbn the ISBN to add
+	 */
+	public void add(String isbn) {
+		long hash = hash(isbn);
+		Layer[] current = layers;
+		for (Layer layer : current) {
+			if (layer.mightContain(hash)) {
+				return;
+			}
+		}
+		Layer last = current[current.length - 1];
+		if (last.added.sum() >= last.capacity) {
+			last = grow(last);
+		}
+		last.put(hash);
+		entries.increment();
+	}
+
+	/**
+	 * Method to get the number of ISBNs added
+	 * @return the ISBNs added to the filter, an ISBN reported as present when added is not counted
+	 */
+	public long entries() {
+		return entries.sum();
+	}
+
+	/**
+	 * Method to get the memory used by the bits of the filter
+	 * @return the size of the bit arrays in bytes
+	 */
+	public long memoryBytes() {
+		long bytes = 0;
+		for (Layer layer : layers) {
+			bytes += layer.size / 8;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Method to estimate the probability that an ISBN never added is reported as present, from the bits set in
+	 * every layer
+	 * @return the estimated false-positive rate of the filter
+	 */
+	public double estimatedFalsePositiveRate() {
+		double absent = 1;
+		for (Layer layer : layers) {
+			absent *= 1 - layer.estimatedFalsePositiveRate();
+		}
+		return 1 - absent;
+	}
+
+	/**
+	 * Auxiliary method that appends a new layer, unless another thread did it already
+	 */
+	private synchronized Layer grow(Layer full) {
+		Layer[] current = layers;
+		Layer last = current[current.length - 1];
+		if (last != full) {
+			return last;
+		}
+		Layer[] grown = new Layer[current.length + 1];
+		System.arraycopy(current, 0, grown, 0, current.length);
+		grown[current.length] = new Layer((long) (full.capacity * GROWTH), full.falsePositiveRate * TIGHTENING);
+		layers = grown;
+		return grown[current.length];
+	}
+
+	/**
+	 * Auxiliary method that hashes the UTF-8 bytes of an ISBN to 64 bits
+	 */
+	private static long hash(String isbn) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : isbn.getBytes(StandardCharsets.UTF_8)) {
+			hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
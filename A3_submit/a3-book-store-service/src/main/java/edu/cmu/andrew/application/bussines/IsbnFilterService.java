@@ -0,0 +1,203 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import edu.cmu.andrew.application.persistence.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+* <h1>ISBN Filter Service</h1>
+*
+* Opt-in existence guard for the lookups of books (bookstore.isbn-filter.enabled). It keeps an IsbnBloomFilter with
+* every ISBN of the catalog, built in background once the application is ready by walking the ISBNs with keyset
+* pages, and updated by the inserts and imports of the service. An ISBN the filter reports as absent is answered
+* with 404 without querying the DB, until the first build finishes every ISBN is reported as possibly present.
+*
+* The filter only sees the books written through this instance. It is built again every
+* bookstore.isbn-filter.rebuild-interval (0 to build it only at startup), so the books inserted directly in the DB
+* or by other instances are found after the next build; the writes received during a build are added to both the
+* current and the new filter.
+*
+* Metrics: the gauges "isbn.filter.entries", "isbn.filter.memory" (bytes) and "isbn.filter.false-positive-rate"
+* (estimated from the bits set), the counter "isbn.filter.avoided" with the DB queries avoided and the timer
+* "isbn.filter.build" tagged with its outcome.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Service
+public class IsbnFilterService {
+
+	private static final Logger logger = LoggerFactory.getLogger(IsbnFilterService.class);
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${bookstore.isbn-filter.enabled:false}")
+	private boolean enabled;
+
+	@Value("${bookstore.isbn-filter.expected-isbns:1000000}")
+	private long expectedIsbns;
+
+	@Value("${bookstore.isbn-filter.false-positive-rate:0.01}")
+	private double falsePositiveRate;
+
+	@Value("${bookstore.isbn-filter.rebuild-interval:1h}")
+	private Duration rebuildInterval;
+
+	@Value("${bookstore.isbn-filter.load-page-size:10000}")
+	private int loadPageSize;
+
+	private volatile IsbnBloomFilter filter;// null until the first build finishes
+
+	private IsbnBloomFilter building;// guarded by this
+
+	private ScheduledExecutorService builder;
+
+	private Counter avoidedCounter;
+
+	/**
+	 * Binds the metrics of the filter to the meter registry
+	 */
+	@PostConstruct
+	public void init() {
+		avoidedCounter = Counter.builder("isbn.filter.avoided")
+				.description("Lookups of unknown ISBNs answered without querying the DB")
+				.register(meterRegistry);
+		Gauge.builder("isbn.filter.entries", this, (service) -> service.filter == null ? 0 : service.filter.entries())
+				.description("ISBNs in the filter")
+				.register(meterRegistry);
+		Gauge.builder("isbn.filter.memory", this, (service) -> service.filter == null ? 0 : service.filter.memoryBytes())
+				.description("Heap used by the bits of the filter")
+				.baseUnit("bytes")
+				.register(meterRegistry);
+		Gauge.builder("isbn.filter.false-positive-rate", this,
+				(service) -> service.filter == null ? 0 : service.filter.estimatedFalsePositiveRate())
+				.description("Estimated probability of querying the DB for an unknown ISBN")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Starts the builds of the filter without holding the startup of the application
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void startBuild() {
+		if (!enabled) {
+			return;
+		}
+		builder = Executors.newSingleThreadScheduledExecutor((task) -> {
+			Thread thread = new Thread(task, "isbn-filter-build");
+			thread.setDaemon(true);
+			return thread;
+		});
+		if (rebuildInterval.isZero()) {
+			builder.execute(this::build);
+		} else {
+			builder.scheduleWithFixedDelay(this::build, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (builder != null) {
+			builder.shutdownNow();
+		}
+	}
+
+	/**
+	 * Method to know if a book may exist before querying the DB
+	 * @param isbn the unique key identifier of the book
+	 * @return false if the book is definitely not in the system, true if it may be (or the filter is not built)
+	 */
+	public boolean mightExist(String isbn) {
+		IsbnBloomFilter current = filter;
+		if (current == null || current.mightContain(isbn)) {
+			return true;
+		}
+		avoidedCounter.increment();
+		return false;
+	}
+
+	/**
+	 * Method to add the ISBN of a book after it is inserted in the DB
+	 * @param isbn the unique key identifier of the book
+	 */
+	public synchronized void add(String isbn) {
+		if (filter != null) {
+			filter.add(isbn);
+		}
+		if (building != null) {
+			building.add(isbn);
+		}
+	}
+
+	/**
+	 * Method to know if the filter is guarding the lookups
+	 * @return true once the first build has finished
+	 */
+	public boolean isReady() {
+		return filter != null;
+	}
+
+	/**
+	 * Auxiliary method that builds a new filter with every ISBN of the DB, page by page, and replaces the current
+	 * one. A failed build keeps the current filter
+	 */
+	private void build() {
+		IsbnBloomFilter next = new IsbnBloomFilter(expectedIsbns, falsePositiveRate);
+		synchronized (this) {
+			building = next;
+		}
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "success";
+		long loaded = 0;
+		try {
+			String after = null;
+			List<String> page;
+			do {
+				page = bookRepository.findIsbnPage(after, loadPageSize);
+				page.forEach(next::add);
+				loaded += page.size();
+				after = page.isEmpty() ? after : page.get(page.size() - 1);
+			} while (page.size() == loadPageSize);
+			synchronized (this) {
+				filter = next;
+			}
+		} catch (RuntimeException e) {// the periodic build must not stop
+			outcome = e instanceof DataAccessException ? "failure" : "error";
+			logger.warn("Unable to build the ISBN filter after {} ISBNs", loaded, e);
+		}
+		synchronized (this) {
+			building = null;
+		}
+		long nanos = sample.stop(Timer.builder("isbn.filter.build")
+				.description("Time to build the ISBN filter from the DB")
+				.tag("outcome", outcome)
+				.register(meterRegistry));
+		if (outcome.equals("success")) {
+			logger.info("ISBN filter built with {} ISBNs in {}ms", loaded, nanos / 1_000_000);
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import edu.cmu.andrew.application.business.dto.RecommendedBookDTO;
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.persistence.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+* <h1>Local Recommendation Service</h1>
+*
+* In-process recommender computed from the catalog, a RelatedBooksIndex of the books (same author, same genre and
+* similar description). Once the application is ready the index is loaded in background walking the catalog with
+* the export cursor and the related books of every book are computed, then the writes of the service (add, update
+* and import) index the new state of every book they store.
+*
+* bookstore.recommendations.local.mode tells how the RecommendationEngineService uses it: "fallback" answers from
+* the index when the recommendation engine is unavailable (circuit open, bulkhead full, timeout or error) instead
+* of 503/504, "primary" answers every request from the index without calling the engine, "off" does not build it.
+* The answers of the index carry the header X-Recommendations-Source: local; in fallback mode a book that is not
+* indexed (yet) keeps the error status of the engine, in primary mode it is 503 with Retry-After while the initial
+* load runs and 404 once it is loaded.
+*
+* Metrics: the gauge "recommendations.local.books", the counter "recommendations.local" tagged with the mode of
+* the answers served and the timer "recommendations.local.build" tagged with its outcome.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Service
+public class LocalRecommendationService {
+
+	private static final Logger logger = LoggerFactory.getLogger(LocalRecommendationService.class);
+
+	public static final String SOURCE_HEADER = "X-Recommendations-Source";
+	public static final String LOCAL = "local";
+	public static final String FALLBACK = "fallback";
+	public static final String PRIMARY = "primary";
+	public static final String OFF = "off";
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${bookstore.recommendations.local.mode:fallback}")
+	private String mode;
+
+	@Value("${bookstore.recommendations.local.weight.author:3}")
+	private float authorWeight;
+
+	@Value("${bookstore.recommendations.local.weight.genre:1}")
+	private float genreWeight;
+
+	@Value("${bookstore.recommendations.local.weight.description:2}")
+	private float descriptionWeight;
+
+	@Value("${bookstore.recommendations.local.size:5}")
+	private int size;
+
+	@Value("${bookstore.recommendations.local.max-term-books:200}")
+	private int maxTermBooks;
+
+	@Value("${bookstore.recommendations.local.retry-after:5s}")
+	private Duration retryAfter;
+
+	@Value("${bookstore.export.fetch-size:" + Integer.MIN_VALUE + "}")
+	private int fetchSize;
+
+	private RelatedBooksIndex index;
+	private volatile boolean loaded;// the initial load finished, every book of the catalog is indexed
+
+	/**
+	 * Builds the empty index once the configuration values are injected and binds its gauge to the meter registry
+	 */
+	@PostConstruct
+	public void init() {
+		if (!List.of(FALLBACK, PRIMARY, OFF).contains(mode)) {
+			throw new IllegalArgumentException("Unknown bookstore.recommendations.local.mode " + mode);
+		}
+		index = new RelatedBooksIndex(authorWeight, genreWeight, descriptionWeight, size, maxTermBooks);
+		Gauge.builder("recommendations.local.books", index, RelatedBooksIndex::books)
+				.description("Books in the local recommendation index")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Starts the initial load of the index without holding the startup of the application
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void startLoad() {
+		if (mode.equals(OFF)) {
+			return;
+		}
+		Thread loader = new Thread(this::load, "related-books-load");
+		loader.setDaemon(true);
+		loader.start();
+	}
+
+	/**
+	 * Method to index the current state of a book after it is written in the DB
+	 * @param book the book instance that was stored in the system
+	 */
+	public void index(Book book) {
+		if (!mode.equals(OFF)) {
+			index.index(book);
+		}
+	}
+
+	/**
+	 * Method to know if every request is answered from the index
+	 * @return true in primary mode
+	 */
+	public boolean isPrimary() {
+		return mode.equals(PRIMARY);
+	}
+
+	/**
+	 * Method to know if the index answers when the recommendation engine is unavailable
+	 * @return true in fallback mode
+	 */
+	public boolean isFallback() {
+		return mode.equals(FALLBACK);
+	}
+
+	/**
+	 * Method to know if the initial load indexed the catalog
+	 * @return true once every book of the DB is indexed
+	 */
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	/**
+	 * Method to answer the related books of a book in primary mode
+	 * @param isbn the book to get recommendations from
+	 * @return a response entity with the related books and the header X-Recommendations-Source: local, 503 with
+	 *         Retry-After if the book is not indexed while the initial load runs, 404 if it is not in the catalog
+	 */
+	public ResponseEntity<List<RecommendedBookDTO>> getPrimaryRecommendation(String isbn) {
+		if (loaded) {
+			return getRecommendation(isbn, HttpStatus.NOT_FOUND);
+		}
+		ResponseEntity<List<RecommendedBookDTO>> response = getRecommendation(isbn, HttpStatus.SERVICE_UNAVAILABLE);
+		if (response.getStatusCode() != HttpStatus.SERVICE_UNAVAILABLE) {
+			return response;
+		}
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter.toSeconds())));
+		return new ResponseEntity<List<RecommendedBookDTO>>(headers, HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
+	/**
+	 * Method to get the related books of a book from the index
+	 * @param isbn the book to get recommendations from
+	 * @param otherwise the status returned if the book is not indexed
+	 * @return a response entity with the related books and the header X-Recommendations-Source: local, or an
+	 *         empty one with the given status
+	 */
+	public ResponseEntity<List<RecommendedBookDTO>> getRecommendation(String isbn, HttpStatus otherwise) {
+		List<RecommendedBookDTO> books = index.related(isbn);
+		if (books == null) {
+			return new ResponseEntity<List<RecommendedBookDTO>>(otherwise);
+		}
+		Counter.builder("recommendations.local")
+				.description("Related books answered from the local index")
+				.tag("mode", mode)
+				.register(meterRegistry)
+				.increment();
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(SOURCE_HEADER, LOCAL);
+		return new ResponseEntity<List<RecommendedBookDTO>>(books, headers, HttpStatus.OK);
+	}
+
+	/**
+	 * Auxiliary method that loads every book of the DB and computes their related books
+	 */
+	private void load() {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "success";
+		long books = 0;
+		try {
+			books = bookRepository.forEachBook(null, fetchSize, index::indexIfAbsent);
+			loaded = true;
+			index.computeAll();
+		} catch (RuntimeException e) {
+			outcome = "failure";
+			logger.error("Unable to load the related books index", e);
+		}
+		long nanos = sample.stop(Timer.builder("recommendations.local.build")
+				.description("Time to load the local recommendation index from the DB")
+				.tag("outcome", outcome)
+				.register(meterRegistry));
+		if (outcome.equals("success")) {
+			logger.info("Related books index loaded with {} books in {}ms", books, nanos / 1_000_000);
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import edu.cmu.andrew.application.business.dto.RecommendedBookDTO;
+import edu.cmu.andrew.application.persistence.RelatedBookRepository.RelatedBooks;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+* <h1>Recommendation Cache Service</h1>
+*
+* Stale-while-revalidate cache in front of the RecommendationEngineService. Every entry has a soft TTL and a
+* hard TTL: an entry younger than the soft TTL is served directly, an entry between the soft and the hard TTL
+* is served right away while a single asynchronous refresh per ISBN calls the engine again. A failed refresh
+* (circuit open, timeout, error status) keeps the previous list, so while an entry is within its hard TTL the
+* end-user gets the cached list instead of a 503/504. Only a miss waits for the engine.
+*
+* Metrics: the cache statistics under the cache name "recommendations" (hit ratio), the timer
+* "recommendations.refresh" with the latency of every engine call tagged by outcome, and the timer
+* "recommendations.staleness" with the age of every stale entry served. Concurrent calls to the engine for
+* the same ISBN are collapsed with a SingleFlight named "recommendations".
+*
+* The answers of the LocalRecommendationService (header X-Recommendations-Source: local) are not cached, so the
+* lists of the engine are fetched again as soon as it is available. In its primary mode every request is answered
+* from the local index and the engine is not called.
+*
+* With the RelatedBooksPrecomputeService enabled a miss or a refresh reads the list stored in the table
+* RELATED_BOOK instead of calling the engine, only the books without a stored list wait for the engine (and the
+* list fetched is stored). Every list is answered with the moment it was fetched from the engine in the header
+* Last-Modified.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Service
+public class RecommendationCacheService {
+
+	@Autowired
+	private RecommendationEngineService recommendationEngineService;
+
+	@Autowired
+	private LocalRecommendationService localRecommendationService;
+
+	@Autowired
+	private RelatedBooksPrecomputeService relatedBooksPrecomputeService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${bookstore.recommendations.maximum-size:10000}")
+	private long maximumSize;
+
+	@Value("${bookstore.recommendations.soft-ttl:5m}")
+	private Duration softTtl;
+
+	@Value("${bookstore.recommendations.hard-ttl:1h}")
+	private Duration hardTtl;
+
+	private Cache<String, Entry> recommendations;
+
+	private Timer stalenessTimer;
+
+	private SingleFlight<String, ResponseEntity<List<RecommendedBookDTO>>> recommendationsFlight;
+
+	/**
+	 * Recommendations of a book, the moment they were cached and the moment they were fetched from the engine
+	 */
+	private static final class Entry {
+
+		private final List<RecommendedBookDTO> books;
+		private final long fetchedAt;
+		private final Instant lastModified;
+
+		private Entry(List<RecommendedBookDTO> books, long fetchedAt, Instant lastModified) {
+			this.books = books;
+			this.fetchedAt = fetchedAt;
+			this.lastModified = lastModified;
+		}
+
+		private long age() {
+			return System.nanoTime() - fetchedAt;
+		}
+
+		private ResponseEntity<List<RecommendedBookDTO>> toResponse() {
+			HttpHeaders headers = new HttpHeaders();
+			headers.setLastModified(lastModified);
+			return new ResponseEntity<List<RecommendedBookDTO>>(books, headers, HttpStatus.OK);
+		}
+	}
+
+	/**
+	 * Builds the cache once the configuration values are injected and binds its statistics to the meter registry
+	 */
+	@PostConstruct
+	public void init() {
+		recommendations = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(hardTtl)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, recommendations, "recommendations");
+		stalenessTimer = Timer.builder("recommendations.staleness")
+				.description("Age of the stale recommendations served while they are refreshed")
+				.register(meterRegistry);
+		recommendationsFlight = new SingleFlight<>("recommendations", meterRegistry);
+	}
+
+	/**
+	 * Method to get the recommendations of a book, only a miss waits for the engine. The calls to the engine run
+	 * in the bulkhead of the RecommendationEngineService, the calling thread is never blocked
+	 * @param isbn the book to get recommendations from
+	 * @return a CompletableFuture with the list of recommended books, on a miss with the engine unavailable the
+	 *         answer of the RecommendationEngineService fallback (the local related books or 503/504)
+	 */
+	public CompletableFuture<ResponseEntity<List<RecommendedBookDTO>>> getRecommendation(String isbn) {
+
+		if (localRecommendationService.isPrimary()) {
+			return CompletableFuture.completedFuture(localRecommendationService.getPrimaryRecommendation(isbn));
+		}
+		Entry entry = recommendations.getIfPresent(isbn);
+		if (entry == null) {
+			return fetch(isbn);
+		}
+		long age = entry.age();
+		if (age >= softTtl.toNanos()) {
+			stalenessTimer.record(age, TimeUnit.NANOSECONDS);
+			fetch(isbn);// refresh in background, the stale list is returned right away
+		}
+		return CompletableFuture.completedFuture(entry.toResponse());
+	}
+
+	/**
+	 * Auxiliary method that calls the engine and stores the result if it is successful, an unsuccessful result
+	 * leaves the current entry untouched. Concurrent misses and refreshes of the same ISBN share a single call
+	 * @param isbn the book to get recommendations from
+	 * @return the future response of the RecommendationEngineService
+	 */
+	private CompletableFuture<ResponseEntity<List<RecommendedBookDTO>>> fetch(String isbn) {
+		return recommendationsFlight.executeAsync(isbn, () -> call(isbn));
+	}
+
+	/**
+	 * Auxiliary method that reads the stored list of the book, or performs the call to the engine if there is none
+	 */
+	private CompletableFuture<ResponseEntity<List<RecommendedBookDTO>>> call(String isbn) {
+		if (relatedBooksPrecomputeService.isEnabled()) {
+			Optional<RelatedBooks> stored = relatedBooksPrecomputeService.find(isbn);
+			if (stored.isPresent()) {
+				Entry entry = new Entry(stored.get().getBooks(), System.nanoTime(), stored.get().getFetchedAt());
+				recommendations.put(isbn, entry);
+				return CompletableFuture.completedFuture(entry.toResponse());
+			}
+		}
+		long start = System.nanoTime();
+		return recommendationEngineService.getRecommendation(isbn).whenComplete((response, e) -> {
+			boolean success = e == null && response.getStatusCode().is2xxSuccessful()
+					&& !response.getHeaders().containsKey(LocalRecommendationService.SOURCE_HEADER);
+			record(start, success ? "success" : "failure");
+			if (success) {
+				recommendations.put(isbn, new Entry(response.getBody(), System.nanoTime(), Instant.now()));
+				if (relatedBooksPrecomputeService.isEnabled()) {
+					relatedBooksPrecomputeService.store(isbn, response.getBody() == null ? List.of() : response.getBody());
+				}
+			}
+		});
+	}
+
+	/**
+	 * Auxiliary method that records the latency of an engine call
+	 */
+	private void record(long start, String outcome) {
+		Timer.builder("recommendations.refresh")
+				.description("Latency of the calls to the recommendation engine")
+				.tag("outcome", outcome)
+				.register(meterRegistry)
+				.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+	}
+}
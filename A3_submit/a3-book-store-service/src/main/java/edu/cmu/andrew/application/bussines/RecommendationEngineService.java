@@ -1,20 +1,29 @@
 package edu.cmu.andrew.application.bussines;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import edu.cmu.andrew.application.business.dto.RecommendedBookDTO;
 import edu.cmu.andrew.application.rest.client.FeignRecommendationEngine;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
 
 /**
 * <h1>Recommendation Engine Service</h1>
 * 
 *  Service layer that controls the execution and invocation of the service recommendation engine, it also manages the circuiteBreaker status
+*  The blocking Feign call runs in the dedicated thread pool bulkhead "RecommendationEngine" (size and queue configured in
+*  application.yml), so a slow engine only uses that pool and never the web server threads. In the fallback mode of the
+*  LocalRecommendationService the fallbacks answer from the local index instead of 503/504
 *  
 * @author  Juan Carlos Villegas Montiel
 * @version 1.0
@@ -23,43 +32,77 @@ import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 @Service
 public class RecommendationEngineService {
 
+	private static final Logger logger = LoggerFactory.getLogger(RecommendationEngineService.class);
+
 	@Autowired
 	FeignRecommendationEngine feignRecommendationEngine;
+
+	@Autowired
+	LocalRecommendationService localRecommendationService;
 	
 	/**
-	 * Method that invokes the recommenation engine, note that is protected by a fallback method called "fallback" in case the engine service is unavailable
+	 * Method that invokes the recommenation engine asynchronously, note that is protected by a fallback method called "fallback" in case the engine service is unavailable,
+	 * the call is bounded by the time limiter and runs in the thread pool bulkhead
 	 * @param isbn the book to get recommendations from
-	 * @return a List of recommended books
+	 * @return a CompletableFuture with the List of recommended books
 	 */
 	@CircuitBreaker(name="CircuitBreakerService", fallbackMethod = "fallback")
-	public ResponseEntity<List<RecommendedBookDTO>> getRecommendation(String isbn) {
+	@TimeLimiter(name="RecommendationEngine")
+	@Bulkhead(name="RecommendationEngine", type=Bulkhead.Type.THREADPOOL)
+	public CompletableFuture<ResponseEntity<List<RecommendedBookDTO>>> getRecommendation(String isbn) {
 		
 		ResponseEntity<List<RecommendedBookDTO>> responseE = 
 				feignRecommendationEngine.getRecommendedTittles(isbn);
 		if(responseE.getStatusCode()==HttpStatus.NOT_FOUND) {
-			return new ResponseEntity<List<RecommendedBookDTO>>(HttpStatus.OK);
+			return CompletableFuture.completedFuture(new ResponseEntity<List<RecommendedBookDTO>>(HttpStatus.OK));
 		}else {
-			return responseE;
+			return CompletableFuture.completedFuture(responseE);
 		}
 	}
 	
 	/**
 	 * This is a fallback method that will execute only if the recommendation engine service is unavailable or it produced a timeout error previously causing that the circuit opens
+	 * @param isbn the book to get recommendations from
 	 * @param e the exception produced by the unsuccessful call to the third party service in this case the recommendation engine
-	 * @return a response entity with the error code 503, service unavailable
+	 * @return a response entity with the error code 503, service unavailable, or the local related books
+	 */
+	public CompletableFuture<ResponseEntity<List<RecommendedBookDTO>>> fallback(String isbn, CallNotPermittedException e) {		
+		logger.warn("Fall back for {}: {}", isbn, e.getMessage());
+        return CompletableFuture.completedFuture(unavailable(isbn, HttpStatus.SERVICE_UNAVAILABLE));
+    }
+	/**
+	 * This is a fallback method that will execute when the bulkhead is full (all its threads busy and its queue full)
+	 * @param isbn the book to get recommendations from
+	 * @param e the exception produced by the bulkhead rejecting the call
+	 * @return a response entity with the error code 503, service unavailable, or the local related books
 	 */
-	public ResponseEntity<List<RecommendedBookDTO>> fallback(CallNotPermittedException e) {		
-		System.out.println("Fall back:"+e.getMessage());
-        return new ResponseEntity<List<RecommendedBookDTO>>(HttpStatus.SERVICE_UNAVAILABLE);
+	public CompletableFuture<ResponseEntity<List<RecommendedBookDTO>>> fallback(String isbn, BulkheadFullException e) {		
+		logger.warn("Bulkhead full for {}: {}", isbn, e.getMessage());
+        return CompletableFuture.completedFuture(unavailable(isbn, HttpStatus.SERVICE_UNAVAILABLE));
     }
 	/**
 	 * This is a fallback method that will execute in the case of a general error with the circuit closed, it will handle the timeout in the close state
+	 * @param isbn the book to get recommendations from
 	 * @param e the exception produced by the unsuccessful call to the third party service in this case the recommendation engine
-	 * @return a response entity with the error code 504, service unavailable
+	 * @return a response entity with the error code 504, service unavailable, or the local related books
 	 */
-	public ResponseEntity<List<RecommendedBookDTO>> fallback(Exception e) {		
-		System.out.println("Catch error:"+e.getMessage());
-        return new ResponseEntity<List<RecommendedBookDTO>>(HttpStatus.GATEWAY_TIMEOUT);
+	public CompletableFuture<ResponseEntity<List<RecommendedBookDTO>>> fallback(String isbn, Exception e) {		
+		logger.warn("Catch error for {}: {}", isbn, e.getMessage());
+        return CompletableFuture.completedFuture(unavailable(isbn, HttpStatus.GATEWAY_TIMEOUT));
     }
+
+	/**
+	 * Auxiliary method that builds the answer when the engine is unavailable, the related books of the local index
+	 * in fallback mode or the error status
+	 * @param isbn the book to get recommendations from
+	 * @param status the error status of the failure
+	 * @return a response entity with the local related books or with the error status
+	 */
+	private ResponseEntity<List<RecommendedBookDTO>> unavailable(String isbn, HttpStatus status) {
+		if (localRecommendationService.isFallback()) {
+			return localRecommendationService.getRecommendation(isbn, status);
+		}
+		return new ResponseEntity<List<RecommendedBookDTO>>(status);
+	}
 	
 }
@@ -0,0 +1,482 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import edu.cmu.andrew.application.business.dto.RecommendedBookDTO;
+import edu.cmu.andrew.application.business.model.Book;
+
+/**
+* <h1>Related Books Index</h1>
+*
+* In-memory recommender over the catalog. Two books are related by the same author, the same genre and the
+* similarity of their descriptions: every book keeps its TERMS most distinctive description terms (TF-IDF with the
+* document frequencies at the time it is indexed, normalized) and the similarity of two books is the cosine of
+* those vectors. The score of a pair is the weighted sum of the three signals.
+*
+* The candidates of a book are the other books of its author and the books that share one of its description
+* terms, a term in more than maxTermBooks books is too common to find candidates (and weighs little). If there
+* are not enough candidates the list is filled with the latest books of the genre. The related books of every book
+* are computed once and kept, so a lookup only reads the list; writing a book drops the lists of the books of its
+* author and of its terms, which are computed again on their next lookup. The lists that only share the genre with
+* the book written are not recomputed until then. Lookups run in parallel under a read lock, writes and the
+* computation of a missing list take the write lock. The computation of every list after the initial load runs
+* under the read lock with a scratch of its own and only takes the write lock to publish a batch.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class RelatedBooksIndex {
+
+	private static final int TERMS = 8;
+	private static final int BATCH = 64;
+
+	private final float authorWeight;
+	private final float genreWeight;
+	private final float descriptionWeight;
+	private final int size;
+	private final int maxTermBooks;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<String, Integer> docIds = new HashMap<>();
+	private final Map<String, Docs> byAuthor = new HashMap<>();
+	private final Map<String, Docs> byGenre = new HashMap<>();
+	private final Map<String, Docs> byTerm = new HashMap<>();
+	private final Map<String, Integer> genreIds = new HashMap<>();
+	private String[] isbns = new String[16];
+	private String[] titles = new String[16];
+	private String[] authors = new String[16];
+	private String[] authorKeys = new String[16];
+	private String[] genreKeys = new String[16];
+	private int[] genres = new int[16];// the ids of the genres, compared without reading the strings
+	private String[][] terms = new String[16][];
+	private float[][] weights = new float[16][];
+	private int[][] related = new int[16][];// null until computed
+	private int maxDoc;
+	private long writes;// the writes to the index, a batch computed across a write is not published
+
+	private final Scratch lookup;// only used under the write lock
+	private final Scratch batch;// only used by computeAll
+
+	/**
+	 * Scratch of the computation of a list, a book is a candidate of the current computation if its mark is the
+	 * epoch
+	 */
+	private static final class Scratch {
+		private float[] scores = new float[16];
+		private int[] marks = new int[16];
+		private int epoch;
+		private final int[] candidateDocs;
+		private int candidates;
+
+		private Scratch(int maxCandidates) {
+			this.candidateDocs = new int[maxCandidates];
+		}
+
+		private void grow(int capacity) {
+			scores = Arrays.copyOf(scores, capacity);
+			marks = Arrays.copyOf(marks, capacity);
+		}
+	}
+
+	/**
+	 * Document numbers of the books of an author, a genre or a term, in the order they were indexed. The lists of
+	 * the terms also keep the weight of the term in every book, so scoring a candidate does not read the book
+	 */
+	private static final class Docs {
+		private final String key;
+		private int[] docs = new int[2];
+		private float[] weights = new float[2];
+		private int size;
+
+		private Docs(String key) {
+			this.key = key;
+		}
+
+		private void add(int doc) {
+			add(doc, 0);
+		}
+
+		private void add(int doc, float weight) {
+			if (size == docs.length) {
+				docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+				weights = Arrays.copyOf(weights, docs.length);
+			}
+			weights[size] = weight;
+			docs[size++] = doc;
+		}
+
+		private void remove(int doc) {
+			for (int i = 0; i < size; i++) {
+				if (docs[i] == doc) {
+					System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+					System.arraycopy(weights, i + 1, weights, i, size - i - 1);
+					size--;
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param authorWeight the score of a book of the same author
+	 * @param genreWeight the score of a book of the same genre
+	 * @param descriptionWeight the score of a book with the same description terms
+	 * @param size the number of related books kept per book
+	 * @param maxTermBooks the books a description term may have to be used to find candidates
+	 */
+	public RelatedBooksIndex(float authorWeight, float genreWeight, float descriptionWeight, int size,
+			int maxTermBooks) {
+		this.authorWeight = authorWeight;
+		this.genreWeight = genreWeight;
+		this.descriptionWeight = descriptionWeight;
+		this.size = size;
+		this.maxTermBooks = maxTermBooks;
+		this.lookup = new Scratch(maxTermBooks * (TERMS + 1) + size);
+		this.batch = new Scratch(maxTermBooks * (TERMS + 1) + size);
+	}
+
+	/**
+	 * Method to add a book to the index or replace the indexed version of it
+	 * @param book the current state of the book
+	 */
+	public void index(Book book) {
+		lock.writeLock().lock();
+		try {
+			add(book);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Method to add a book only if it is not indexed yet, used by the initial load so a book indexed by a
+	 * concurrent write is not replaced by the older version read from the DB
+	 * @param book the book read from the DB
+	 * @return true if the book was added
+	 */
+	public boolean indexIfAbsent(Book book) {
+		lock.writeLock().lock();
+		try {
+			if (docIds.containsKey(book.getIsbn())) {
+				return false;
+			}
+			add(book);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Method to get the related books of a book
+	 * @param isbn the unique key identifier of the book
+	 * @return the related books, the most related first, null if the book is not indexed
+	 */
+	public List<RecommendedBookDTO> related(String isbn) {
+		lock.readLock().lock();
+		try {
+			Integer doc = docIds.get(isbn);
+			if (doc == null) {
+				return null;
+			}
+			if (related[doc] != null) {
+				return toDTOs(related[doc]);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		lock.writeLock().lock();
+		try {
+			Integer doc = docIds.get(isbn);
+			if (related[doc] == null) {
+				related[doc] = compute(doc, lookup);
+			}
+			return toDTOs(related[doc]);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Method to compute the related books of every book that does not have them, used once the initial load
+	 * finishes. Every batch is computed under the read lock, so the lookups are not held, and published under the
+	 * write lock. A batch that crossed a write is dropped, its lists are computed on their next lookup
+	 * @return the number of lists computed
+	 */
+	public synchronized int computeAll() {
+		int computed = 0;
+		int[] docs = new int[BATCH];
+		int[][] lists = new int[BATCH][];
+		for (int from = 0;;) {
+			int count = 0;
+			long version;
+			lock.readLock().lock();
+			try {
+				if (from >= maxDoc) {
+					return computed;
+				}
+				version = writes;
+				for (; from < maxDoc && count < BATCH; from++) {
+					if (related[from] == null) {
+						docs[count] = from;
+						lists[count++] = compute(from, batch);
+					}
+				}
+			} finally {
+				lock.readLock().unlock();
+			}
+			lock.writeLock().lock();
+			try {
+				if (writes == version) {
+					for (int i = 0; i < count; i++) {
+						if (related[docs[i]] == null) {
+							related[docs[i]] = lists[i];
+							computed++;
+						}
+					}
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of books indexed
+	 */
+	public int books() {
+		lock.readLock().lock();
+		try {
+			return docIds.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Auxiliary method that indexes a book, a book already indexed keeps its document number. The caller holds
+	 * the write lock
+	 */
+	private void add(Book book) {
+		writes++;
+		Integer existing = docIds.get(book.getIsbn());
+		int doc;
+		if (existing != null) {
+			doc = existing;
+			unlink(doc);
+		} else {
+			if (maxDoc == isbns.length) {
+				grow(maxDoc + (maxDoc >> 1));
+			}
+			doc = maxDoc++;
+			docIds.put(book.getIsbn(), doc);
+		}
+		isbns[doc] = book.getIsbn();
+		titles[doc] = book.getTitle();
+		authors[doc] = book.getAuthor();
+		authorKeys[doc] = key(book.getAuthor());
+		genreKeys[doc] = key(book.getGenre());
+		genres[doc] = genreIds.computeIfAbsent(genreKeys[doc], (genre) -> genreIds.size());
+		describe(doc, book.getDescription());
+		link(doc);
+	}
+
+	/**
+	 * Auxiliary method that keeps the most distinctive terms of a description with their normalized TF-IDF
+	 */
+	private void describe(int doc, String description) {
+		Map<String, Integer> frequencies = new HashMap<>();
+		BookSearchIndex.tokens(description).forEach((token) -> frequencies.merge(token, 1, Integer::sum));
+		int books = docIds.size();
+		List<Map.Entry<String, Float>> scored = new ArrayList<>(frequencies.size());
+		for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+			Docs docs = byTerm.get(entry.getKey());
+			int df = (docs == null ? 0 : docs.size) + 1;
+			scored.add(Map.entry(entry.getKey(), (float) (entry.getValue() * Math.log(1 + (double) books / df))));
+		}
+		scored.sort(Map.Entry.<String, Float>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+		int kept = Math.min(TERMS, scored.size());
+		terms[doc] = new String[kept];
+		weights[doc] = new float[kept];
+		double norm = 0;
+		for (int i = 0; i < kept; i++) {
+			norm += scored.get(i).getValue() * scored.get(i).getValue();
+		}
+		for (int i = 0; i < kept; i++) {
+			terms[doc][i] = scored.get(i).getKey();
+			weights[doc][i] = norm == 0 ? 0 : (float) (scored.get(i).getValue() / Math.sqrt(norm));
+		}
+	}
+
+	/**
+	 * Auxiliary method that adds a book to the lists of its author, genre and terms and drops the related books
+	 * of the books it may be related to
+	 */
+	private void link(int doc) {
+		invalidate(doc);
+		Docs docs = byAuthor.computeIfAbsent(authorKeys[doc], Docs::new);
+		docs.add(doc);
+		authorKeys[doc] = docs.key;// every book of the list shares the key of the list
+		docs = byGenre.computeIfAbsent(genreKeys[doc], Docs::new);
+		docs.add(doc);
+		genreKeys[doc] = docs.key;
+		for (int i = 0; i < terms[doc].length; i++) {
+			docs = byTerm.computeIfAbsent(terms[doc][i], Docs::new);
+			docs.add(doc, weights[doc][i]);
+			terms[doc][i] = docs.key;
+		}
+	}
+
+	/**
+	 * Auxiliary method that removes a book from the lists of its author, genre and terms and drops the related
+	 * books of the books it was related to
+	 */
+	private void unlink(int doc) {
+		invalidate(doc);
+		remove(byAuthor, authorKeys[doc], doc);
+		remove(byGenre, genreKeys[doc], doc);
+		for (String term : terms[doc]) {
+			remove(byTerm, term, doc);
+		}
+	}
+
+	private void invalidate(int doc) {
+		related[doc] = null;
+		invalidate(byAuthor.get(authorKeys[doc]));
+		for (String term : terms[doc]) {
+			invalidate(byTerm.get(term));
+		}
+	}
+
+	private void invalidate(Docs docs) {
+		if (docs != null && docs.size <= maxTermBooks) {
+			for (int i = 0; i < docs.size; i++) {
+				related[docs.docs[i]] = null;
+			}
+		}
+	}
+
+	private static void remove(Map<String, Docs> lists, String key, int doc) {
+		Docs docs = lists.get(key);
+		if (docs != null) {
+			docs.remove(doc);
+			if (docs.size == 0) {
+				lists.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Auxiliary method that scores the candidates of a book and keeps the best ones, the caller holds the write
+	 * lock or, with the scratch of computeAll, the read lock
+	 */
+	private int[] compute(int doc, Scratch scratch) {
+		if (++scratch.epoch == 0) {// the marks of every book are stale once the counter wraps
+			Arrays.fill(scratch.marks, 0);
+			scratch.epoch = 1;
+		}
+		scratch.candidates = 0;
+		Docs sameAuthor = byAuthor.get(authorKeys[doc]);
+		if (sameAuthor != null && sameAuthor.size <= maxTermBooks) {
+			for (int i = 0; i < sameAuthor.size; i++) {
+				score(doc, sameAuthor.docs[i], authorWeight, scratch);
+			}
+		}
+		for (int t = 0; t < terms[doc].length; t++) {
+			Docs docs = byTerm.get(terms[doc][t]);
+			if (docs == null || docs.size > maxTermBooks) {
+				continue;
+			}
+			float weight = descriptionWeight * weights[doc][t];
+			for (int i = 0; i < docs.size; i++) {
+				score(doc, docs.docs[i], weight * docs.weights[i], scratch);
+			}
+		}
+		for (int i = 0; i < scratch.candidates; i++) {
+			int other = scratch.candidateDocs[i];
+			if (genres[other] == genres[doc]) {
+				scratch.scores[other] += genreWeight;
+			}
+		}
+		Docs sameGenre = byGenre.get(genreKeys[doc]);
+		for (int i = sameGenre.size - 1; i >= 0 && scratch.candidates < size; i--) {// the latest books of the genre
+			if (scratch.marks[sameGenre.docs[i]] != scratch.epoch) {
+				score(doc, sameGenre.docs[i], genreWeight, scratch);
+			}
+		}
+		return best(scratch);
+	}
+
+	/**
+	 * Auxiliary method that adds to the score of a candidate, the first score of a book makes it a candidate
+	 */
+	private static void score(int doc, int other, float score, Scratch scratch) {
+		if (other == doc) {
+			return;
+		}
+		if (scratch.marks[other] != scratch.epoch) {
+			scratch.marks[other] = scratch.epoch;
+			scratch.scores[other] = 0;
+			scratch.candidateDocs[scratch.candidates++] = other;
+		}
+		scratch.scores[other] += score;
+	}
+
+	/**
+	 * Auxiliary method that selects the size best candidates, the highest score first and the oldest book on ties
+	 */
+	private int[] best(Scratch scratch) {
+		int[] best = new int[Math.min(size, scratch.candidates)];
+		int kept = 0;
+		for (int i = 0; i < scratch.candidates; i++) {
+			int other = scratch.candidateDocs[i];
+			int position = kept;
+			while (position > 0 && better(other, best[position - 1], scratch.scores)) {
+				position--;
+			}
+			if (position < best.length) {
+				System.arraycopy(best, position, best, position + 1, Math.min(kept, best.length - 1) - position);
+				best[position] = other;
+				kept = Math.min(kept + 1, best.length);
+			}
+		}
+		return best;
+	}
+
+	private static boolean better(int doc, int other, float[] scores) {
+		return scores[doc] > scores[other] || (scores[doc] == scores[other] && doc < other);
+	}
+
+	private List<RecommendedBookDTO> toDTOs(int[] docs) {
+		List<RecommendedBookDTO> books = new ArrayList<>(docs.length);
+		for (int doc : docs) {
+			books.add(new RecommendedBookDTO(titles[doc], isbns[doc], authors[doc], null));
+		}
+		return books;
+	}
+
+	private void grow(int capacity) {
+		isbns = Arrays.copyOf(isbns, capacity);
+		titles = Arrays.copyOf(titles, capacity);
+		authors = Arrays.copyOf(authors, capacity);
+		authorKeys = Arrays.copyOf(authorKeys, capacity);
+		genreKeys = Arrays.copyOf(genreKeys, capacity);
+		genres = Arrays.copyOf(genres, capacity);
+		terms = Arrays.copyOf(terms, capacity);
+		weights = Arrays.copyOf(weights, capacity);
+		related = Arrays.copyOf(related, capacity);
+		lookup.grow(capacity);
+		batch.grow(capacity);
+	}
+
+	private static String key(String value) {
+		return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,320 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import edu.cmu.andrew.application.business.dto.RecommendedBookDTO;
+import edu.cmu.andrew.application.persistence.ReadWriteRoutingDataSource;
+import edu.cmu.andrew.application.persistence.RelatedBookRepository;
+import edu.cmu.andrew.application.persistence.RelatedBookRepository.RelatedBooks;
+import edu.cmu.andrew.application.rest.client.FeignRecommendationEngine;
+import feign.FeignException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+* <h1>Related Books Precompute Service</h1>
+*
+* Opt-in background job (bookstore.recommendations.precompute.enabled) that fetches the related books of the catalog
+* from the recommendation engine ahead of the requests and stores them in the table RELATED_BOOK, so the first view
+* of a book does not wait for the engine. The job makes at most bookstore.recommendations.precompute.rate calls per
+* second on its own thread, through the same circuit breaker ("CircuitBreakerService") as the requests: while it is
+* open the job does not call the engine.
+*
+* Every call takes the next ISBN of the refresh queue, a priority queue of the books whose stored list was read
+* after bookstore.recommendations.precompute.refresh-after, the hottest ones (count of the related-books path of
+* the HotKeyService when queued) first. With the queue empty the job walks the catalog in ISBN order fetching the
+* books never fetched or fetched before bookstore.recommendations.precompute.max-age, and starts the walk again
+* once it reaches the end.
+*
+* Metrics: the gauge "recommendations.precompute.queue" and the counter "recommendations.precompute" tagged with the
+* outcome of every ISBN taken (success, failure or rejected by the open circuit).
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Service
+public class RelatedBooksPrecomputeService {
+
+	private static final Logger logger = LoggerFactory.getLogger(RelatedBooksPrecomputeService.class);
+	private static final Duration IDLE = Duration.ofMinutes(1);// the longest pause of a walk that found nothing stale
+
+	@Autowired
+	private RelatedBookRepository relatedBookRepository;
+
+	@Autowired
+	private FeignRecommendationEngine feignRecommendationEngine;
+
+	@Autowired
+	private CircuitBreakerRegistry circuitBreakerRegistry;
+
+	@Autowired
+	private HotKeyService hotKeyService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${bookstore.recommendations.precompute.enabled:false}")
+	private boolean enabled;
+
+	@Value("${bookstore.recommendations.precompute.rate:5}")
+	private double rate;
+
+	@Value("${bookstore.recommendations.precompute.refresh-after:1h}")
+	private Duration refreshAfter;
+
+	@Value("${bookstore.recommendations.precompute.max-age:24h}")
+	private Duration maxAge;
+
+	@Value("${bookstore.recommendations.precompute.queue-capacity:10000}")
+	private int queueCapacity;
+
+	@Value("${bookstore.recommendations.precompute.page-size:1000}")
+	private int pageSize;
+
+	/**
+	 * An ISBN waiting in the refresh queue, its priority is the hot key count when it was queued
+	 */
+	private static final class Pending {
+		private final String isbn;
+		private final int priority;
+		private final long sequence;
+
+		private Pending(String isbn, int priority, long sequence) {
+			this.isbn = isbn;
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+	}
+
+	private final PriorityBlockingQueue<Pending> queue = new PriorityBlockingQueue<>(64,
+			Comparator.comparingInt((Pending pending) -> -pending.priority).thenComparingLong((pending) -> pending.sequence));
+
+	private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	// state of the catalog walk, only used by the job thread
+	private Iterator<String> page = List.<String>of().iterator();
+	private String cursor = "";
+	private boolean foundStale;
+	private long idleUntil = System.nanoTime();
+
+	private CircuitBreaker circuitBreaker;
+
+	private ScheduledExecutorService job;
+
+	/**
+	 * Validates the configuration, binds the gauge of the queue to the meter registry and creates the table
+	 */
+	@PostConstruct
+	public void init() {
+		if (rate <= 0) {
+			throw new IllegalArgumentException("bookstore.recommendations.precompute.rate must be positive");
+		}
+		circuitBreaker = circuitBreakerRegistry.circuitBreaker("CircuitBreakerService");
+		Gauge.builder("recommendations.precompute.queue", queued, Set::size)
+				.description("Books waiting for the refresh of their precomputed related books")
+				.register(meterRegistry);
+		if (enabled) {
+			try {
+				relatedBookRepository.createTable();
+			} catch (DataAccessException e) {
+				logger.error("Unable to create the table RELATED_BOOK", e);
+			}
+		}
+	}
+
+	/**
+	 * Starts the job once the application is ready
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		if (!enabled) {
+			return;
+		}
+		job = Executors.newSingleThreadScheduledExecutor((task) -> {
+			Thread thread = new Thread(task, "related-books-precompute");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long delay = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+		job.scheduleWithFixedDelay(this::precomputeNext, delay, delay, TimeUnit.NANOSECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (job != null) {
+			job.shutdownNow();
+		}
+	}
+
+	/**
+	 * Method to know if the related books are answered from the table
+	 * @return true if the job is enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Method to read the stored related books of a book, a list older than refresh-after is queued to be fetched
+	 * again with the priority of its hot key count
+	 * @param isbn the book to get recommendations from
+	 * @return the stored related books, empty if they were never fetched or the DB is unavailable
+	 */
+	public Optional<RelatedBooks> find(String isbn) {
+		Optional<RelatedBooks> stored;
+		try {
+			stored = relatedBookRepository.findById(isbn);
+		} catch (DataAccessException e) {
+			logger.warn("Unable to read the related books of {}", isbn, e);
+			return Optional.empty();
+		}
+		if (stored.isPresent() && stored.get().getFetchedAt().isBefore(Instant.now().minus(refreshAfter))) {
+			enqueue(isbn, hotKeyService.estimate(HotKeyService.RELATED_BOOKS, isbn));
+		}
+		return stored;
+	}
+
+	/**
+	 * Method to store the related books of a book fetched by a request
+	 * @param isbn the book the recommendations are of
+	 * @param books the list fetched from the engine
+	 */
+	public void store(String isbn, List<RecommendedBookDTO> books) {
+		try {
+			relatedBookRepository.save(isbn, books, Instant.now());
+		} catch (DataAccessException e) {
+			logger.warn("Unable to store the related books of {}", isbn, e);
+		}
+	}
+
+	/**
+	 * Auxiliary method that queues an ISBN to be refreshed, an ISBN already queued keeps its place and a full queue
+	 * drops it (the catalog walk refreshes it once it is older than max-age)
+	 */
+	private void enqueue(String isbn, int priority) {
+		if (queued.size() < queueCapacity && queued.add(isbn)) {
+			queue.offer(new Pending(isbn, priority, sequence.incrementAndGet()));
+		}
+	}
+
+	/**
+	 * Auxiliary method run by the job, fetches and stores the related books of the next ISBN unless the circuit is
+	 * open. An ISBN rejected by the circuit is queued again
+	 */
+	private void precomputeNext() {
+		if (circuitBreaker.getState() == CircuitBreaker.State.OPEN
+				|| circuitBreaker.getState() == CircuitBreaker.State.FORCED_OPEN) {
+			return;
+		}
+		Pending pending = queue.poll();
+		String isbn = null;
+		try {
+			if (pending != null) {
+				queued.remove(pending.isbn);
+				isbn = pending.isbn;
+			} else {
+				isbn = nextStale();
+			}
+			if (isbn == null) {
+				return;
+			}
+			String target = isbn;
+			List<RecommendedBookDTO> books = circuitBreaker.executeSupplier(() -> fetch(target));
+			relatedBookRepository.save(isbn, books, Instant.now());
+			count("success");
+		} catch (CallNotPermittedException e) {
+			enqueue(isbn, pending == null ? 0 : pending.priority);
+			count("rejected");
+		} catch (RuntimeException e) {
+			logger.warn("Unable to precompute the related books of {}", isbn, e);
+			count("failure");
+		}
+	}
+
+	/**
+	 * Auxiliary method that calls the engine, a book the engine does not know has no related books
+	 */
+	private List<RecommendedBookDTO> fetch(String isbn) {
+		try {
+			ResponseEntity<List<RecommendedBookDTO>> response = feignRecommendationEngine.getRecommendedTittles(isbn);
+			if (!response.getStatusCode().is2xxSuccessful()) {
+				throw new IllegalStateException("Recommendation engine answered " + response.getStatusCode());
+			}
+			return response.getBody() == null ? List.of() : response.getBody();
+		} catch (FeignException.NotFound e) {
+			return List.of();
+		}
+	}
+
+	/**
+	 * Auxiliary method that returns the next ISBN of the catalog walk, null when the walk is pausing
+	 */
+	private String nextStale() {
+		if (!page.hasNext()) {
+			if (System.nanoTime() - idleUntil < 0) {
+				return null;
+			}
+			List<String> isbns;
+			ReadWriteRoutingDataSource.pinToWriter(true);// a list stored by the job may not be on the replica yet
+			try {
+				isbns = relatedBookRepository.findStaleIsbnPage(cursor, Instant.now().minus(maxAge), pageSize);
+			} finally {
+				ReadWriteRoutingDataSource.pinToWriter(false);
+			}
+			if (isbns.isEmpty()) {
+				if (!foundStale) {
+					idleUntil = System.nanoTime() + Math.min(maxAge.toNanos(), IDLE.toNanos());
+				}
+				cursor = "";
+				foundStale = false;
+				return null;
+			}
+			foundStale = true;
+			cursor = isbns.get(isbns.size() - 1);
+			page = isbns.iterator();
+		}
+		return page.next();
+	}
+
+	/**
+	 * Auxiliary method that counts the outcome of an ISBN taken by the job
+	 */
+	private void count(String outcome) {
+		Counter.builder("recommendations.precompute")
+				.description("Related books fetched ahead of the requests")
+				.tag("outcome", outcome)
+				.register(meterRegistry)
+				.increment();
+	}
+}
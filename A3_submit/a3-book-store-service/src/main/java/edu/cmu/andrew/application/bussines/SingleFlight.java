@@ -0,0 +1,111 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+* <h1>Single Flight</h1>
+*
+* Collapses concurrent calls for the same key into one backend call. The first caller of a key runs the call,
+* every caller that arrives while it is in flight waits for it and gets the same result (or the same exception).
+* Nothing is kept once the call completes, caching is left to the caller. Asynchronous calls are collapsed the
+* same way with executeAsync, the key is in flight until the returned CompletableFuture completes.
+*
+* The counters "singleflight.calls" and "singleflight.saved" (tagged with the name of the flight) count the
+* backend calls executed and the calls avoided by sharing an in-flight result.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class SingleFlight<K, V> {
+
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final Counter calls;
+	private final Counter saved;
+
+	/**
+	 * @param name the name of the flight, used as tag of its counters
+	 * @param meterRegistry the registry where the counters are published
+	 */
+	public SingleFlight(String name, MeterRegistry meterRegistry) {
+		calls = Counter.builder("singleflight.calls")
+				.description("Backend calls executed")
+				.tag("name", name)
+				.register(meterRegistry);
+		saved = Counter.builder("singleflight.saved")
+				.description("Backend calls avoided by joining an in-flight call for the same key")
+				.tag("name", name)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Method that runs the call for the key, or joins the call already in flight for it
+	 * @param key the key that identifies identical calls
+	 * @param call the backend call
+	 * @return the result of the call shared by every concurrent caller of the key
+	 */
+	public V execute(K key, Supplier<V> call) {
+		CompletableFuture<V> mine = new CompletableFuture<>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+		if (existing != null) {
+			saved.increment();
+			try {
+				return existing.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw e;
+			}
+		}
+		calls.increment();
+		try {
+			V result = call.get();
+			mine.complete(result);
+			return result;
+		} catch (RuntimeException | Error e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, mine);
+		}
+	}
+
+	/**
+	 * Method that starts the asynchronous call for the key, or joins the call already in flight for it
+	 * @param key the key that identifies identical calls
+	 * @param call the backend call, it returns the future of the result
+	 * @return a future completed with the result of the call shared by every concurrent caller of the key
+	 */
+	public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+		CompletableFuture<V> mine = new CompletableFuture<>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+		if (existing != null) {
+			saved.increment();
+			return existing;
+		}
+		calls.increment();
+		CompletableFuture<V> started;
+		try {
+			started = call.get();
+		} catch (RuntimeException | Error e) {
+			started = CompletableFuture.failedFuture(e);
+		}
+		started.whenComplete((result, e) -> {
+			inFlight.remove(key, mine);
+			if (e != null) {
+				mine.completeExceptionally(e);
+			} else {
+				mine.complete(result);
+			}
+		});
+		return mine;
+	}
+}
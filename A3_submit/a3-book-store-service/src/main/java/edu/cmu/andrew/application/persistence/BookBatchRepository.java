@@ -0,0 +1,110 @@
+package edu.cmu.andrew.application.persistence;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.cmu.andrew.application.business.model.Book;
+
+/**
+* <h1>BookBatchRepository</h1>
+* 
+* JDBC repository for bulk writes to the table BOOK. JPA has no upsert and Book has an assigned ID, so every
+* save() runs a SELECT before the merge; this repository sends the rows as a single JDBC batch of
+* INSERT ... ON DUPLICATE KEY UPDATE statements instead, which the MySQL driver rewrites into multi-row
+* statements when the datasource URL has rewriteBatchedStatements=true
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Repository
+public class BookBatchRepository {
+
+	private static final String UPSERT_SQL = "INSERT INTO BOOK (ISBN, title, author, description, genre, price, quantity, version) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, 0) AS n "
+			+ "ON DUPLICATE KEY UPDATE title = n.title, author = n.author, description = n.description, "
+			+ "genre = n.genre, price = n.price, quantity = n.quantity, version = version + 1";
+
+	private static final String UPDATE_SQL = "UPDATE BOOK SET title = ?, author = ?, description = ?, genre = ?, price = ?, "
+			+ "quantity = ?, version = ? WHERE ISBN = ? AND version = ?";
+
+	private static final String FIND_SQL = "SELECT ISBN, title, author, description, genre, price, quantity, version "
+			+ "FROM BOOK WHERE ISBN IN (%s)";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Method to insert or update a chunk of books in one transaction using JDBC batching
+	 * @param books the books to be written, existing ISBNs are updated and new ISBNs are inserted
+	 */
+	@Transactional
+	public void upsertAll(List<Book> books) {
+		jdbcTemplate.batchUpdate(UPSERT_SQL, books, books.size(), (ps, book) -> {
+			ps.setString(1, book.getIsbn());
+			ps.setString(2, book.getTitle());
+			ps.setString(3, book.getAuthor());
+			ps.setString(4, book.getDescription());
+			ps.setString(5, book.getGenre());
+			ps.setDouble(6, book.getPrice());
+			ps.setInt(7, book.getQuantity());
+		});
+	}
+
+	/**
+	 * Method to update a chunk of existing books in one transaction using JDBC batching, every row is only updated
+	 * if it still has the version the new state was based on
+	 * @param books the new state of the books, including the version they will have once written
+	 * @param expectedVersions the version every book must have in the DB, in the same order as books
+	 * @return the number of rows updated for every book, 0 if the book was changed or deleted by another writer
+	 */
+	@Transactional
+	public int[] updateAll(List<Book> books, List<Long> expectedVersions) {
+		return jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				Book book = books.get(i);
+				ps.setString(1, book.getTitle());
+				ps.setString(2, book.getAuthor());
+				ps.setString(3, book.getDescription());
+				ps.setString(4, book.getGenre());
+				ps.setDouble(5, book.getPrice());
+				ps.setInt(6, book.getQuantity());
+				ps.setLong(7, book.getVersion());
+				ps.setString(8, book.getIsbn());
+				ps.setLong(9, expectedVersions.get(i));
+			}
+
+			@Override
+			public int getBatchSize() {
+				return books.size();
+			}
+		});
+	}
+
+	/**
+	 * Method to read the current rows of some books in a read-write transaction, so they come from the writer even
+	 * when the reader pool is enabled, used to get the change of another writer that the replica may not have yet
+	 * @param isbns the unique key identifiers of the books to be read
+	 * @return the books found, the deleted ones are missing
+	 */
+	@Transactional
+	public List<Book> findAllCurrent(Collection<String> isbns) {
+		String sql = String.format(FIND_SQL, String.join(", ", Collections.nCopies(isbns.size(), "?")));
+		return jdbcTemplate.query(sql, (rs, rowNum) -> {
+			Book book = new Book(rs.getString("ISBN"), rs.getString("title"), rs.getString("author"),
+					rs.getString("description"), rs.getString("genre"), rs.getDouble("price"), rs.getInt("quantity"));
+			book.setVersion(rs.getLong("version"));
+			return book;
+		}, isbns.toArray());
+	}
+}
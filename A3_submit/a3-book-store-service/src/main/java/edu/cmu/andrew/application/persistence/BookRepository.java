@@ -7,12 +7,13 @@ import edu.cmu.andrew.application.business.model.Book;
 /**
 * <h1>BookRepository</h1>
 * 
-* JPA repository to interact with the table BOOK using the ISBN String as PK, only use inhered methods for this implementation
+* JPA repository to interact with the table BOOK using the ISBN String as PK, it uses the inhered methods plus the
+* custom operations declared in BookRepositoryCustom
 *  
 * @author  Juan Carlos Villegas Montiel
 * @version 1.0
 * @since   2024-03-19
 */
-public interface BookRepository extends JpaRepository<Book, String>{
+public interface BookRepository extends JpaRepository<Book, String>, BookRepositoryCustom {
 
 }
@@ -0,0 +1,77 @@
+package edu.cmu.andrew.application.persistence;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Consumer;
+
+import edu.cmu.andrew.application.business.dto.GenreFacetDTO;
+import edu.cmu.andrew.application.business.model.Book;
+
+/**
+* <h1>BookRepositoryCustom</h1>
+* 
+* Custom operations of the BookRepository that are not covered by the inherited JPA methods
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public interface BookRepositoryCustom {
+
+	/**
+	 * Method to insert a new book with a single INSERT statement. Unlike save() it does not check if the ISBN
+	 * exists before writing, a duplicated ISBN is reported by the DB unique key
+	 * @param book the new book to be inserted
+	 * @throws org.springframework.dao.DataIntegrityViolationException if the ISBN already exists in the system
+	 */
+	public void insert(Book book);
+
+	/**
+	 * Method to read a page of the catalog with keyset (seek) pagination on the ISBN, the page starts right after
+	 * the given ISBN so no rows are skipped with OFFSET and every page costs the same
+	 * @param after the last ISBN of the previous page, null for the first page
+	 * @param genre optional genre filter, null to not filter
+	 * @param author optional author filter, null to not filter
+	 * @param limit the maximum number of books of the page
+	 * @return the books of the page ordered by ISBN
+	 */
+	public List<Book> findPage(String after, String genre, String author, int limit);
+
+	/**
+	 * Method to read a page of the ISBNs of the catalog with keyset pagination, only the PK index is read
+	 * @param after the last ISBN of the previous page, null for the first page
+	 * @param limit the maximum number of ISBNs of the page
+	 * @return the ISBNs of the page in ascending order
+	 */
+	public List<String> findIsbnPage(String after, int limit);
+
+	/**
+	 * Method to read the whole catalog in ISBN order through a forward-only cursor, the rows are fetched from the DB
+	 * as they are consumed and every book is detached once consumed, so the memory used does not depend on the size
+	 * of the catalog
+	 * @param after the ISBN to resume from (exclusive), null to read from the first book
+	 * @param fetchSize the JDBC fetch size of the cursor (Integer.MIN_VALUE to stream the rows with MySQL)
+	 * @param action the operation applied to every book, in ISBN order
+	 * @return the number of books read
+	 */
+	public long forEachBook(String after, int fetchSize, Consumer<Book> action);
+
+	/**
+	 * Method to count the books and the quantity in stock of every genre with a single GROUP BY query
+	 * @return the facet of every genre of the catalog
+	 */
+	public List<GenreFacetDTO> countByGenre();
+
+	/**
+	 * Method to take copies of many books out of stock in one transaction. Every line is a conditional UPDATE
+	 * (quantity >= copies) that decrements the row in the DB, the stock is never read and written back so
+	 * concurrent orders do not lose updates. The lines are applied in ISBN order so two orders always lock the
+	 * rows in the same order and can not deadlock
+	 * @param lines the copies to take of every ISBN
+	 * @return the genre of every book of the order
+	 * @throws InsufficientStockException if a book has fewer copies than requested or is not in the system, no
+	 *         line of the order is applied
+	 */
+	public Map<String, String> purchase(SortedMap<String, Integer> lines);
+}
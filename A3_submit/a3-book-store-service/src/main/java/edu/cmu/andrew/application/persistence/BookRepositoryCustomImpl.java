@@ -0,0 +1,151 @@
+package edu.cmu.andrew.application.persistence;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.cmu.andrew.application.business.dto.GenreFacetDTO;
+import edu.cmu.andrew.application.business.model.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+/**
+* <h1>BookRepositoryCustomImpl</h1>
+* 
+* JPA implementation of the custom operations of the BookRepository
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * The book is persisted (not merged) and flushed so the INSERT is executed inside this method and a duplicated
+	 * ISBN is translated to a DataIntegrityViolationException by the repository proxy
+	 */
+	@Override
+	@Transactional
+	public void insert(Book book) {
+		entityManager.persist(book);
+		entityManager.flush();
+	}
+
+	/**
+	 * The filters are only added to the query when present so the DB can seek on the PK (no filter) or on the
+	 * (genre, ISBN) and (author, ISBN) indexes declared in the Book entity
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Book> findPage(String after, String genre, String author, int limit) {
+		StringBuilder jpql = new StringBuilder("SELECT b FROM Book b WHERE 1 = 1");
+		if (after != null) {
+			jpql.append(" AND b.isbn > :after");
+		}
+		if (genre != null) {
+			jpql.append(" AND b.genre = :genre");
+		}
+		if (author != null) {
+			jpql.append(" AND b.author = :author");
+		}
+		jpql.append(" ORDER BY b.isbn");
+
+		TypedQuery<Book> query = entityManager.createQuery(jpql.toString(), Book.class);
+		if (after != null) {
+			query.setParameter("after", after);
+		}
+		if (genre != null) {
+			query.setParameter("genre", genre);
+		}
+		if (author != null) {
+			query.setParameter("author", author);
+		}
+		return query.setMaxResults(limit).getResultList();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<String> findIsbnPage(String after, int limit) {
+		TypedQuery<String> query = entityManager.createQuery(after == null
+				? "SELECT b.isbn FROM Book b ORDER BY b.isbn"
+				: "SELECT b.isbn FROM Book b WHERE b.isbn > :after ORDER BY b.isbn", String.class);
+		if (after != null) {
+			query.setParameter("after", after);
+		}
+		return query.setMaxResults(limit).getResultList();
+	}
+
+	/**
+	 * The result is a Hibernate forward-only scroll. The MySQL driver only streams it with the Integer.MIN_VALUE fetch
+	 * size, or with a positive one when the datasource URL has useCursorFetch=true; otherwise it reads the whole
+	 * result in memory
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public long forEachBook(String after, int fetchSize, Consumer<Book> action) {
+		TypedQuery<Book> query = entityManager.createQuery(after == null
+				? "SELECT b FROM Book b ORDER BY b.isbn"
+				: "SELECT b FROM Book b WHERE b.isbn > :after ORDER BY b.isbn", Book.class);
+		if (after != null) {
+			query.setParameter("after", after);
+		}
+		long read = 0;
+		try (Stream<Book> books = query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+				.setHint(HibernateHints.HINT_READ_ONLY, true)
+				.getResultStream()) {
+			for (Book book : (Iterable<Book>) books::iterator) {
+				action.accept(book);
+				entityManager.detach(book);
+				read++;
+			}
+		}
+		return read;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<GenreFacetDTO> countByGenre() {
+		return entityManager.createQuery("SELECT new edu.cmu.andrew.application.business.dto.GenreFacetDTO("
+				+ "b.genre, COUNT(b), SUM(b.quantity)) FROM Book b GROUP BY b.genre", GenreFacetDTO.class)
+				.getResultList();
+	}
+
+	/**
+	 * The version is increased with the quantity so the ETag of the book changes and an update based on the previous
+	 * state fails its optimistic lock. Only a failed line reads the stock, to tell a missing book from an empty one
+	 */
+	@Override
+	@Transactional
+	public Map<String, String> purchase(SortedMap<String, Integer> lines) {
+		for (Map.Entry<String, Integer> line : lines.entrySet()) {
+			int updated = entityManager.createQuery("UPDATE Book b SET b.quantity = b.quantity - :copies, "
+					+ "b.version = b.version + 1 WHERE b.isbn = :isbn AND b.quantity >= :copies")
+					.setParameter("copies", line.getValue())
+					.setParameter("isbn", line.getKey())
+					.executeUpdate();
+			if (updated == 0) {
+				List<Integer> available = entityManager
+						.createQuery("SELECT b.quantity FROM Book b WHERE b.isbn = :isbn", Integer.class)
+						.setParameter("isbn", line.getKey())
+						.getResultList();
+				throw new InsufficientStockException(line.getKey(), available.isEmpty() ? null : available.get(0));
+			}
+		}
+		Map<String, String> genres = new HashMap<>();
+		entityManager.createQuery("SELECT b.isbn, b.genre FROM Book b WHERE b.isbn IN :isbns", Object[].class)
+				.setParameter("isbns", lines.keySet())
+				.getResultList()
+				.forEach((row) -> genres.put((String) row[0], (String) row[1]));
+		return genres;
+	}
+}
@@ -0,0 +1,38 @@
+package edu.cmu.andrew.application.persistence;
+
+/**
+* <h1>InsufficientStockException</h1>
+* 
+* Exception thrown by BookRepository.purchase when a line of the order can not be served, the transaction of the
+* order is rolled back so none of its lines is applied
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class InsufficientStockException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String isbn;
+	private final Integer available;
+
+	/**
+	 * @param isbn the ISBN of the line that could not be served
+	 * @param available the copies in stock of the book, null if the ISBN is not in the system
+	 */
+	public InsufficientStockException(String isbn, Integer available) {
+		super(available == null ? "The ISBN " + isbn + " is not in the system"
+				: "Only " + available + " copies of the ISBN " + isbn + " are in stock");
+		this.isbn = isbn;
+		this.available = available;
+	}
+
+	public String getIsbn() {
+		return isbn;
+	}
+
+	public Integer getAvailable() {
+		return available;
+	}
+}
@@ -0,0 +1,132 @@
+package edu.cmu.andrew.application.persistence;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.cmu.andrew.application.business.dto.RecommendedBookDTO;
+
+/**
+* <h1>RelatedBookRepository</h1>
+*
+* JDBC repository of the table RELATED_BOOK, the related books of every book precomputed from the recommendation
+* engine. A row holds the whole list of a book as JSON with the moment it was fetched, so a list is replaced with a
+* single upsert and a book without recommendations is stored as an empty list. The table is created if missing.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Repository
+public class RelatedBookRepository {
+
+	private static final String CREATE_SQL = "CREATE TABLE IF NOT EXISTS RELATED_BOOK (ISBN VARCHAR(255) NOT NULL, "
+			+ "books TEXT NOT NULL, fetched_at TIMESTAMP(3) NOT NULL, PRIMARY KEY (ISBN))";
+
+	private static final String FIND_SQL = "SELECT books, fetched_at FROM RELATED_BOOK WHERE ISBN = ?";
+
+	private static final String UPSERT_SQL = "INSERT INTO RELATED_BOOK (ISBN, books, fetched_at) VALUES (?, ?, ?) "
+			+ "AS n ON DUPLICATE KEY UPDATE books = n.books, fetched_at = n.fetched_at";
+
+	private static final String STALE_SQL = "SELECT b.ISBN FROM BOOK b LEFT JOIN RELATED_BOOK r ON r.ISBN = b.ISBN "
+			+ "WHERE b.ISBN > ? AND (r.fetched_at IS NULL OR r.fetched_at < ?) ORDER BY b.ISBN LIMIT ?";
+
+	private static final TypeReference<List<RecommendedBookDTO>> BOOKS = new TypeReference<List<RecommendedBookDTO>>() {
+	};
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	/**
+	 * The related books of a book and the moment they were fetched from the engine
+	 */
+	public static final class RelatedBooks {
+
+		private final List<RecommendedBookDTO> books;
+		private final Instant fetchedAt;
+
+		public RelatedBooks(List<RecommendedBookDTO> books, Instant fetchedAt) {
+			this.books = books;
+			this.fetchedAt = fetchedAt;
+		}
+
+		public List<RecommendedBookDTO> getBooks() {
+			return books;
+		}
+
+		public Instant getFetchedAt() {
+			return fetchedAt;
+		}
+	}
+
+	/**
+	 * Method to create the table RELATED_BOOK if it does not exist
+	 */
+	public void createTable() {
+		jdbcTemplate.execute(CREATE_SQL);
+	}
+
+	/**
+	 * Method to read the stored related books of a book
+	 * @param isbn the book to get recommendations from
+	 * @return the related books, empty if they were never stored
+	 */
+	@Transactional(readOnly = true)
+	public Optional<RelatedBooks> findById(String isbn) {
+		return jdbcTemplate.query(FIND_SQL, (rs, row) -> new RelatedBooks(read(rs.getString(1)),
+				rs.getTimestamp(2).toInstant()), isbn).stream().findFirst();
+	}
+
+	/**
+	 * Method to store the related books of a book, replacing the previous ones
+	 * @param isbn the book to store recommendations of
+	 * @param books the list fetched from the engine
+	 * @param fetchedAt the moment the list was fetched
+	 */
+	@Transactional
+	public void save(String isbn, List<RecommendedBookDTO> books, Instant fetchedAt) {
+		try {
+			jdbcTemplate.update(UPSERT_SQL, isbn, objectMapper.writeValueAsString(books), Timestamp.from(fetchedAt));
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Unable to serialize the related books of " + isbn, e);
+		}
+	}
+
+	/**
+	 * Method to get the next ISBNs of the catalog whose related books were never fetched or were fetched before a
+	 * moment, in ISBN order. The join seeks on the primary keys of both tables, the catalog walk pins it to the
+	 * writer so the lists it just stored are not read stale from the replica
+	 * @param after the last ISBN of the previous page, empty for the first one
+	 * @param fetchedBefore the related books fetched before this moment are stale
+	 * @param limit the maximum number of ISBNs
+	 * @return the ISBNs of the page, fewer than limit at the end of the catalog
+	 */
+	@Transactional(readOnly = true)
+	public List<String> findStaleIsbnPage(String after, Instant fetchedBefore, int limit) {
+		return jdbcTemplate.queryForList(STALE_SQL, String.class, after, Timestamp.from(fetchedBefore), limit);
+	}
+
+	/**
+	 * Auxiliary method that reads the JSON list of a row
+	 */
+	private List<RecommendedBookDTO> read(String books) {
+		try {
+			return objectMapper.readValue(books, BOOKS);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Corrupted related books " + books, e);
+		}
+	}
+}
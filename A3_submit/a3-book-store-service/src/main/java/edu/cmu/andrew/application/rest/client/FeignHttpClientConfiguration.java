@@ -0,0 +1,90 @@
+package edu.cmu.andrew.application.rest.client;
+
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration.HttpClientBuilderCustomizer;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
+/**
+* <h1>Feign HTTP transport configuration</h1>
+*
+*  Replaces the connection pool that Spring Cloud OpenFeign creates for the Apache HttpClient 5 transport with an
+*  InstrumentedPoolingConnectionManager. The pool is sized with the spring.cloud.openfeign.httpclient properties
+*  (max-connections, max-connections-per-route, time-to-live, hc5 policies), idle connections are closed after
+*  bookstore.feign.idle-timeout and a pooled connection is validated before reuse once it was idle for
+*  bookstore.feign.validate-after-inactivity. Connect and read timeouts are set per client with the
+*  spring.cloud.openfeign.client.config properties, below the time limiter of the circuit breaker.
+*
+*  When spring.cloud.openfeign.httpclient.hc5.enabled is false (to switch to the HTTP/2 client) this configuration
+*  is not loaded.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Configuration
+@ConditionalOnProperty(value = "spring.cloud.openfeign.httpclient.hc5.enabled", matchIfMissing = true)
+public class FeignHttpClientConfiguration {
+
+	@Value("${bookstore.feign.idle-timeout:30s}")
+	private Duration idleTimeout;
+
+	@Value("${bookstore.feign.validate-after-inactivity:2s}")
+	private Duration validateAfterInactivity;
+
+	/**
+	 * Connection pool used by every Feign client, its gauges are bound to the meter registry
+	 * @param properties the Spring Cloud OpenFeign HTTP client properties
+	 * @param meterRegistry the registry where the pool metrics are published
+	 * @return the instrumented connection pool
+	 */
+	@Bean
+	public HttpClientConnectionManager feignConnectionManager(FeignHttpClientProperties properties,
+			MeterRegistry meterRegistry) {
+		InstrumentedPoolingConnectionManager connectionManager = new InstrumentedPoolingConnectionManager(
+				RegistryBuilder.<ConnectionSocketFactory>create()
+						.register("http", PlainConnectionSocketFactory.getSocketFactory())
+						.register("https", SSLConnectionSocketFactory.getSocketFactory())
+						.build(),
+				PoolConcurrencyPolicy.valueOf(properties.getHc5().getPoolConcurrencyPolicy().name()),
+				PoolReusePolicy.valueOf(properties.getHc5().getPoolReusePolicy().name()),
+				TimeValue.of(properties.getTimeToLive(), properties.getTimeToLiveUnit()),
+				meterRegistry, "feign");
+		connectionManager.setMaxTotal(properties.getMaxConnections());
+		connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+		connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+				.setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectionTimeout()))
+				.setSocketTimeout(Timeout.of(properties.getHc5().getSocketTimeout(),
+						properties.getHc5().getSocketTimeoutUnit()))
+				.setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivity.toMillis()))
+				.build());
+		new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "feign").bindTo(meterRegistry);
+		return connectionManager;
+	}
+
+	/**
+	 * Closes the connections that stay idle in the pool longer than the idle timeout
+	 * @return the customizer applied to the Feign HttpClient builder
+	 */
+	@Bean
+	public HttpClientBuilderCustomizer feignIdleConnectionEviction() {
+		return (builder) -> builder.evictIdleConnections(TimeValue.ofMilliseconds(idleTimeout.toMillis()));
+	}
+}
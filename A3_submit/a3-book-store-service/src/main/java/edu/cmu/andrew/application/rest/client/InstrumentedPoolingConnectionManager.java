@@ -0,0 +1,104 @@
+package edu.cmu.andrew.application.rest.client;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.core5.http.config.Registry;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+* <h1>Instrumented connection pool</h1>
+*
+*  Apache HttpClient 5 connection pool that times how long a request waits to acquire a connection
+*  (httpcomponents.httpclient.pool.acquire, tagged by outcome) and how long a connection is leased before it is
+*  released back to the pool (httpcomponents.httpclient.pool.lease). The size, pending and available gauges of the
+*  pool are published by the Micrometer PoolingHttpClientConnectionManagerMetricsBinder under the same prefix.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class InstrumentedPoolingConnectionManager extends PoolingHttpClientConnectionManager {
+
+	private final MeterRegistry meterRegistry;
+	private final String name;
+	private final Timer leaseTimer;
+	private final Map<ConnectionEndpoint, Long> leasedAt = new ConcurrentHashMap<>();
+
+	public InstrumentedPoolingConnectionManager(Registry<ConnectionSocketFactory> socketFactoryRegistry,
+			PoolConcurrencyPolicy poolConcurrencyPolicy, PoolReusePolicy poolReusePolicy, TimeValue timeToLive,
+			MeterRegistry meterRegistry, String name) {
+		super(socketFactoryRegistry, poolConcurrencyPolicy, poolReusePolicy, timeToLive);
+		this.meterRegistry = meterRegistry;
+		this.name = name;
+		this.leaseTimer = Timer.builder("httpcomponents.httpclient.pool.lease")
+				.description("Time a connection is leased from the pool until it is released")
+				.tag("httpclient", name)
+				.register(meterRegistry);
+	}
+
+	@Override
+	public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+		LeaseRequest request = super.lease(id, route, requestTimeout, state);
+		return new LeaseRequest() {
+
+			@Override
+			public ConnectionEndpoint get(Timeout timeout)
+					throws InterruptedException, ExecutionException, TimeoutException {
+				long start = System.nanoTime();
+				String outcome = "failure";
+				try {
+					ConnectionEndpoint endpoint = request.get(timeout);
+					outcome = "success";
+					leasedAt.put(endpoint, System.nanoTime());
+					return endpoint;
+				} catch (TimeoutException e) {
+					outcome = "timeout";
+					throw e;
+				} finally {
+					recordAcquire(start, outcome);
+				}
+			}
+
+			@Override
+			public boolean cancel() {
+				return request.cancel();
+			}
+		};
+	}
+
+	@Override
+	public void release(ConnectionEndpoint endpoint, Object newState, TimeValue keepAlive) {
+		Long start = leasedAt.remove(endpoint);
+		if (start != null) {
+			leaseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+		super.release(endpoint, newState, keepAlive);
+	}
+
+	/**
+	 * Auxiliary method that records the time waited for a connection
+	 */
+	private void recordAcquire(long start, String outcome) {
+		Timer.builder("httpcomponents.httpclient.pool.acquire")
+				.description("Time waited to acquire a connection from the pool")
+				.tag("httpclient", name)
+				.tag("outcome", outcome)
+				.register(meterRegistry)
+				.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+	}
+}
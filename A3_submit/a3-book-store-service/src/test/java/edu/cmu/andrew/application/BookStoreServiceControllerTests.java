@@ -2,7 +2,29 @@ package edu.cmu.andrew.application;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -11,37 +33,81 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.cmu.andrew.application.business.dto.BookBatchRequestDTO;
 import edu.cmu.andrew.application.business.dto.BookDTO;
+import edu.cmu.andrew.application.business.dto.GenreFacetDTO;
+import edu.cmu.andrew.application.business.dto.PurchaseLineDTO;
+import edu.cmu.andrew.application.business.dto.PurchaseRequestDTO;
+import edu.cmu.andrew.application.business.dto.RecommendedBookDTO;
 import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.bussines.BookCacheService;
+import edu.cmu.andrew.application.persistence.BookBatchRepository;
 import edu.cmu.andrew.application.persistence.BookRepository;
+import edu.cmu.andrew.application.persistence.InsufficientStockException;
+import edu.cmu.andrew.application.rest.client.FeignRecommendationEngine;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * Test Class to validate isolated cases for BookStoreService controller class
  */
-@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "bookstore.recommendations.soft-ttl=0s")
 class BookStoreServiceControllerTests {
 
 	@MockBean
 	private BookRepository mockedBookRepository;
 
+	@MockBean
+	private BookBatchRepository mockedBookBatchRepository;
+
+	@MockBean
+	private FeignRecommendationEngine mockedFeignRecommendationEngine;
+
+	@Autowired
+	private CircuitBreakerRegistry circuitBreakerRegistry;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private BookCacheService bookCacheService;
+
 	@LocalServerPort
 	private int PORT;
 
+	@LocalManagementPort
+	private int MANAGEMENT_PORT;
+
 	@Autowired
 	private TestRestTemplate restTemplate;
 	private static String BASE_URL = "http://localhost:";
 	private static String ADD_BOOK_URL = "/books";
 	private static String UPDATE_BOOK_URL = "/books/";
 	private static String RETRIEVE_BOOK_URL = "/books/";
+	private static String BATCH_GET_BOOKS_URL = "/books/batch-get";
+	private static String IMPORT_BOOKS_URL = "/books/import";
+	private static String LIST_BOOKS_URL = "/books";
+	private static String SEARCH_BOOKS_URL = "/books/search?q=";
+	private static String SUGGEST_BOOKS_URL = "/books/suggest?prefix=";
+	private static String GENRE_FACETS_URL = "/books/facets/genre";
+	private static String REBUILD_GENRE_FACETS_URL = "/books/facets/genre/rebuild";
+	private static String PURCHASE_BOOKS_URL = "/books/purchase";
+	private static String HOT_BOOKS_URL = "/actuator/hotkeys/books";
+	private static String EXPORT_BOOKS_URL = "/books/export";
 	private final ObjectMapper objectMapper = new ObjectMapper();
 	private final String exampleISBN = "ISBN456777";
 	private final String exampleNonExistingISBN = "AAAAAAA1111";
@@ -51,6 +117,37 @@ class BookStoreServiceControllerTests {
 			100.55d, 10);
 	private final Optional<Book> bookResult = Optional.of(bookEntity);
 	private final Optional<Book> bookEmptyResult = Optional.empty();
+	private final String exampleCachedISBN = "ISBN900001";
+	private final String exampleCachedNonExistingISBN = "ISBN900002";
+	private final String exampleCachedUpdatedISBN = "ISBN900003";
+	private final String exampleSerializedISBN = "ISBN900004";
+	private final String exampleBatchISBN = "ISBN900005";
+	private final String exampleBatchNonExistingISBN = "ISBN900006";
+	private final String exampleConditionalISBN = "ISBN900007";
+	private final String exampleIfMatchISBN = "ISBN900008";
+	private final String exampleRecommendationISBN = "ISBN900009";
+	private final String exampleSingleFlightISBN = "ISBN900010";
+	private final String exampleSearchTitleISBN = "ISBN900011";
+	private final String exampleSearchDescriptionISBN = "ISBN900012";
+	private final String exampleSearchUpdatedISBN = "ISBN900013";
+	private final String exampleSuggestISBN = "ISBN900014";
+	private final String exampleSuggestSecondISBN = "ISBN900015";
+	private final String exampleFacetISBN = "ISBN900016";
+	private final String exampleFacetMovedISBN = "ISBN900017";
+	private final String examplePurchaseISBN = "ISBN900018";
+	private final String examplePurchaseSecondISBN = "ISBN900019";
+	private final String exampleHotISBN = "ISBN900020";
+	private final String exampleExportCheckpointISBN = "ISBN900021";
+	private final List<Book> exportedBooks = List.of(
+			new Book("ISBN900022", "Exports", "Streamer", "A book of exports", "technical", 10.00d, 1),
+			new Book("ISBN900023", "Cursors", "Streamer", "A book of cursors", "technical", 12.00d, 2));
+	private final String exampleLocalRecommendationISBN = "ISBN900024";
+	private final String exampleLocalRelatedISBN = "ISBN900025";
+	private final String exampleEnrichISBN = "ISBN900026";
+	private final String exampleEnrichStockedISBN = "ISBN900027";
+	private final String exampleEnrichNotStockedISBN = "ISBN900028";
+	private final String exampleFacetRaceISBN = "ISBN900029";
+	private final String exampleLoadRaceISBN = "ISBN900030";
 
 	/**
 	 * Test the positive case when a book is query it by it's ISBN and the response code is 200
@@ -162,12 +259,29 @@ class BookStoreServiceControllerTests {
 	@Test
 	void addBookShouldReturn422ForExistingISBN() {
 
-		Mockito.when(mockedBookRepository.findById(exampleISBN)).thenReturn(bookResult);
+		Mockito.doThrow(new DataIntegrityViolationException("Duplicate entry",
+				new SQLIntegrityConstraintViolationException("Duplicate entry", "23000", 1062))).when(mockedBookRepository)
+				.insert(Mockito.any(Book.class));
 		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, bookDTO,
 				String.class);
 		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
 	}
 
+	/**
+	 * Test the negative case when a book is tried to add and the DB rejects it for a reason other than a duplicate
+	 * ISBN (a value too long for its column), it is not reported as an existing ISBN
+	 */
+	@Test
+	void addBookShouldNotReturn422ForOtherIntegrityViolations() {
+
+		Mockito.doThrow(new DataIntegrityViolationException("Data too long",
+				new SQLException("Data too long for column 'title'", "22001", 1406))).when(mockedBookRepository)
+				.insert(Mockito.any(Book.class));
+		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, bookDTO,
+				String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+	}
+
 	/**
 	 * Test the negative case when a book is tried to add but the ISBN exists in the system already and return the erro message:
 	 * "This ISBN already exists in the system."
@@ -178,7 +292,9 @@ class BookStoreServiceControllerTests {
 	@Test
 	void addBookShouldReturnErrorMsgForExistingISBN() throws JsonMappingException, JsonProcessingException {
 
-		Mockito.when(mockedBookRepository.findById(exampleISBN)).thenReturn(bookResult);
+		Mockito.doThrow(new DataIntegrityViolationException("Duplicate entry",
+				new SQLIntegrityConstraintViolationException("Duplicate entry", "23000", 1062))).when(mockedBookRepository)
+				.insert(Mockito.any(Book.class));
 		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, bookDTO,
 				String.class);
 		JsonNode root = objectMapper.readTree(result.getBody());
@@ -340,4 +456,883 @@ class BookStoreServiceControllerTests {
 
 	}
 
+	/**
+	 * Test the positive case when a book is query it twice, the second read is served from the cache without querying the DB
+	 */
+	@Test
+	void getBookShouldBeServedFromCacheOnSecondRead() {
+
+		Book cachedBook = new Book(exampleCachedISBN, "SW Architecture", "Bass", "A book of SW", "technical", 100.55d, 10);
+		Mockito.when(mockedBookRepository.findById(exampleCachedISBN)).thenReturn(Optional.of(cachedBook));
+		ResponseEntity<String> result = this.restTemplate
+				.getForEntity(BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleCachedISBN, String.class);
+		ResponseEntity<String> result2 = this.restTemplate
+				.getForEntity(BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleCachedISBN, String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result2.getStatusCode()).isEqualTo(HttpStatus.OK);
+		Mockito.verify(mockedBookRepository, Mockito.times(1)).findById(exampleCachedISBN);
+	}
+
+	/**
+	 * Test the negative case when a non existing ISBN is query it twice, the 404 is cached as a negative entry and
+	 * the DB is queried only once
+	 */
+	@Test
+	void getBookShouldCacheNotFoundResults() {
+
+		Mockito.when(mockedBookRepository.findById(exampleCachedNonExistingISBN)).thenReturn(bookEmptyResult);
+		ResponseEntity<String> result = this.restTemplate
+				.getForEntity(BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleCachedNonExistingISBN, String.class);
+		ResponseEntity<String> result2 = this.restTemplate
+				.getForEntity(BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleCachedNonExistingISBN, String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(result2.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		Mockito.verify(mockedBookRepository, Mockito.times(1)).findById(exampleCachedNonExistingISBN);
+	}
+
+	/**
+	 * Test the positive case when a book is updated, the following read returns the updated data from the cache
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void getBookShouldReturnUpdatedBookAfterUpdate() throws JsonMappingException, JsonProcessingException {
+
+		Book cachedBook = new Book(exampleCachedUpdatedISBN, "SW Architecture", "Bass", "A book of SW", "technical",
+				100.55d, 10);
+		Mockito.when(mockedBookRepository.findById(exampleCachedUpdatedISBN)).thenReturn(Optional.of(cachedBook));
+		Mockito.when(mockedBookRepository.save(cachedBook)).thenReturn(cachedBook);
+		this.restTemplate.getForEntity(BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleCachedUpdatedISBN, String.class);
+
+		BookDTO updatedBook = new BookDTO(exampleCachedUpdatedISBN, "SW Architecture 2nd", "Bass", "A book of SW",
+				"technical", 120.00d, 5);
+		this.restTemplate.exchange(BASE_URL + PORT + UPDATE_BOOK_URL + exampleCachedUpdatedISBN, HttpMethod.PUT,
+				new HttpEntity<BookDTO>(updatedBook), String.class);
+		String result = this.restTemplate
+				.getForObject(BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleCachedUpdatedISBN, String.class);
+		JsonNode root = objectMapper.readTree(result);
+		assertThat(root.path("title").asText()).isEqualTo("SW Architecture 2nd");
+		assertThat(root.path("quantity").asInt()).isEqualTo(5);
+	}
+
+	/**
+	 * Test the positive case when a book is served from its pre-serialized JSON, the response is a JSON object
+	 * and null fields are not included
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void getBookShouldReturnPreSerializedJsonWithoutNullFields() throws JsonMappingException, JsonProcessingException {
+
+		Book bookWithoutDescription = new Book(exampleSerializedISBN, "SW Architecture", "Bass", null, "technical",
+				100.55d, 10);
+		Mockito.when(mockedBookRepository.findById(exampleSerializedISBN)).thenReturn(Optional.of(bookWithoutDescription));
+		ResponseEntity<String> result = this.restTemplate
+				.getForEntity(BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleSerializedISBN, String.class);
+		JsonNode root = objectMapper.readTree(result.getBody());
+
+		assertThat(result.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+		assertThat(root.path("ISBN").asText()).isEqualTo(exampleSerializedISBN);
+		assertThat(root.path("price").asDouble()).isEqualTo(100.55d);
+		assertThat(root.has("description")).isFalse();
+	}
+
+	/**
+	 * Test the positive case when many books are query it in a batch, the found books and the missing ISBNs are
+	 * returned and the DB is queried only once
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void getBooksShouldReturnFoundBooksAndMissingISBNs() throws JsonMappingException, JsonProcessingException {
+
+		Book batchBook = new Book(exampleBatchISBN, "SW Architecture", "Bass", "A book of SW", "technical", 100.55d, 10);
+		Mockito.when(mockedBookRepository.findAllById(Mockito.anyIterable())).thenReturn(List.of(batchBook));
+		BookBatchRequestDTO request = new BookBatchRequestDTO(
+				List.of(exampleBatchISBN, exampleBatchNonExistingISBN, exampleBatchISBN));
+		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + BATCH_GET_BOOKS_URL, request,
+				String.class);
+		JsonNode root = objectMapper.readTree(result.getBody());
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(root.path("books").size()).isEqualTo(1);
+		assertThat(root.path("books").get(0).path("ISBN").asText()).isEqualTo(exampleBatchISBN);
+		assertThat(root.path("missing").size()).isEqualTo(1);
+		assertThat(root.path("missing").get(0).asText()).isEqualTo(exampleBatchNonExistingISBN);
+		Mockito.verify(mockedBookRepository, Mockito.times(1)).findAllById(Mockito.anyIterable());
+		Mockito.verify(mockedBookRepository, Mockito.never()).findById(Mockito.anyString());
+	}
+
+	/**
+	 * Test the negative case when a batch request does not contain any ISBN and the service responds a 400 error code
+	 */
+	@Test
+	void getBooksShouldReturn400ForEmptyList() {
+
+		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + BATCH_GET_BOOKS_URL,
+				new BookBatchRequestDTO(List.of()), String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	/**
+	 * Test the positive case when a NDJSON feed is imported, the valid records are upserted in a single chunk and
+	 * every record gets its own result, including the invalid and malformed ones
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void importBooksShouldUpsertValidRecordsAndReportEveryRecord() throws JsonMappingException, JsonProcessingException {
+
+		String feed = """
+				{"ISBN":"ISBN910001","title":"T1","Author":"A1","description":"D1","genre":"fiction","price":10.5,"quantity":3}
+				{"ISBN":"ISBN910002","title":"T2","Author":"A2","description":"D2","genre":"fiction","price":10.555,"quantity":3}
+				{"ISBN":"ISBN910003",
+				{"ISBN":"ISBN910004","title":"T4","Author":"A4","description":"D4","genre":"fiction","price":12.0,"quantity":1}
+				""";
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + IMPORT_BOOKS_URL,
+				new HttpEntity<String>(feed, headers), String.class);
+		String[] lines = result.getBody().split("\n");
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(lines).hasSize(4);
+		assertThat(objectMapper.readTree(lines[0]).path("status").asText()).isEqualTo("UPSERTED");
+		assertThat(objectMapper.readTree(lines[1]).path("status").asText()).isEqualTo("INVALID");
+		assertThat(objectMapper.readTree(lines[1]).path("errors").has("price")).isTrue();
+		assertThat(objectMapper.readTree(lines[2]).path("status").asText()).isEqualTo("INVALID");
+		assertThat(objectMapper.readTree(lines[3]).path("ISBN").asText()).isEqualTo("ISBN910004");
+		assertThat(objectMapper.readTree(lines[3]).path("status").asText()).isEqualTo("UPSERTED");
+		Mockito.verify(mockedBookBatchRepository, Mockito.times(1)).upsertAll(Mockito.argThat((books) -> books.size() == 2));
+	}
+
+	/**
+	 * Test the positive case when a CSV feed with a header row is imported and its records are upserted
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void importBooksShouldAcceptCsvWithHeader() throws JsonMappingException, JsonProcessingException {
+
+		String feed = """
+				ISBN,title,Author,description,genre,price,quantity
+				ISBN910005,T5,A5,"D5, with comma",fiction,9.99,2
+				""";
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.parseMediaType("text/csv"));
+		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + IMPORT_BOOKS_URL,
+				new HttpEntity<String>(feed, headers), String.class);
+		JsonNode root = objectMapper.readTree(result.getBody());
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(root.path("ISBN").asText()).isEqualTo("ISBN910005");
+		assertThat(root.path("status").asText()).isEqualTo("UPSERTED");
+		Mockito.verify(mockedBookBatchRepository, Mockito.times(1)).upsertAll(Mockito.argThat(
+				(books) -> books.size() == 1 && books.get(0).getDescription().equals("D5, with comma")));
+	}
+
+	/**
+	 * Test the positive case when a book is added, the book is written with a single insert and there is no
+	 * previous query to validate the ISBN
+	 */
+	@Test
+	void addBookShouldInsertWithoutQueryingTheISBN() {
+
+		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, bookDTO,
+				String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		Mockito.verify(mockedBookRepository, Mockito.times(1)).insert(Mockito.any(Book.class));
+		Mockito.verify(mockedBookRepository, Mockito.never()).findById(Mockito.anyString());
+		Mockito.verify(mockedBookRepository, Mockito.never()).save(Mockito.any(Book.class));
+	}
+
+	/**
+	 * Test the positive case when a book is query it by it's ISBN, the response carries the ETag of the book
+	 * and a second request with that ETag in If-None-Match is answered with 304 and no body
+	 */
+	@Test
+	void getBookShouldReturn304ForMatchingIfNoneMatch() {
+
+		Book book = new Book(exampleConditionalISBN, "SW Architecture", "Bass", "A book of SW", "technical",
+				100.55d, 10);
+		book.setVersion(3L);
+		Mockito.when(mockedBookRepository.findById(exampleConditionalISBN)).thenReturn(Optional.of(book));
+		ResponseEntity<String> result = this.restTemplate
+				.getForEntity(BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleConditionalISBN, String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getHeaders().getETag()).isEqualTo("\"3\"");
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfNoneMatch("\"3\"");
+		ResponseEntity<String> notModified = this.restTemplate.exchange(
+				BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleConditionalISBN, HttpMethod.GET,
+				new HttpEntity<Void>(headers), String.class);
+		assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(notModified.getBody()).isNull();
+	}
+
+	/**
+	 * Test the negative case when a book is updated with an If-Match header that does not match the current
+	 * version of the book, the response code is 412 and the book is not written
+	 */
+	@Test
+	void updateBookShouldReturn412ForIfMatchMismatch() {
+
+		Book book = new Book(exampleIfMatchISBN, "SW Architecture", "Bass", "A book of SW", "technical",
+				100.55d, 10);
+		book.setVersion(5L);
+		Mockito.when(mockedBookRepository.findById(exampleIfMatchISBN)).thenReturn(Optional.of(book));
+		Mockito.when(mockedBookRepository.save(book)).thenReturn(book);
+		BookDTO newBook = new BookDTO(exampleIfMatchISBN, "SW Architecture", "Bass", "A book of SW", "technical",
+				90.00d, 10);
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfMatch("\"4\"");
+		ResponseEntity<String> result = this.restTemplate.exchange(BASE_URL + PORT + UPDATE_BOOK_URL + exampleIfMatchISBN,
+				HttpMethod.PUT, new HttpEntity<BookDTO>(newBook, headers), String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+		Mockito.verify(mockedBookRepository, Mockito.never()).save(Mockito.any(Book.class));
+
+		headers.setIfMatch("\"5\"");
+		ResponseEntity<String> result2 = this.restTemplate.exchange(BASE_URL + PORT + UPDATE_BOOK_URL + exampleIfMatchISBN,
+				HttpMethod.PUT, new HttpEntity<BookDTO>(newBook, headers), String.class);
+		assertThat(result2.getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
+	/**
+	 * Test the negative case when a concurrent update changes the book between the read and the write, the
+	 * optimistic lock fails and the response code is 412
+	 */
+	@Test
+	void updateBookShouldReturn412ForConcurrentUpdate() {
+
+		Mockito.when(mockedBookRepository.findById(exampleISBN)).thenReturn(bookResult);
+		Mockito.when(mockedBookRepository.save(bookEntity))
+				.thenThrow(new ObjectOptimisticLockingFailureException(Book.class, exampleISBN));
+		ResponseEntity<String> result = this.restTemplate.exchange(BASE_URL + PORT + UPDATE_BOOK_URL + exampleISBN,
+				HttpMethod.PUT, new HttpEntity<BookDTO>(bookDTO), String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+	}
+
+	/**
+	 * Test the positive case when the related books of a book were cached and the recommendation engine starts
+	 * failing, the cached list is returned with 200 instead of an error code (the soft TTL is 0 in this test
+	 * class so every cached entry is stale and refreshed in background)
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void getRelatedBooksShouldReturnCachedListWhenEngineFails() throws JsonMappingException, JsonProcessingException {
+
+		RecommendedBookDTO recommended = new RecommendedBookDTO();
+		recommended.setIsbn("ISBN123");
+		recommended.setTitle("SW Architecture 2nd");
+		Mockito.when(mockedFeignRecommendationEngine.getRecommendedTittles(exampleRecommendationISBN))
+				.thenReturn(new ResponseEntity<List<RecommendedBookDTO>>(List.of(recommended), HttpStatus.OK))
+				.thenThrow(new RuntimeException("Read timed out"));
+		try {
+			ResponseEntity<String> first = this.restTemplate.getForEntity(
+					BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleRecommendationISBN + "/related-books", String.class);
+			assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+			ResponseEntity<String> stale = this.restTemplate.getForEntity(
+					BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleRecommendationISBN + "/related-books", String.class);
+			assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.OK);
+			Mockito.verify(mockedFeignRecommendationEngine, Mockito.timeout(5000).times(2))
+					.getRecommendedTittles(exampleRecommendationISBN);
+
+			ResponseEntity<String> fallback = this.restTemplate.getForEntity(
+					BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleRecommendationISBN + "/related-books", String.class);
+			assertThat(fallback.getStatusCode()).isEqualTo(HttpStatus.OK);
+			JsonNode root = objectMapper.readTree(fallback.getBody());
+			assertThat(root.get(0).path("title").asText()).isEqualTo("SW Architecture 2nd");
+		} finally {
+			circuitBreakerRegistry.circuitBreaker("CircuitBreakerService").reset();
+		}
+	}
+
+	/**
+	 * Test the positive case when the related books of a book are not cached and the recommendation engine fails,
+	 * the related books are computed from the catalog by the local index (the book of the same author with a
+	 * similar description first) and returned with 200
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void getRelatedBooksShouldAnswerFromTheLocalIndexWhenEngineFails()
+			throws JsonMappingException, JsonProcessingException {
+
+		this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, new BookDTO(exampleLocalRecommendationISBN,
+				"Domain Modeling", "Evans", "A book of domain aggregates", "technical", 30.00d, 5), String.class);
+		this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, new BookDTO(exampleLocalRelatedISBN,
+				"Domain Aggregates", "Evans", "Designing aggregates of a domain", "technical", 25.00d, 5), String.class);
+		Mockito.when(mockedFeignRecommendationEngine.getRecommendedTittles(exampleLocalRecommendationISBN))
+				.thenThrow(new RuntimeException("Read timed out"));
+		try {
+			ResponseEntity<String> result = this.restTemplate.getForEntity(
+					BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleLocalRecommendationISBN + "/related-books",
+					String.class);
+
+			assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+			assertThat(result.getHeaders().getFirst("X-Recommendations-Source")).isEqualTo("local");
+			JsonNode root = objectMapper.readTree(result.getBody());
+			assertThat(root.get(0).path("isbn").asText()).isEqualTo(exampleLocalRelatedISBN);
+			assertThat(root.get(0).path("authors").asText()).isEqualTo("Evans");
+		} finally {
+			circuitBreakerRegistry.circuitBreaker("CircuitBreakerService").reset();
+		}
+	}
+
+	/**
+	 * Test the positive case when the related books are requested with enrich=true, the stocked book has its price
+	 * and quantity, the book that is not in the catalog is flagged and the catalog is queried once from the
+	 * application task executor, not from the bulkhead of the recommendation engine
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void getRelatedBooksEnrichedShouldHaveTheStockOfTheCatalog() throws JsonMappingException, JsonProcessingException {
+
+		Mockito.when(mockedFeignRecommendationEngine.getRecommendedTittles(exampleEnrichISBN))
+				.thenReturn(new ResponseEntity<List<RecommendedBookDTO>>(List.of(
+						new RecommendedBookDTO("Stocked", exampleEnrichStockedISBN, "Keeper", "Store"),
+						new RecommendedBookDTO("Not stocked", exampleEnrichNotStockedISBN, "Keeper", "Store")),
+						HttpStatus.OK));
+		List<String> queryingThreads = new ArrayList<>();
+		Mockito.when(mockedBookRepository.findAllById(Mockito.anyIterable())).thenAnswer((invocation) -> {
+			queryingThreads.add(Thread.currentThread().getName());
+			return List.of(
+					new Book(exampleEnrichStockedISBN, "Stocked", "Keeper", "A book in stock", "technical", 15.50d, 7));
+		});
+		ResponseEntity<String> result = this.restTemplate.getForEntity(
+				BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleEnrichISBN + "/related-books?enrich=true", String.class);
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		JsonNode root = objectMapper.readTree(result.getBody());
+		assertThat(root.get(0).path("stocked").asBoolean()).isTrue();
+		assertThat(root.get(0).path("price").asDouble()).isEqualTo(15.50d);
+		assertThat(root.get(0).path("quantity").asInt()).isEqualTo(7);
+		assertThat(root.get(1).path("stocked").asBoolean()).isFalse();
+		assertThat(root.get(1).has("price")).isFalse();
+		Mockito.verify(mockedBookRepository, Mockito.times(1)).findAllById(Mockito.anyIterable());
+		Mockito.verify(mockedBookRepository, Mockito.never()).findById(exampleEnrichStockedISBN);
+		assertThat(queryingThreads).singleElement().asString().startsWith("bookstore-task-");
+	}
+
+	/**
+	 * Test the positive case when many concurrent requests ask for the same book that is not cached, a single
+	 * query is sent to the DB and every request gets the book
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	void getBookShouldQueryOnceForConcurrentMisses() throws Exception {
+
+		Book book = new Book(exampleSingleFlightISBN, "SW Architecture", "Bass", "A book of SW", "technical",
+				100.55d, 10);
+		Mockito.when(mockedBookRepository.findById(exampleSingleFlightISBN)).thenAnswer((invocation) -> {
+			Thread.sleep(500);
+			return Optional.of(book);
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<ResponseEntity<String>>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> this.restTemplate
+						.getForEntity(BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleSingleFlightISBN, String.class)));
+			}
+			for (Future<ResponseEntity<String>> result : results) {
+				assertThat(result.get().getStatusCode()).isEqualTo(HttpStatus.OK);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		Mockito.verify(mockedBookRepository, Mockito.times(1)).findById(exampleSingleFlightISBN);
+	}
+
+	/**
+	 * Test the positive case when a book is written while a miss of it is reading the DB, the state written is
+	 * kept in the cache instead of the older row read by the miss
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	void bookWrittenDuringAMissShouldNotBeOverwritten() throws Exception {
+
+		Book read = new Book(exampleLoadRaceISBN, "SW Architecture", "Bass", "A book of SW", "technical", 100.55d, 10);
+		Book written = new Book(exampleLoadRaceISBN, "SW Architecture", "Bass", "A book of SW", "technical", 90.00d, 4);
+		CountDownLatch reading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Mockito.when(mockedBookRepository.findById(exampleLoadRaceISBN)).thenAnswer((invocation) -> {
+			reading.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return Optional.of(read);
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<ResponseEntity<String>> miss = executor.submit(() -> this.restTemplate
+					.getForEntity(BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleLoadRaceISBN, String.class));
+			assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+			Future<?> write = executor.submit(() -> bookCacheService.put(written));
+			Thread.sleep(200);
+			release.countDown();
+			assertThat(miss.get().getStatusCode()).isEqualTo(HttpStatus.OK);
+			write.get();
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(bookCacheService.getBook(exampleLoadRaceISBN).get().getQuantity()).isEqualTo(4);
+	}
+
+	/**
+	 * Test the positive case when the application starts, the Feign connection pool publishes its size and
+	 * pending acquire metrics with the configured limits
+	 */
+	@Test
+	void feignConnectionPoolShouldPublishMetrics() {
+
+		assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.max").tag("httpclient", "feign").gauge()
+				.value()).isEqualTo(50d);
+		assertThat(meterRegistry.get("httpcomponents.httpclient.pool.route.max.default").tag("httpclient", "feign")
+				.gauge().value()).isEqualTo(20d);
+		assertThat(meterRegistry.find("httpcomponents.httpclient.pool.total.pending").tag("httpclient", "feign")
+				.gauge()).isNotNull();
+	}
+
+	/**
+	 * Test the positive case when a page of the catalog is listed, the page is limited and the continuation token
+	 * is the ISBN of its last book, the repository is asked for one extra row to know there are more books
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void listBooksShouldReturnPageWithContinuationToken() throws JsonMappingException, JsonProcessingException {
+
+		Mockito.when(mockedBookRepository.findPage("ISBN000", "technical", null, 3)).thenReturn(List.of(
+				new Book("ISBN001", "SW Architecture", "Bass", "A book of SW", "technical", 100.55d, 10),
+				new Book("ISBN002", "SW Architecture", "Bass", "A book of SW", "technical", 100.55d, 10),
+				new Book("ISBN003", "SW Architecture", "Bass", "A book of SW", "technical", 100.55d, 10)));
+		ResponseEntity<String> result = this.restTemplate.getForEntity(
+				BASE_URL + PORT + LIST_BOOKS_URL + "?after=ISBN000&limit=2&genre=technical", String.class);
+		JsonNode root = objectMapper.readTree(result.getBody());
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(root.path("books").size()).isEqualTo(2);
+		assertThat(root.path("books").get(1).path("ISBN").asText()).isEqualTo("ISBN002");
+		assertThat(root.path("next").asText()).isEqualTo("ISBN002");
+	}
+
+	/**
+	 * Test the positive case when the last page of the catalog is listed and it does not have a continuation token
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void listBooksShouldNotReturnContinuationTokenForLastPage() throws JsonMappingException, JsonProcessingException {
+
+		Mockito.when(mockedBookRepository.findPage("ISBN002", null, null, 3)).thenReturn(List.of(
+				new Book("ISBN003", "SW Architecture", "Bass", "A book of SW", "technical", 100.55d, 10)));
+		ResponseEntity<String> result = this.restTemplate.getForEntity(
+				BASE_URL + PORT + LIST_BOOKS_URL + "?after=ISBN002&limit=2", String.class);
+		JsonNode root = objectMapper.readTree(result.getBody());
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(root.path("books").size()).isEqualTo(1);
+		assertThat(root.path("next").isMissingNode() || root.path("next").isNull()).isTrue();
+	}
+
+	/**
+	 * Test the negative case when the limit of a page is out of range and the service responds a 400 error code
+	 */
+	@Test
+	void listBooksShouldReturn400ForInvalidLimit() {
+
+		ResponseEntity<String> result = this.restTemplate.getForEntity(BASE_URL + PORT + LIST_BOOKS_URL + "?limit=0",
+				String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		result = this.restTemplate.getForEntity(BASE_URL + PORT + LIST_BOOKS_URL + "?limit=1001", String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	/**
+	 * Test the positive case when the added books are searched, both books match and the one with the term in the
+	 * title is ranked before the one with the term in the description
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void searchBooksShouldRankTitleMatchesFirst() throws JsonMappingException, JsonProcessingException {
+
+		this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, new BookDTO(exampleSearchDescriptionISBN,
+				"Brewing basics", "Papazian", "A guide to zymurgy at home", "technical", 20.00d, 5), String.class);
+		this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, new BookDTO(exampleSearchTitleISBN,
+				"Zymurgy explained", "Palmer", "A book about brewing", "technical", 25.00d, 5), String.class);
+		ResponseEntity<String> result = this.restTemplate.getForEntity(BASE_URL + PORT + SEARCH_BOOKS_URL + "Zymurgy",
+				String.class);
+		JsonNode root = objectMapper.readTree(result.getBody());
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(root.path("total").asLong()).isEqualTo(2);
+		assertThat(root.path("hits").get(0).path("ISBN").asText()).isEqualTo(exampleSearchTitleISBN);
+		assertThat(root.path("hits").get(1).path("ISBN").asText()).isEqualTo(exampleSearchDescriptionISBN);
+	}
+
+	/**
+	 * Test the positive case when an updated book is searched, only its new content is found
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void searchBooksShouldFindOnlyTheUpdatedContent() throws JsonMappingException, JsonProcessingException {
+
+		Book book = new Book(exampleSearchUpdatedISBN, "Quasar atlas", "Sagan", "A book of the sky", "technical",
+				30.00d, 5);
+		this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, new BookDTO(book), String.class);
+		Mockito.when(mockedBookRepository.findById(exampleSearchUpdatedISBN)).thenReturn(Optional.of(book));
+		Mockito.when(mockedBookRepository.save(book)).thenReturn(book);
+		this.restTemplate.exchange(BASE_URL + PORT + UPDATE_BOOK_URL + exampleSearchUpdatedISBN, HttpMethod.PUT,
+				new HttpEntity<BookDTO>(new BookDTO(exampleSearchUpdatedISBN, "Pulsar atlas", "Sagan",
+						"A book of the sky", "technical", 30.00d, 5)),
+				String.class);
+
+		JsonNode quasar = objectMapper.readTree(this.restTemplate
+				.getForEntity(BASE_URL + PORT + SEARCH_BOOKS_URL + "quasar", String.class).getBody());
+		JsonNode pulsar = objectMapper.readTree(this.restTemplate
+				.getForEntity(BASE_URL + PORT + SEARCH_BOOKS_URL + "pulsar", String.class).getBody());
+
+		assertThat(quasar.path("total").asLong()).isEqualTo(0);
+		assertThat(pulsar.path("total").asLong()).isEqualTo(1);
+		assertThat(pulsar.path("hits").get(0).path("title").asText()).isEqualTo("Pulsar atlas");
+	}
+
+	/**
+	 * Test the negative case when the query is empty and the service responds a 400 error code
+	 */
+	@Test
+	void searchBooksShouldReturn400ForEmptyQuery() {
+
+		ResponseEntity<String> result = this.restTemplate.getForEntity(BASE_URL + PORT + SEARCH_BOOKS_URL + " ",
+				String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	/**
+	 * Test the positive case when a prefix is suggested, the author of both added books is ranked before their
+	 * titles and the prefix matches regardless of case and accents
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void suggestBooksShouldRankByPopularity() throws JsonMappingException, JsonProcessingException {
+
+		this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, new BookDTO(exampleSuggestISBN,
+				"Vexillology basics", "Vexmore", "A book of flags", "technical", 20.00d, 5), String.class);
+		this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, new BookDTO(exampleSuggestSecondISBN,
+				"Vexing puzzles", "Vexmore", "A book of puzzles", "technical", 20.00d, 5), String.class);
+		ResponseEntity<String> result = this.restTemplate.getForEntity(BASE_URL + PORT + SUGGEST_BOOKS_URL + "VÉX",
+				String.class);
+		JsonNode suggestions = objectMapper.readTree(result.getBody()).path("suggestions");
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(suggestions.size()).isEqualTo(3);
+		assertThat(suggestions.get(0).path("text").asText()).isEqualTo("Vexmore");
+		assertThat(suggestions.get(0).path("type").asText()).isEqualTo("author");
+		assertThat(suggestions.get(0).path("weight").asInt()).isEqualTo(2);
+		assertThat(suggestions.get(1).path("text").asText()).isEqualTo("Vexillology basics");
+		assertThat(suggestions.get(2).path("text").asText()).isEqualTo("Vexing puzzles");
+	}
+
+	/**
+	 * Test the negative case when the prefix is empty and the service responds a 400 error code
+	 */
+	@Test
+	void suggestBooksShouldReturn400ForEmptyPrefix() {
+
+		ResponseEntity<String> result = this.restTemplate.getForEntity(BASE_URL + PORT + SUGGEST_BOOKS_URL,
+				String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	/**
+	 * Test the positive case when books are added and one of them is moved to another genre, the facets count
+	 * every book once in its current genre with its current quantity
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void getGenreFacetsShouldCountAddedAndUpdatedBooks() throws JsonMappingException, JsonProcessingException {
+
+		this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, new BookDTO(exampleFacetISBN, "Facet one",
+				"Facetson", "A book of facets", "facet-genre-a", 10.00d, 3), String.class);
+		this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, new BookDTO(exampleFacetMovedISBN,
+				"Facet two", "Facetson", "A book of facets", "facet-genre-a", 10.00d, 5), String.class);
+		Book movedBook = new Book(exampleFacetMovedISBN, "Facet two", "Facetson", "A book of facets",
+				"facet-genre-a", 10.00d, 5);
+		Mockito.when(mockedBookRepository.findById(exampleFacetMovedISBN)).thenReturn(Optional.of(movedBook));
+		Mockito.when(mockedBookRepository.save(movedBook)).thenReturn(movedBook);
+		this.restTemplate.exchange(BASE_URL + PORT + UPDATE_BOOK_URL + exampleFacetMovedISBN, HttpMethod.PUT,
+				new HttpEntity<BookDTO>(new BookDTO(exampleFacetMovedISBN, "Facet two", "Facetson",
+						"A book of facets", "facet-genre-b", 10.00d, 7)), String.class);
+		ResponseEntity<String> result = this.restTemplate.getForEntity(BASE_URL + PORT + GENRE_FACETS_URL,
+				String.class);
+		JsonNode genres = objectMapper.readTree(result.getBody()).path("genres");
+		JsonNode genreA = null;
+		JsonNode genreB = null;
+		for (JsonNode genre : genres) {
+			if (genre.path("genre").asText().equals("facet-genre-a")) {
+				genreA = genre;
+			} else if (genre.path("genre").asText().equals("facet-genre-b")) {
+				genreB = genre;
+			}
+		}
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(genreA.path("books").asLong()).isEqualTo(1);
+		assertThat(genreA.path("quantity").asLong()).isEqualTo(3);
+		assertThat(genreB.path("books").asLong()).isEqualTo(1);
+		assertThat(genreB.path("quantity").asLong()).isEqualTo(7);
+	}
+
+	/**
+	 * Test the positive case when the facets are rebuilt, the counts of the DB replace the counts in memory
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void rebuildGenreFacetsShouldReturnTheCountsOfTheDB() throws JsonMappingException, JsonProcessingException {
+
+		Mockito.when(mockedBookRepository.countByGenre()).thenReturn(List.of(
+				new GenreFacetDTO("facet-genre-fiction", 4L, 40L), new GenreFacetDTO("facet-genre-technical", 2L, 6L)));
+		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + REBUILD_GENRE_FACETS_URL,
+				null, String.class);
+		JsonNode genres = objectMapper.readTree(result.getBody()).path("genres");
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(genres.size()).isEqualTo(2);
+		assertThat(genres.get(0).path("genre").asText()).isEqualTo("facet-genre-fiction");
+		assertThat(genres.get(0).path("books").asLong()).isEqualTo(4);
+		assertThat(genres.get(1).path("quantity").asLong()).isEqualTo(6);
+	}
+
+	/**
+	 * Test the positive case when a book is added while the facets are rebuilt, the insert waits for the GROUP BY
+	 * query so the book is counted once, either by the query or by the add, never by both
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	void addBookDuringRebuildShouldBeCountedOnce() throws Exception {
+
+		AtomicLong inserted = new AtomicLong();
+		CountDownLatch counting = new CountDownLatch(1);
+		Mockito.doAnswer((invocation) -> inserted.incrementAndGet()).when(mockedBookRepository)
+				.insert(Mockito.argThat((book) -> book != null && exampleFacetRaceISBN.equals(book.getIsbn())));
+		Mockito.when(mockedBookRepository.countByGenre()).thenAnswer((invocation) -> {
+			counting.countDown();
+			Thread.sleep(500);// the add arrives while the DB is counted
+			return List.of(new GenreFacetDTO("facet-genre-race", inserted.get(), inserted.get() * 4));
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<ResponseEntity<String>> rebuild = executor.submit(() -> this.restTemplate
+					.postForEntity(BASE_URL + PORT + REBUILD_GENRE_FACETS_URL, null, String.class));
+			assertThat(counting.await(5, TimeUnit.SECONDS)).isTrue();
+			Future<ResponseEntity<String>> add = executor.submit(() -> this.restTemplate.postForEntity(
+					BASE_URL + PORT + ADD_BOOK_URL, new BookDTO(exampleFacetRaceISBN, "Facet race", "Facetson",
+							"A book of facets", "facet-genre-race", 10.00d, 4), String.class));
+			assertThat(rebuild.get().getStatusCode()).isEqualTo(HttpStatus.OK);
+			assertThat(add.get().getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		} finally {
+			executor.shutdown();
+		}
+		ResponseEntity<String> result = this.restTemplate.getForEntity(BASE_URL + PORT + GENRE_FACETS_URL,
+				String.class);
+		JsonNode race = null;
+		for (JsonNode genre : objectMapper.readTree(result.getBody()).path("genres")) {
+			if (genre.path("genre").asText().equals("facet-genre-race")) {
+				race = genre;
+			}
+		}
+
+		assertThat(race.path("books").asLong()).isEqualTo(1);
+		assertThat(race.path("quantity").asLong()).isEqualTo(4);
+	}
+
+	/**
+	 * Test the positive case when an order is purchased, the lines of the same ISBN are added up and sent in one
+	 * call ordered by ISBN, and the next read of a book loads its new quantity from the DB instead of the cache
+	 */
+	@Test
+	void purchaseBooksShouldDecrementStockOfEveryLine() {
+
+		Book purchasedBook = new Book(examplePurchaseISBN, "Stock keeping", "Ledger", "A book of stock", "technical",
+				15.00d, 10);
+		Mockito.when(mockedBookRepository.findById(examplePurchaseISBN)).thenReturn(Optional.of(purchasedBook));
+		this.restTemplate.getForEntity(BASE_URL + PORT + RETRIEVE_BOOK_URL + examplePurchaseISBN, String.class);
+		SortedMap<String, Integer> expectedLines = new TreeMap<>();
+		expectedLines.put(examplePurchaseISBN, 3);
+		expectedLines.put(examplePurchaseSecondISBN, 1);
+		Mockito.when(mockedBookRepository.purchase(expectedLines))
+				.thenReturn(Map.of(examplePurchaseISBN, "technical", examplePurchaseSecondISBN, "technical"));
+
+		PurchaseRequestDTO order = new PurchaseRequestDTO(List.of(new PurchaseLineDTO(examplePurchaseSecondISBN, 1),
+				new PurchaseLineDTO(examplePurchaseISBN, 2), new PurchaseLineDTO(examplePurchaseISBN, 1)));
+		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + PURCHASE_BOOKS_URL, order,
+				String.class);
+		this.restTemplate.getForEntity(BASE_URL + PORT + RETRIEVE_BOOK_URL + examplePurchaseISBN, String.class);
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		Mockito.verify(mockedBookRepository, Mockito.times(1)).purchase(expectedLines);
+		Mockito.verify(mockedBookRepository, Mockito.times(2)).findById(examplePurchaseISBN);
+	}
+
+	/**
+	 * Test the negative case when a book of the order has not enough copies and the service responds a 409 error
+	 * code, or a 404 error code when the book is not in the system
+	 */
+	@Test
+	void purchaseBooksShouldReturn409ForInsufficientStockAnd404ForUnknownISBN() {
+
+		Mockito.when(mockedBookRepository.purchase(Mockito.any()))
+				.thenThrow(new InsufficientStockException(examplePurchaseISBN, 1))
+				.thenThrow(new InsufficientStockException(exampleNonExistingISBN, null));
+		PurchaseRequestDTO order = new PurchaseRequestDTO(List.of(new PurchaseLineDTO(examplePurchaseISBN, 2)));
+
+		ResponseEntity<String> insufficient = this.restTemplate
+				.postForEntity(BASE_URL + PORT + PURCHASE_BOOKS_URL, order, String.class);
+		ResponseEntity<String> unknown = this.restTemplate.postForEntity(BASE_URL + PORT + PURCHASE_BOOKS_URL, order,
+				String.class);
+
+		assertThat(insufficient.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+		assertThat(unknown.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	/**
+	 * Test the negative case when a line of the order does not request at least one copy and the service responds
+	 * a 400 error code
+	 */
+	@Test
+	void purchaseBooksShouldReturn400ForInvalidQuantity() {
+
+		PurchaseRequestDTO order = new PurchaseRequestDTO(List.of(new PurchaseLineDTO(examplePurchaseISBN, 0)));
+		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + PURCHASE_BOOKS_URL, order,
+				String.class);
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		Mockito.verify(mockedBookRepository, Mockito.never()).purchase(Mockito.any());
+	}
+
+	/**
+	 * Test the positive case when a book is read many times, it is listed by the hotkeys actuator endpoint as the
+	 * most requested book
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void getBookShouldBeCountedAsHotKey() throws JsonMappingException, JsonProcessingException {
+
+		Mockito.when(mockedBookRepository.findById(exampleHotISBN)).thenReturn(bookEmptyResult);
+		for (int i = 0; i < 200; i++) {
+			this.restTemplate.getForEntity(BASE_URL + PORT + RETRIEVE_BOOK_URL + exampleHotISBN, String.class);
+		}
+		ResponseEntity<String> result = this.restTemplate.getForEntity(BASE_URL + MANAGEMENT_PORT + HOT_BOOKS_URL,
+				String.class);
+		JsonNode hotKeys = objectMapper.readTree(result.getBody());
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(hotKeys.get(0).path("key").asText()).isEqualTo(exampleHotISBN);
+		assertThat(hotKeys.get(0).path("count").asLong()).isGreaterThanOrEqualTo(200);
+	}
+
+	/**
+	 * Test the negative case when the actuator endpoints are requested on the port of the service (the one behind
+	 * the load balancer), they are only served on the management port and the service responds a 404 error code
+	 */
+	@Test
+	void actuatorShouldNotBeServedOnTheServicePort() {
+
+		ResponseEntity<String> hotKeys = this.restTemplate.getForEntity(BASE_URL + PORT + HOT_BOOKS_URL, String.class);
+		ResponseEntity<String> metrics = this.restTemplate.getForEntity(BASE_URL + PORT + "/actuator/metrics",
+				String.class);
+
+		assertThat(hotKeys.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(metrics.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	/**
+	 * Test the positive case when the catalog is exported from a checkpoint, the books after it are streamed as
+	 * NDJSON in ISBN order
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void exportBooksShouldStreamTheBooksAfterTheCheckpointAsNDJSON()
+			throws JsonMappingException, JsonProcessingException {
+
+		mockExport();
+		ResponseEntity<String> result = this.restTemplate.getForEntity(
+				BASE_URL + PORT + EXPORT_BOOKS_URL + "?after=" + exampleExportCheckpointISBN, String.class);
+		String[] lines = result.getBody().split("\n");
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getHeaders().getContentType().toString()).startsWith("application/x-ndjson");
+		assertThat(lines).hasSize(2);
+		assertThat(objectMapper.readTree(lines[0]).path("ISBN").asText()).isEqualTo("ISBN900022");
+		assertThat(objectMapper.readTree(lines[1]).path("ISBN").asText()).isEqualTo("ISBN900023");
+		assertThat(objectMapper.readTree(lines[1]).path("quantity").asInt()).isEqualTo(2);
+	}
+
+	/**
+	 * Test the positive case when the client accepts gzip, the exported books are compressed
+	 *
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	@Test
+	void exportBooksShouldBeCompressedWhenTheClientAcceptsGzip() throws IOException, InterruptedException {
+
+		mockExport();
+		HttpRequest request = HttpRequest.newBuilder(URI.create(
+				BASE_URL + PORT + EXPORT_BOOKS_URL + "?after=" + exampleExportCheckpointISBN))
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+				.build();
+		HttpResponse<byte[]> result = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+		String[] lines = new String(new GZIPInputStream(new ByteArrayInputStream(result.body())).readAllBytes(),
+				StandardCharsets.UTF_8).split("\n");
+
+		assertThat(result.statusCode()).isEqualTo(HttpStatus.OK.value());
+		assertThat(result.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+		assertThat(lines).hasSize(2);
+		assertThat(objectMapper.readTree(lines[0]).path("ISBN").asText()).isEqualTo("ISBN900022");
+	}
+
+	/**
+	 * Auxiliary method that mocks the cursor of the catalog after the export checkpoint
+	 */
+	private void mockExport() {
+		Mockito.doAnswer((invocation) -> {
+			Consumer<Book> action = invocation.getArgument(2);
+			exportedBooks.forEach(action);
+			return (long) exportedBooks.size();
+		}).when(mockedBookRepository).forEachBook(Mockito.eq(exampleExportCheckpointISBN), Mockito.anyInt(),
+				Mockito.any());
+	}
+
 }
@@ -0,0 +1,108 @@
+package edu.cmu.andrew.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import edu.cmu.andrew.application.business.dto.BookDTO;
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.bussines.IsbnFilterService;
+import edu.cmu.andrew.application.persistence.BookBatchRepository;
+import edu.cmu.andrew.application.persistence.BookRepository;
+import edu.cmu.andrew.application.rest.client.FeignRecommendationEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Test Class to validate the lookups of the BookStoreService controller class with the ISBN filter enabled, the
+ * filter is built once from the mocked repository (an empty catalog)
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = { "bookstore.isbn-filter.enabled=true",
+		"bookstore.isbn-filter.rebuild-interval=0s" })
+class BookStoreServiceIsbnFilterTests {
+
+	@MockBean
+	private BookRepository mockedBookRepository;
+
+	@MockBean
+	private BookBatchRepository mockedBookBatchRepository;
+
+	@MockBean
+	private FeignRecommendationEngine mockedFeignRecommendationEngine;
+
+	@Autowired
+	private IsbnFilterService isbnFilterService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@LocalServerPort
+	private int PORT;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	private static String BASE_URL = "http://localhost:";
+	private static String ADD_BOOK_URL = "/books";
+	private static String BOOK_URL = "/books/";
+	private final String exampleUnknownISBN = "ISBN910201";
+	private final String exampleAddedISBN = "ISBN910202";
+
+	@BeforeEach
+	void waitForTheFilter() throws InterruptedException {
+		for (int i = 0; i < 100 && !isbnFilterService.isReady(); i++) {
+			Thread.sleep(50);
+		}
+		assertThat(isbnFilterService.isReady()).isTrue();
+	}
+
+	/**
+	 * Test the negative case when an unknown ISBN is read and updated, the service responds a 404 error code
+	 * without querying the DB
+	 */
+	@Test
+	void unknownISBNShouldReturn404WithoutQueryingTheDB() {
+
+		double avoided = meterRegistry.get("isbn.filter.avoided").counter().count();
+		ResponseEntity<String> read = this.restTemplate.getForEntity(BASE_URL + PORT + BOOK_URL + exampleUnknownISBN,
+				String.class);
+		ResponseEntity<String> update = this.restTemplate.exchange(BASE_URL + PORT + BOOK_URL + exampleUnknownISBN,
+				HttpMethod.PUT, new HttpEntity<BookDTO>(new BookDTO(exampleUnknownISBN, "Ghost", "Nobody",
+						"A book that does not exist", "fiction", 10.00d, 1)), String.class);
+
+		assertThat(read.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(update.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		Mockito.verify(mockedBookRepository, Mockito.never()).findById(exampleUnknownISBN);
+		assertThat(meterRegistry.get("isbn.filter.avoided").counter().count()).isEqualTo(avoided + 2);
+	}
+
+	/**
+	 * Test the positive case when a book is added, the following update of its ISBN reaches the DB
+	 */
+	@Test
+	void addedISBNShouldReachTheDB() {
+
+		BookDTO book = new BookDTO(exampleAddedISBN, "Filters", "Bloom", "A book of filters", "technical", 10.00d, 1);
+		this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, book, String.class);
+		Book storedBook = new Book(exampleAddedISBN, "Filters", "Bloom", "A book of filters", "technical", 10.00d, 1);
+		Mockito.when(mockedBookRepository.findById(exampleAddedISBN)).thenReturn(Optional.of(storedBook));
+		Mockito.when(mockedBookRepository.save(storedBook)).thenReturn(storedBook);
+		ResponseEntity<String> update = this.restTemplate.exchange(BASE_URL + PORT + BOOK_URL + exampleAddedISBN,
+				HttpMethod.PUT, new HttpEntity<BookDTO>(book), String.class);
+
+		assertThat(update.getStatusCode()).isEqualTo(HttpStatus.OK);
+		Mockito.verify(mockedBookRepository, Mockito.times(1)).findById(exampleAddedISBN);
+	}
+}
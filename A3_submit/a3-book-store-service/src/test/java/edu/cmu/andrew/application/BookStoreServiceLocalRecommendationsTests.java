@@ -0,0 +1,109 @@
+package edu.cmu.andrew.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import edu.cmu.andrew.application.business.dto.BookDTO;
+import edu.cmu.andrew.application.business.dto.RecommendedBookDTO;
+import edu.cmu.andrew.application.bussines.LocalRecommendationService;
+import edu.cmu.andrew.application.persistence.BookBatchRepository;
+import edu.cmu.andrew.application.persistence.BookRepository;
+import edu.cmu.andrew.application.rest.client.FeignRecommendationEngine;
+
+/**
+ * Test Class to validate the related books of the BookStoreService controller class with the local index as the
+ * primary recommender, the index is loaded once from the mocked repository (an empty catalog)
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "bookstore.recommendations.local.mode=primary")
+class BookStoreServiceLocalRecommendationsTests {
+
+	@MockBean
+	private BookRepository mockedBookRepository;
+
+	@MockBean
+	private BookBatchRepository mockedBookBatchRepository;
+
+	@MockBean
+	private FeignRecommendationEngine mockedFeignRecommendationEngine;
+
+	@Autowired
+	private LocalRecommendationService localRecommendationService;
+
+	@LocalServerPort
+	private int PORT;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	private static String BASE_URL = "http://localhost:";
+	private static String ADD_BOOK_URL = "/books";
+	private static String BOOK_URL = "/books/";
+	private static String RELATED_BOOKS_URL = "/related-books";
+	private final String exampleUnknownISBN = "ISBN910601";
+	private final String exampleAddedISBN = "ISBN910602";
+	private final String exampleRelatedISBN = "ISBN910603";
+
+	@BeforeEach
+	void waitForTheIndex() throws InterruptedException {
+		for (int i = 0; i < 100 && !localRecommendationService.isLoaded(); i++) {
+			Thread.sleep(50);
+		}
+		assertThat(localRecommendationService.isLoaded()).isTrue();
+	}
+
+	/**
+	 * Test the negative case when the related books of a book that is not in the catalog are requested once the
+	 * index is loaded, the service responds a 404 error code without calling the recommendation engine
+	 */
+	@Test
+	void getRelatedBooksOfAnUnknownBookShouldReturn404() {
+
+		ResponseEntity<List<RecommendedBookDTO>> result = getRelatedBooks(exampleUnknownISBN);
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		Mockito.verify(mockedFeignRecommendationEngine, Mockito.never()).getRecommendedTittles(exampleUnknownISBN);
+	}
+
+	/**
+	 * Test the positive case when the related books of a book added after the load are requested, the service
+	 * responds them from the local index without calling the recommendation engine
+	 */
+	@Test
+	void getRelatedBooksOfAnAddedBookShouldBeAnsweredFromTheIndex() {
+
+		this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, new BookDTO(exampleAddedISBN,
+				"Domain Modeling", "Evans", "A book of domain aggregates", "technical", 30.00d, 5), String.class);
+		this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, new BookDTO(exampleRelatedISBN,
+				"Domain Aggregates", "Evans", "Designing aggregates of a domain", "technical", 25.00d, 5), String.class);
+		ResponseEntity<List<RecommendedBookDTO>> result = getRelatedBooks(exampleAddedISBN);
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getHeaders().getFirst("X-Recommendations-Source")).isEqualTo("local");
+		assertThat(result.getBody()).extracting(RecommendedBookDTO::getIsbn).containsExactly(exampleRelatedISBN);
+		Mockito.verify(mockedFeignRecommendationEngine, Mockito.never()).getRecommendedTittles(exampleAddedISBN);
+	}
+
+	/**
+	 * Auxiliary method that gets the related books of a book
+	 */
+	private ResponseEntity<List<RecommendedBookDTO>> getRelatedBooks(String isbn) {
+		return this.restTemplate.exchange(BASE_URL + PORT + BOOK_URL + isbn + RELATED_BOOKS_URL, HttpMethod.GET, null,
+				new ParameterizedTypeReference<List<RecommendedBookDTO>>() {
+				});
+	}
+}
@@ -0,0 +1,156 @@
+package edu.cmu.andrew.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import edu.cmu.andrew.application.business.dto.BookDTO;
+import edu.cmu.andrew.application.rest.client.FeignRecommendationEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Test Class to validate the routing of the BookStoreService reads with the reader pool enabled. Two in-memory
+ * databases stand in for the Aurora writer and reader endpoints, there is no replication between them so a book
+ * inserted in only one of them tells which pool served the read
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:writer;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true",
+		"spring.jpa.hibernate.ddl-auto=create",
+		"bookstore.datasource.reader.enabled=true",
+		"bookstore.datasource.reader.url=jdbc:h2:mem:reader;MODE=MySQL;DB_CLOSE_DELAY=-1;INIT=CREATE TABLE IF NOT EXISTS "
+				+ "BOOK (ISBN VARCHAR(255) PRIMARY KEY, title VARCHAR(255), author VARCHAR(255), "
+				+ "description VARCHAR(255), genre VARCHAR(255), price DOUBLE, quantity INT, version BIGINT)",
+		"bookstore.datasource.read-your-writes.window=2s" })
+class BookStoreServiceReadReplicaTests {
+
+	@MockBean
+	private FeignRecommendationEngine mockedFeignRecommendationEngine;
+
+	@Autowired
+	@Qualifier("writerDataSource")
+	private DataSource writerDataSource;
+
+	@Autowired
+	@Qualifier("readerDataSource")
+	private DataSource readerDataSource;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@LocalServerPort
+	private int PORT;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	private static String BASE_URL = "http://localhost:";
+	private static String ADD_BOOK_URL = "/books";
+	private static String BOOK_URL = "/books/";
+	private static String CLIENT_HEADER = "X-Client-Id";
+	private final String exampleReplicatedISBN = "ISBN910301";
+	private final String exampleAddedISBN = "ISBN910302";
+	private final String exampleNotReplicatedISBN = "ISBN910303";
+	private final String exampleLaterISBN = "ISBN910304";
+	private final String exampleAnonymousAddedISBN = "ISBN910305";
+	private final String exampleAnonymousNotReplicatedISBN = "ISBN910306";
+
+	/**
+	 * Test the positive case when a book is read, the service reads it from the reader pool
+	 */
+	@Test
+	void getBookShouldBeReadFromTheReader() {
+
+		insert(readerDataSource, exampleReplicatedISBN);
+		ResponseEntity<String> result = get(exampleReplicatedISBN, "reader-client");
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(meterRegistry.get("hikaricp.connections.usage").tag("pool", "reader").timer().count())
+				.isGreaterThan(0);
+	}
+
+	/**
+	 * Test the positive case when a client adds a book, its reads within the read-your-writes window are served by
+	 * the writer while the reads of other clients and its reads after the window are served by the reader
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	void readsAfterAWriteShouldBeReadFromTheWriterWithinTheWindow() throws InterruptedException {
+
+		insert(writerDataSource, exampleNotReplicatedISBN);
+		insert(writerDataSource, exampleLaterISBN);
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(CLIENT_HEADER, "writing-client");
+		BookDTO book = new BookDTO(exampleAddedISBN, "Replicas", "Reader", "A book of replicas", "technical", 10.00d,
+				10);
+		ResponseEntity<String> added = this.restTemplate.exchange(BASE_URL + PORT + ADD_BOOK_URL, HttpMethod.POST,
+				new HttpEntity<BookDTO>(book, headers), String.class);
+		ResponseEntity<String> ownRead = get(exampleNotReplicatedISBN, "writing-client");
+		ResponseEntity<String> otherRead = get(exampleLaterISBN, "other-client");
+		Thread.sleep(2100);
+		ResponseEntity<String> laterRead = get(exampleLaterISBN, "writing-client");
+
+		assertThat(added.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(ownRead.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(otherRead.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(laterRead.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(meterRegistry.get("datasource.routing").tag("reason", "read-your-writes").counter().count())
+				.isGreaterThan(0);
+	}
+
+	/**
+	 * Test the positive case when a request without the client header adds a book, the next reads without the
+	 * header are still served by the reader, the address of the caller (a BFF pod) does not identify the client
+	 */
+	@Test
+	void readsWithoutClientHeaderShouldNotBePinnedAfterAWrite() {
+
+		insert(writerDataSource, exampleAnonymousNotReplicatedISBN);
+		BookDTO book = new BookDTO(exampleAnonymousAddedISBN, "Replicas", "Reader", "A book of replicas",
+				"technical", 10.00d, 10);
+		ResponseEntity<String> added = this.restTemplate.postForEntity(BASE_URL + PORT + ADD_BOOK_URL, book,
+				String.class);
+		ResponseEntity<String> read = get(exampleAnonymousNotReplicatedISBN, null);
+
+		assertThat(added.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(read.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	/**
+	 * Auxiliary method that inserts a book directly in one of the databases
+	 */
+	private void insert(DataSource dataSource, String isbn) {
+		new JdbcTemplate(dataSource).update("INSERT INTO BOOK (ISBN, title, author, description, genre, price, "
+				+ "quantity, version) VALUES (?, 'Replicas', 'Reader', 'A book of replicas', 'technical', 10, 10, 0)",
+				isbn);
+	}
+
+	/**
+	 * Auxiliary method that reads a book as a client, without the client header if it is null
+	 */
+	private ResponseEntity<String> get(String isbn, String client) {
+		HttpHeaders headers = new HttpHeaders();
+		if (client != null) {
+			headers.set(CLIENT_HEADER, client);
+		}
+		return this.restTemplate.exchange(BASE_URL + PORT + BOOK_URL + isbn, HttpMethod.GET,
+				new HttpEntity<Void>(headers), String.class);
+	}
+}
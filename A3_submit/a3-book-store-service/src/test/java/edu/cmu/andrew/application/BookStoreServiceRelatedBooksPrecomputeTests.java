@@ -0,0 +1,130 @@
+package edu.cmu.andrew.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import edu.cmu.andrew.application.business.dto.RecommendedBookDTO;
+import edu.cmu.andrew.application.persistence.BookBatchRepository;
+import edu.cmu.andrew.application.persistence.BookRepository;
+import edu.cmu.andrew.application.persistence.RelatedBookRepository;
+import edu.cmu.andrew.application.persistence.RelatedBookRepository.RelatedBooks;
+import edu.cmu.andrew.application.rest.client.FeignRecommendationEngine;
+
+/**
+ * Test Class to validate the related books of the BookStoreService controller class with the precomputed related
+ * books enabled, the job runs against the mocked RELATED_BOOK repository and recommendation engine. The mocks are
+ * stubbed with doReturn because the job calls them concurrently with the stubbing
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"bookstore.recommendations.precompute.enabled=true", "bookstore.recommendations.precompute.rate=50",
+		"bookstore.recommendations.precompute.max-age=1s" })
+class BookStoreServiceRelatedBooksPrecomputeTests {
+
+	@MockBean
+	private BookRepository mockedBookRepository;
+
+	@MockBean
+	private BookBatchRepository mockedBookBatchRepository;
+
+	@MockBean
+	private RelatedBookRepository mockedRelatedBookRepository;
+
+	@MockBean
+	private FeignRecommendationEngine mockedFeignRecommendationEngine;
+
+	@LocalServerPort
+	private int PORT;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	private static String BASE_URL = "http://localhost:";
+	private static String RELATED_BOOKS_URL = "/related-books";
+	private static String BOOK_URL = "/books/";
+	private final String exampleStoredISBN = "ISBN910501";
+	private final String exampleStaleISBN = "ISBN910502";
+	private final String exampleCatalogISBN = "ISBN910503";
+	private final List<RecommendedBookDTO> storedBooks = List.of(
+			new RecommendedBookDTO("Stored title", "ISBN910510", "Stored author", "Stored publisher"));
+	private final List<RecommendedBookDTO> fetchedBooks = List.of(
+			new RecommendedBookDTO("Fetched title", "ISBN910511", "Fetched author", "Fetched publisher"));
+
+	/**
+	 * Test the positive case when the related books of a book are stored, the service responds them with the moment
+	 * they were fetched without calling the recommendation engine
+	 */
+	@Test
+	void getRelatedBooksShouldBeAnsweredFromTheTable() {
+
+		Instant fetchedAt = Instant.now().minusSeconds(60);
+		Mockito.doReturn(Optional.of(new RelatedBooks(storedBooks, fetchedAt))).when(mockedRelatedBookRepository)
+				.findById(exampleStoredISBN);
+		ResponseEntity<List<RecommendedBookDTO>> result = getRelatedBooks(exampleStoredISBN);
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).extracting(RecommendedBookDTO::getTitle).containsExactly("Stored title");
+		assertThat(result.getHeaders().getLastModified()).isEqualTo(fetchedAt.toEpochMilli() / 1000 * 1000);
+		Mockito.verify(mockedFeignRecommendationEngine, Mockito.never()).getRecommendedTittles(exampleStoredISBN);
+	}
+
+	/**
+	 * Test the positive case when the stored related books of a book are older than refresh-after, the service
+	 * responds them and the job fetches them again from the recommendation engine
+	 */
+	@Test
+	void staleRelatedBooksShouldBeRefreshedByTheJob() {
+
+		Mockito.doReturn(Optional.of(new RelatedBooks(storedBooks, Instant.now().minus(Duration.ofHours(2)))))
+				.when(mockedRelatedBookRepository).findById(exampleStaleISBN);
+		Mockito.doReturn(new ResponseEntity<List<RecommendedBookDTO>>(fetchedBooks, HttpStatus.OK))
+				.when(mockedFeignRecommendationEngine).getRecommendedTittles(exampleStaleISBN);
+		ResponseEntity<List<RecommendedBookDTO>> result = getRelatedBooks(exampleStaleISBN);
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).extracting(RecommendedBookDTO::getTitle).containsExactly("Stored title");
+		Mockito.verify(mockedRelatedBookRepository, Mockito.timeout(5000)).save(Mockito.eq(exampleStaleISBN),
+				Mockito.eq(fetchedBooks), Mockito.any());
+	}
+
+	/**
+	 * Test the positive case when a book of the catalog has no related books stored, the job walking the catalog
+	 * fetches and stores them
+	 */
+	@Test
+	void catalogWalkShouldStoreTheMissingRelatedBooks() {
+
+		Mockito.doReturn(new ResponseEntity<List<RecommendedBookDTO>>(fetchedBooks, HttpStatus.OK))
+				.when(mockedFeignRecommendationEngine).getRecommendedTittles(exampleCatalogISBN);
+		Mockito.doReturn(List.of(exampleCatalogISBN), List.of()).when(mockedRelatedBookRepository)
+				.findStaleIsbnPage(Mockito.eq(""), Mockito.any(), Mockito.anyInt());
+
+		Mockito.verify(mockedRelatedBookRepository, Mockito.timeout(5000)).save(Mockito.eq(exampleCatalogISBN),
+				Mockito.eq(fetchedBooks), Mockito.any());
+	}
+
+	/**
+	 * Auxiliary method that gets the related books of a book
+	 */
+	private ResponseEntity<List<RecommendedBookDTO>> getRelatedBooks(String isbn) {
+		return this.restTemplate.exchange(BASE_URL + PORT + BOOK_URL + isbn + RELATED_BOOKS_URL, HttpMethod.GET, null,
+				new ParameterizedTypeReference<List<RecommendedBookDTO>>() {
+				});
+	}
+}
@@ -0,0 +1,152 @@
+package edu.cmu.andrew.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import edu.cmu.andrew.application.business.dto.BookDTO;
+import edu.cmu.andrew.application.business.dto.PurchaseLineDTO;
+import edu.cmu.andrew.application.business.dto.PurchaseRequestDTO;
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.bussines.BookSnapshot;
+import edu.cmu.andrew.application.bussines.BookSnapshotService;
+import edu.cmu.andrew.application.persistence.BookBatchRepository;
+import edu.cmu.andrew.application.persistence.BookRepository;
+import edu.cmu.andrew.application.rest.client.FeignRecommendationEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Test Class to validate the lookups of the BookStoreService controller class with the catalog snapshot enabled,
+ * the snapshot is written before every test from the books of the mocked repository
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = { "bookstore.snapshot.enabled=true",
+		"bookstore.snapshot.path=target/snapshot-tests/catalog.snapshot", "bookstore.snapshot.rebuild-interval=0s" })
+class BookStoreServiceSnapshotTests {
+
+	@MockBean
+	private BookRepository mockedBookRepository;
+
+	@MockBean
+	private BookBatchRepository mockedBookBatchRepository;
+
+	@MockBean
+	private FeignRecommendationEngine mockedFeignRecommendationEngine;
+
+	@Autowired
+	private BookSnapshotService bookSnapshotService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@LocalServerPort
+	private int PORT;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	private static String BASE_URL = "http://localhost:";
+	private static String BOOK_URL = "/books/";
+	private static String PURCHASE_BOOKS_URL = "/books/purchase";
+	private static Path SNAPSHOT_PATH = Path.of("target/snapshot-tests/catalog.snapshot");
+	private final String exampleSnapshotISBN = "9780000910401";
+	private final String examplePurchasedISBN = "9780000910402";
+	private final String exampleISBN10 = "0-00-091040-X";
+	private final String exampleISBN10AsISBN13 = "9780000910400";
+	private final List<Book> catalog = List.of(
+			book(exampleSnapshotISBN, "Snapshots", 3L, 10),
+			book(examplePurchasedISBN, "Stock keeping", 1L, 10),
+			book(exampleISBN10, "Old numbering", 1L, 10),
+			book("ISBN910404", "Not an ISBN-13", 1L, 10));
+
+	@BeforeEach
+	void writeTheSnapshot() {
+		Mockito.doAnswer((invocation) -> {
+			Consumer<Book> action = invocation.getArgument(2);
+			catalog.forEach(action);
+			return (long) catalog.size();
+		}).when(mockedBookRepository).forEachBook(Mockito.isNull(), Mockito.anyInt(), Mockito.any());
+		assertThat(bookSnapshotService.rebuild()).isTrue();
+	}
+
+	/**
+	 * Test the positive case when a book of the snapshot is read, the service responds it without querying the DB
+	 */
+	@Test
+	void getBookInTheSnapshotShouldNotQueryTheDB() {
+
+		double hits = meterRegistry.get("book.snapshot.hits").counter().count();
+		ResponseEntity<BookDTO> result = this.restTemplate.getForEntity(BASE_URL + PORT + BOOK_URL + exampleSnapshotISBN,
+				BookDTO.class);
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody().getTitle()).isEqualTo("Snapshots");
+		assertThat(result.getHeaders().getETag()).isEqualTo("\"3\"");
+		Mockito.verify(mockedBookRepository, Mockito.never()).findById(exampleSnapshotISBN);
+		assertThat(meterRegistry.get("book.snapshot.hits").counter().count()).isEqualTo(hits + 1);
+	}
+
+	/**
+	 * Test the positive case when a book of the snapshot is purchased, the next read loads its new quantity from
+	 * the DB instead of the snapshot
+	 */
+	@Test
+	void purchasedBookShouldBeReadFromTheDB() {
+
+		Mockito.when(mockedBookRepository.purchase(Mockito.any())).thenReturn(Map.of(examplePurchasedISBN, "technical"));
+		Mockito.when(mockedBookRepository.findById(examplePurchasedISBN))
+				.thenReturn(Optional.of(book(examplePurchasedISBN, "Stock keeping", 2L, 8)));
+		PurchaseRequestDTO order = new PurchaseRequestDTO(List.of(new PurchaseLineDTO(examplePurchasedISBN, 2)));
+		ResponseEntity<String> purchase = this.restTemplate.postForEntity(BASE_URL + PORT + PURCHASE_BOOKS_URL, order,
+				String.class);
+		ResponseEntity<BookDTO> result = this.restTemplate.getForEntity(BASE_URL + PORT + BOOK_URL + examplePurchasedISBN,
+				BookDTO.class);
+
+		assertThat(purchase.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody().getQuantity()).isEqualTo(8);
+		Mockito.verify(mockedBookRepository, Mockito.times(1)).findById(examplePurchasedISBN);
+	}
+
+	/**
+	 * Test the positive case when the snapshot file is mapped again, as by a restarted instance, the ISBN-10 is
+	 * keyed by its ISBN-13 but only found with the ISBN as it was written, and the ISBNs that are not ISBN-13 or
+	 * ISBN-10 are left out
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	void snapshotFileShouldBeMappedByANewInstance() throws IOException {
+
+		BookSnapshot snapshot = BookSnapshot.open(SNAPSHOT_PATH);
+
+		assertThat(snapshot.entries()).isEqualTo(3);
+		assertThat(BookSnapshot.key(exampleISBN10)).isEqualTo(Long.parseLong(exampleISBN10AsISBN13));
+		assertThat(snapshot.get(exampleISBN10, false).getBook().getTitle()).isEqualTo("Old numbering");
+		assertThat(snapshot.get(exampleISBN10AsISBN13, false)).isNull();
+		assertThat(snapshot.get("ISBN910404", false)).isNull();
+	}
+
+	/**
+	 * Auxiliary method that builds a book of the catalog
+	 */
+	private static Book book(String isbn, String title, Long version, Integer quantity) {
+		Book book = new Book(isbn, title, "Mapper", "A book of snapshots", "technical", 10.00d, quantity);
+		book.setVersion(version);
+		return book;
+	}
+}
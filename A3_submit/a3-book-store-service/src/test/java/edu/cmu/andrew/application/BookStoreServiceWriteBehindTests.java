@@ -0,0 +1,198 @@
+package edu.cmu.andrew.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.cmu.andrew.application.business.dto.BookDTO;
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.bussines.BookWriteBehindService;
+import edu.cmu.andrew.application.persistence.BookBatchRepository;
+import edu.cmu.andrew.application.persistence.BookRepository;
+import edu.cmu.andrew.application.rest.client.FeignRecommendationEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Test Class to validate the updates of the BookStoreService controller class with the write-behind mode enabled,
+ * the window is long enough for the pending updates to be flushed only by the tests
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = { "bookstore.write-behind.enabled=true",
+		"bookstore.write-behind.window=1h" })
+class BookStoreServiceWriteBehindTests {
+
+	@MockBean
+	private BookRepository mockedBookRepository;
+
+	@MockBean
+	private BookBatchRepository mockedBookBatchRepository;
+
+	@MockBean
+	private FeignRecommendationEngine mockedFeignRecommendationEngine;
+
+	@Autowired
+	private BookWriteBehindService bookWriteBehindService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@LocalServerPort
+	private int PORT;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	private static String BASE_URL = "http://localhost:";
+	private static String BOOK_URL = "/books/";
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final String exampleCoalescedISBN = "ISBN910101";
+	private final String exampleConflictISBN = "ISBN910102";
+	private final String exampleIfMatchISBN = "ISBN910103";
+	private final String exampleMergedISBN = "ISBN910104";
+
+	/**
+	 * Test the positive case when two updates of the same book are accepted, the reads return the latest one and
+	 * the flush writes a single row based on the version read from the DB
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void updatesOfTheSameBookShouldBeWrittenOnce() throws JsonMappingException, JsonProcessingException {
+
+		Mockito.when(mockedBookRepository.findById(exampleCoalescedISBN)).thenReturn(Optional.of(new Book(
+				exampleCoalescedISBN, "Pricing", "Seller", "A book of prices", "technical", 10.00d, 10)));
+		Mockito.when(mockedBookBatchRepository.updateAll(Mockito.anyList(), Mockito.anyList()))
+				.thenReturn(new int[] { 1 });
+		update(exampleCoalescedISBN, 11.00d, null);
+		ResponseEntity<String> lastUpdate = update(exampleCoalescedISBN, 12.00d, null);
+		JsonNode pending = objectMapper.readTree(
+				this.restTemplate.getForObject(BASE_URL + PORT + BOOK_URL + exampleCoalescedISBN, String.class));
+
+		assertThat(lastUpdate.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(lastUpdate.getHeaders().getETag()).isEqualTo("\"2\"");
+		assertThat(pending.path("price").asDouble()).isEqualTo(12.00d);
+		Mockito.verify(mockedBookBatchRepository, Mockito.never()).updateAll(Mockito.anyList(), Mockito.anyList());
+
+		bookWriteBehindService.flush();
+		Mockito.verify(mockedBookBatchRepository, Mockito.times(1)).updateAll(Mockito.argThat((List<Book> books) ->
+				books.size() == 1 && books.get(0).getPrice() == 12.00d
+						&& books.get(0).getVersion() == 2L), Mockito.eq(List.of(0L)));
+		Mockito.verify(mockedBookRepository, Mockito.times(1)).findById(exampleCoalescedISBN);
+		assertThat(bookWriteBehindService.pending(exampleCoalescedISBN)).isNull();
+		assertThat(meterRegistry.get("book.write-behind.coalescing.ratio").gauge().value()).isGreaterThan(1.0d);
+	}
+
+	/**
+	 * Test the negative case when the book was changed in the DB by another writer, the pending update is dropped
+	 * and the reads get the state of the row read again from the DB
+	 *
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void pendingUpdateShouldBeDroppedIfTheBookWasChanged() throws JsonMappingException, JsonProcessingException {
+
+		Mockito.when(mockedBookRepository.findById(exampleConflictISBN)).thenReturn(Optional.of(new Book(
+				exampleConflictISBN, "Pricing", "Seller", "A book of prices", "technical", 10.00d, 10)));
+		Book changed = new Book(exampleConflictISBN, "Pricing", "Seller", "A book of prices", "technical", 15.00d,
+				10);
+		changed.setVersion(1L);
+		Mockito.when(mockedBookBatchRepository.findAllCurrent(List.of(exampleConflictISBN)))
+				.thenReturn(List.of(changed));
+		Mockito.when(mockedBookBatchRepository.updateAll(Mockito.anyList(), Mockito.anyList()))
+				.thenReturn(new int[] { 0 });
+		update(exampleConflictISBN, 11.00d, null);
+
+		bookWriteBehindService.flush();
+		ResponseEntity<String> result = this.restTemplate.getForEntity(BASE_URL + PORT + BOOK_URL + exampleConflictISBN,
+				String.class);
+
+		assertThat(bookWriteBehindService.pending(exampleConflictISBN)).isNull();
+		assertThat(result.getHeaders().getETag()).isEqualTo("\"1\"");
+		assertThat(objectMapper.readTree(result.getBody()).path("price").asDouble()).isEqualTo(15.00d);
+		Mockito.verify(mockedBookRepository, Mockito.times(1)).findById(exampleConflictISBN);
+	}
+
+	/**
+	 * Test the negative case when the book was changed in the DB by another writer and a new update is merged
+	 * while the pending one is written, the dropped update is lost but the new one is kept, based on the version
+	 * of the row read again, and written by the next flush
+	 */
+	@Test
+	void updateMergedDuringAConflictShouldBeKept() {
+
+		Mockito.when(mockedBookRepository.findById(exampleMergedISBN)).thenReturn(Optional.of(new Book(
+				exampleMergedISBN, "Pricing", "Seller", "A book of prices", "technical", 10.00d, 10)));
+		Book changed = new Book(exampleMergedISBN, "Pricing", "Seller", "A book of prices", "technical", 15.00d, 10);
+		changed.setVersion(1L);
+		Mockito.when(mockedBookBatchRepository.findAllCurrent(List.of(exampleMergedISBN)))
+				.thenReturn(List.of(changed));
+		Mockito.when(mockedBookBatchRepository.updateAll(Mockito.anyList(), Mockito.anyList()))
+				.thenAnswer((invocation) -> {
+					update(exampleMergedISBN, 13.00d, null);// accepted while the first update is written
+					return new int[] { 0 };
+				}).thenReturn(new int[] { 1 });
+		update(exampleMergedISBN, 11.00d, null);
+
+		bookWriteBehindService.flush();
+		Book kept = bookWriteBehindService.pending(exampleMergedISBN);
+
+		assertThat(kept.getPrice()).isEqualTo(13.00d);
+		assertThat(kept.getVersion()).isEqualTo(2L);
+		bookWriteBehindService.flush();
+		Mockito.verify(mockedBookBatchRepository, Mockito.times(1)).updateAll(Mockito.argThat((List<Book> books) ->
+				books.size() == 1 && books.get(0).getPrice() == 13.00d
+						&& books.get(0).getVersion() == 2L), Mockito.eq(List.of(1L)));
+		assertThat(bookWriteBehindService.pending(exampleMergedISBN)).isNull();
+	}
+
+	/**
+	 * Test the negative case when the If-Match header has the ETag of the stored book but there is a pending
+	 * update, the service responds a 412 error code
+	 */
+	@Test
+	void updateShouldReturn412ForTheETagBeforeThePendingUpdate() {
+
+		Mockito.when(mockedBookRepository.findById(exampleIfMatchISBN)).thenReturn(Optional.of(new Book(
+				exampleIfMatchISBN, "Pricing", "Seller", "A book of prices", "technical", 10.00d, 10)));
+		Mockito.when(mockedBookBatchRepository.updateAll(Mockito.anyList(), Mockito.anyList()))
+				.thenReturn(new int[] { 1 });
+		ResponseEntity<String> first = update(exampleIfMatchISBN, 11.00d, "\"0\"");
+		ResponseEntity<String> stale = update(exampleIfMatchISBN, 12.00d, "\"0\"");
+		bookWriteBehindService.flush();
+
+		assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+	}
+
+	/**
+	 * Auxiliary method that sends an update of the price of a book
+	 */
+	private ResponseEntity<String> update(String isbn, double price, String ifMatch) {
+		HttpHeaders headers = new HttpHeaders();
+		if (ifMatch != null) {
+			headers.setIfMatch(ifMatch);
+		}
+		BookDTO book = new BookDTO(isbn, "Pricing", "Seller", "A book of prices", "technical", price, 10);
+		return this.restTemplate.exchange(BASE_URL + PORT + BOOK_URL + isbn, HttpMethod.PUT,
+				new HttpEntity<BookDTO>(book, headers), String.class);
+	}
+}
@@ -0,0 +1,73 @@
+package edu.cmu.andrew.application.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import edu.cmu.andrew.application.A1BookStoreServiceApplication;
+import edu.cmu.andrew.application.business.model.Book;
+
+/**
+ * Helper to start the book store application from a benchmark. The datasource is taken from the system properties
+ * benchmark.datasource.url, benchmark.datasource.username and benchmark.datasource.password so the benchmarks run
+ * against a local MySQL instead of the Aurora cluster configured in application.properties
+ */
+public final class BenchmarkContext {
+
+	public static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/bookstore?serverTimezone=UTC&rewriteBatchedStatements=true";
+
+	private static final String INSERT_SQL = "INSERT INTO BOOK (ISBN, title, author, description, genre, price, quantity, "
+			+ "version) VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+
+	private BenchmarkContext() {
+	}
+
+	/**
+	 * Starts the application without web server
+	 * @param extraArgs additional properties in the --name=value form
+	 * @return the running application context
+	 */
+	public static ConfigurableApplicationContext start(String... extraArgs) {
+		return start(WebApplicationType.NONE, extraArgs);
+	}
+
+	/**
+	 * Starts the application with the given web application type
+	 * @param type the web application type, SERVLET to start the embedded Tomcat
+	 * @param extraArgs additional properties in the --name=value form
+	 * @return the running application context
+	 */
+	public static ConfigurableApplicationContext start(WebApplicationType type, String... extraArgs) {
+		List<String> args = new ArrayList<>();
+		args.add("--spring.datasource.url=" + System.getProperty("benchmark.datasource.url", DEFAULT_URL));
+		args.add("--spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "root"));
+		args.add("--spring.datasource.password=" + System.getProperty("benchmark.datasource.password", "hola1234"));
+		args.add("--logging.level.root=WARN");
+		args.addAll(Arrays.asList(extraArgs));
+		return new SpringApplicationBuilder(A1BookStoreServiceApplication.class).web(type)
+				.run(args.toArray(new String[0]));
+	}
+
+	/**
+	 * Inserts the books of a benchmark in a single batch, with plain INSERTs so the seed also runs on H2 (the
+	 * upsert of BookBatchRepository uses the MySQL row alias)
+	 * @param context the running application context
+	 * @param books the books to insert, not in the DB yet
+	 */
+	public static void insertAll(ConfigurableApplicationContext context, List<Book> books) {
+		context.getBean(JdbcTemplate.class).batchUpdate(INSERT_SQL, books, books.size(), (statement, book) -> {
+			statement.setString(1, book.getIsbn());
+			statement.setString(2, book.getTitle());
+			statement.setString(3, book.getAuthor());
+			statement.setString(4, book.getDescription());
+			statement.setString(5, book.getGenre());
+			statement.setDouble(6, book.getPrice());
+			statement.setInt(7, book.getQuantity());
+		});
+	}
+}
@@ -0,0 +1,83 @@
+package edu.cmu.andrew.application.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.persistence.BookRepository;
+
+/**
+ * Benchmark of the create path of a book. findThenSave is the previous addBook flow (findById to validate the ISBN
+ * and save, which runs a second SELECT before the INSERT because the ISBN is assigned), singleInsert is the current
+ * flow (one INSERT, the duplicated ISBN is reported by the unique key). SampleTime mode reports the p50 and p99 of
+ * the create latency.
+ *
+ * Needs a MySQL with the BOOK table, see BenchmarkContext. Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=edu.cmu.andrew.application.benchmark.BookCreateBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class BookCreateBenchmark {
+
+	private ConfigurableApplicationContext context;
+	private BookRepository bookRepository;
+	private final AtomicLong sequence = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContext.start();
+		bookRepository = context.getBean(BookRepository.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.getBean(JdbcTemplate.class).update("DELETE FROM BOOK WHERE ISBN LIKE 'BENCH-%'");
+		context.close();
+	}
+
+	@Benchmark
+	public void findThenSave() {
+		Book book = newBook();
+		if (bookRepository.findById(book.getIsbn()).isEmpty()) {
+			bookRepository.save(book);
+		}
+	}
+
+	@Benchmark
+	public void singleInsert() {
+		bookRepository.insert(newBook());
+	}
+
+	private Book newBook() {
+		return new Book("BENCH-" + sequence.incrementAndGet(), "Benchmark title", "Benchmark author",
+				"Benchmark description", "technical", 10.5d, 1);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(BookCreateBenchmark.class.getSimpleName()).build()).run();
+	}
+}
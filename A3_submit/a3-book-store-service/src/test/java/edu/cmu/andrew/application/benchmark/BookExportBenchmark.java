@@ -0,0 +1,150 @@
+package edu.cmu.andrew.application.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.bussines.BookExportService;
+
+/**
+ * Benchmark of the catalog export with catalogs of different sizes. Every invocation exports the benchmark books to
+ * a stream that only counts the bytes; SingleShotTime mode reports the time of a whole export. The rows per second,
+ * the peak heap used during the export (garbage included) and the peak live heap are printed after every
+ * iteration. The live heap is sampled with a full GC every LIVE_HEAP_SAMPLE rows, the time of the exports of the
+ * larger catalogs includes those collections. The export runs in a 256 MB heap so a catalog that does not fit in
+ * memory fails with an OutOfMemoryError instead of only growing the heap.
+ *
+ * Needs a MySQL with the BOOK table, see BenchmarkContext. Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=edu.cmu.andrew.application.benchmark.BookExportBenchmark
+ *
+ * Without a MySQL it runs against a file-backed H2 in MySQL mode (the export is then not streamed by the MySQL
+ * driver but read with a positive fetch size), adding:
+ * -Dbenchmark.datasource.url=jdbc:h2:file:/tmp/benchdb;MODE=MySQL -Dspring.jpa.hibernate.ddl-auto=create
+ * -Dbookstore.export.fetch-size=1000 -Dspring.jpa.database-platform=org.hibernate.dialect.H2Dialect
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class BookExportBenchmark {
+
+	private static final String PREFIX = "BENCH-EXPORT-";
+	private static final int CHUNK = 5000;
+	private static final int LIVE_HEAP_SAMPLE = 250_000;
+
+	@Param({ "10000", "1000000" })
+	private int books;
+
+	private ConfigurableApplicationContext context;
+	private BookExportService bookExportService;
+	private List<MemoryPoolMXBean> heapPools;
+	private long peakLive;
+	private long rows;
+	private long bytes;
+	private long started;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContext.start();
+		bookExportService = context.getBean(BookExportService.class);
+		context.getBean(JdbcTemplate.class).update("DELETE FROM BOOK WHERE ISBN LIKE ?", PREFIX + "%");
+		List<Book> chunk = new ArrayList<>(CHUNK);
+		for (int i = 0; i < books; i++) {
+			chunk.add(new Book(String.format("%s%08d", PREFIX, i), "Benchmark title " + i, "Benchmark author",
+					"Benchmark description of a book that is exported", "technical", 10.5d, i % 100));
+			if (chunk.size() == CHUNK || i == books - 1) {
+				BenchmarkContext.insertAll(context, chunk);
+				chunk.clear();
+			}
+		}
+		heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+				.filter((pool) -> pool.getType() == MemoryType.HEAP)
+				.toList();
+	}
+
+	@Setup(Level.Iteration)
+	public void resetPeaks() {
+		System.gc();
+		heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+		peakLive = 0;
+		rows = 0;
+		bytes = 0;
+		started = System.nanoTime();
+	}
+
+	@TearDown(Level.Iteration)
+	public void printRates() {
+		long nanos = System.nanoTime() - started;
+		long peak = heapPools.stream().mapToLong((pool) -> pool.getPeakUsage().getUsed()).sum();
+		System.out.printf("%n%d rows (%d MB) in %d ms, %.0f rows/s, peak heap %d MB, peak live heap %d MB%n", rows,
+				bytes >> 20, nanos / 1_000_000, rows * 1e9 / nanos, peak >> 20, peakLive >> 20);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.getBean(JdbcTemplate.class).update("DELETE FROM BOOK WHERE ISBN LIKE ?", PREFIX + "%");
+		context.close();
+	}
+
+	@Benchmark
+	public long export() throws IOException {
+		OutputStream counting = new OutputStream() {
+			@Override
+			public void write(int b) {// the line separator, once per book
+				bytes++;
+				if (b == '\n' && ++rows % LIVE_HEAP_SAMPLE == 0) {
+					sampleLiveHeap();
+				}
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				bytes += len;
+			}
+		};
+		// the benchmark books are the ones right after the prefix, the rest of the catalog goes after them
+		long exported = bookExportService.exportBooks(PREFIX, counting);
+		sampleLiveHeap();
+		return exported;
+	}
+
+	/**
+	 * Keeps the largest heap left after a full garbage collection, the memory that is still reachable
+	 */
+	private void sampleLiveHeap() {
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		peakLive = Math.max(peakLive, runtime.totalMemory() - runtime.freeMemory());
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(BookExportBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,157 @@
+package edu.cmu.andrew.application.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.bussines.BookSnapshot;
+import edu.cmu.andrew.application.bussines.BookSnapshotService;
+import edu.cmu.andrew.application.bussines.CachedBook;
+import edu.cmu.andrew.application.persistence.BookRepository;
+
+/**
+ * Benchmark of the warm start of the book lookups with catalogs of different sizes. SingleShotTime mode reports the
+ * time from a cold start until every book can be served without the DB: snapshot maps the file written by the
+ * setup (as a restarted instance does) and heap loads the whole catalog from the DB into a map of cache entries (an
+ * on-heap cache warmed up front); both then look up LOOKUPS random books. The live heap retained by the map and by
+ * the mapped snapshot is printed once, with the size of the file outside of the heap.
+ *
+ * Needs a MySQL with the BOOK table, see BenchmarkContext. Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=edu.cmu.andrew.application.benchmark.BookSnapshotBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BookSnapshotBenchmark {
+
+	private static final String PREFIX = "9790";// ISBN-13 of the benchmark books, 9790 and nine digits
+	private static final int CHUNK = 5000;
+	private static final int LOOKUPS = 10_000;
+
+	@Param({ "100000", "1000000" })
+	private int books;
+
+	private ConfigurableApplicationContext context;
+	private BookRepository bookRepository;
+	private Path path;
+	private int fetchSize;
+	private String[] isbns;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		path = Path.of(System.getProperty("java.io.tmpdir"), "bookstore-benchmark", "catalog.snapshot");
+		context = BenchmarkContext.start("--bookstore.snapshot.enabled=true", "--bookstore.snapshot.path=" + path,
+				"--bookstore.snapshot.rebuild-interval=0s");
+		bookRepository = context.getBean(BookRepository.class);
+		fetchSize = context.getEnvironment().getProperty("bookstore.export.fetch-size", Integer.class,
+				Integer.MIN_VALUE);
+		context.getBean(JdbcTemplate.class).update("DELETE FROM BOOK WHERE ISBN LIKE ?", PREFIX + "%");
+		List<Book> chunk = new ArrayList<>(CHUNK);
+		for (int i = 0; i < books; i++) {
+			chunk.add(new Book(isbn(i), "Benchmark title " + i, "Benchmark author",
+					"Benchmark description of a book that is served after a restart", "technical", 10.5d, i % 100));
+			if (chunk.size() == CHUNK || i == books - 1) {
+				BenchmarkContext.insertAll(context, chunk);
+				chunk.clear();
+			}
+		}
+		context.getBean(BookSnapshotService.class).rebuild();
+		Random random = new Random(42);
+		isbns = new String[LOOKUPS];
+		for (int i = 0; i < LOOKUPS; i++) {
+			isbns[i] = isbn(random.nextInt(books));
+		}
+		printHeap();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.getBean(JdbcTemplate.class).update("DELETE FROM BOOK WHERE ISBN LIKE ?", PREFIX + "%");
+		context.close();
+	}
+
+	@Benchmark
+	public void snapshot(Blackhole blackhole) throws IOException {
+		BookSnapshot snapshot = BookSnapshot.open(path);
+		for (String isbn : isbns) {
+			blackhole.consume(snapshot.get(isbn, true));
+		}
+	}
+
+	@Benchmark
+	public void heap(Blackhole blackhole) {
+		Map<String, CachedBook> cache = load();
+		for (String isbn : isbns) {
+			blackhole.consume(cache.get(isbn));
+		}
+	}
+
+	/**
+	 * Auxiliary method that warms an on-heap cache with the whole catalog
+	 */
+	private Map<String, CachedBook> load() {
+		Map<String, CachedBook> cache = new HashMap<>();
+		bookRepository.forEachBook(null, fetchSize, (book) -> cache.put(book.getIsbn(), new CachedBook(book, null)));
+		return cache;
+	}
+
+	/**
+	 * Auxiliary method that prints the live heap retained by a warm on-heap cache and by the mapped snapshot
+	 */
+	private void printHeap() throws IOException {
+		long before = liveHeap();
+		Map<String, CachedBook> cache = load();
+		long heap = liveHeap() - before;
+		int entries = cache.size();
+		cache = null;
+		before = liveHeap();
+		BookSnapshot snapshot = BookSnapshot.open(path);
+		long mapped = liveHeap() - before;
+		System.out.printf("%nOn-heap cache of %d books: %d MB of heap. Snapshot of %d books: %d KB of heap, %d MB mapped"
+				+ " outside of the heap%n", entries, heap >> 20, snapshot.entries(), Math.max(0, mapped) >> 10,
+				snapshot.sizeBytes() >> 20);
+	}
+
+	private static long liveHeap() {
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static String isbn(int i) {
+		return String.format("%s%09d", PREFIX, i);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(BookSnapshotBenchmark.class.getSimpleName()).build()).run();
+	}
+}
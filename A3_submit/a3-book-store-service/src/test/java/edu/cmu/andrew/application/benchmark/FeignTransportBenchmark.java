@@ -0,0 +1,137 @@
+package edu.cmu.andrew.application.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.http.impl.DefaultConnectionReuseStrategy;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.sun.net.httpserver.HttpServer;
+
+import edu.cmu.andrew.application.rest.client.InstrumentedPoolingConnectionManager;
+import feign.Client;
+import feign.Feign;
+import feign.RequestLine;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmark of the Feign transport against a local stub of the recommendation engine. jdk is the previous default
+ * client (HttpURLConnection), hc5-pooled is the pooled keep-alive client used now, hc5-no-reuse is the same client
+ * closing the connection after every call so each call pays the TCP handshake. SampleTime mode reports the p50, p99
+ * and p99.9 of a call. It does not need the DB, run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=edu.cmu.andrew.application.benchmark.FeignTransportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(8)
+@Fork(1)
+public class FeignTransportBenchmark {
+
+	/**
+	 * Minimal contract of the engine, the body is read as a String so the benchmark measures the transport
+	 */
+	interface Engine {
+		@RequestLine("GET /recommended-titles/isbn/{isbn}")
+		String getRecommendedTittles(@feign.Param("isbn") String isbn);
+	}
+
+	@Param({ "jdk", "hc5-pooled", "hc5-no-reuse" })
+	public String transport;
+
+	private HttpServer engine;
+	private ExecutorService engineExecutor;
+	private CloseableHttpClient httpClient;
+	private Engine client;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		// without TCP_NODELAY the stub adds the delayed ACK (~40ms) to every keep-alive call
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+		engine = HttpServer.create(new InetSocketAddress("localhost", 0), 128);
+		engineExecutor = Executors.newFixedThreadPool(16);
+		engine.setExecutor(engineExecutor);
+		byte[] body = "[{\"title\":\"SW Architecture\",\"isbn\":\"ISBN123\"}]".getBytes(StandardCharsets.UTF_8);
+		engine.createContext("/recommended-titles/isbn/", (exchange) -> {
+			exchange.getRequestBody().readAllBytes();
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		engine.start();
+
+		Client transportClient;
+		if (transport.equals("jdk")) {
+			transportClient = new Client.Default(null, null);
+		} else {
+			InstrumentedPoolingConnectionManager connectionManager = new InstrumentedPoolingConnectionManager(
+					RegistryBuilder.<ConnectionSocketFactory>create()
+							.register("http", PlainConnectionSocketFactory.getSocketFactory())
+							.build(),
+					PoolConcurrencyPolicy.STRICT, PoolReusePolicy.LIFO,
+					TimeValue.ofMinutes(5), new SimpleMeterRegistry(), "benchmark");
+			connectionManager.setMaxTotal(50);
+			connectionManager.setDefaultMaxPerRoute(20);
+			httpClient = HttpClients.custom()
+					.setConnectionManager(connectionManager)
+					.setConnectionReuseStrategy(transport.equals("hc5-pooled") ? DefaultConnectionReuseStrategy.INSTANCE
+							: (request, response, context) -> false)
+					.build();
+			transportClient = new ApacheHttp5Client(httpClient);
+		}
+		client = Feign.builder().client(transportClient)
+				.target(Engine.class, "http://localhost:" + engine.getAddress().getPort());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		if (httpClient != null) {
+			httpClient.close();
+		}
+		engine.stop(0);
+		engineExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	public String getRecommendedTittles() {
+		return client.getRecommendedTittles("ISBN123");
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(FeignTransportBenchmark.class.getSimpleName()).build()).run();
+	}
+}
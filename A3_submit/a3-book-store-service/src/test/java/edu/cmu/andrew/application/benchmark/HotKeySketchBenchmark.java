@@ -0,0 +1,73 @@
+package edu.cmu.andrew.application.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.cmu.andrew.application.bussines.HotKeySketch;
+
+/**
+ * Benchmark of the overhead that the hot key tracking adds to a request: one HotKeySketch.record of an ISBN drawn
+ * from a skewed (Zipf-like) distribution over a catalog of distinct keys, with the sizes configured in
+ * application.properties. SampleTime mode reports the p50, p99 and p99.9 of a record in nanoseconds. It does not
+ * need the DB, run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=edu.cmu.andrew.application.benchmark.HotKeySketchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class HotKeySketchBenchmark {
+
+	private static final int SAMPLES = 1 << 16;
+
+	@Param({ "1000000" })
+	public int keys;
+
+	@Param({ "1.0", "1.5" })
+	public double skew;
+
+	private HotKeySketch sketch;
+	private String[] requests;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		sketch = new HotKeySketch(4, 8192, 20);
+		Random random = new Random(42);
+		requests = new String[SAMPLES];
+		for (int i = 0; i < SAMPLES; i++) {
+			// inverse transform of a continuous power law, rank 1 is the hottest key
+			long rank = (long) Math.min(keys, Math.pow(1 - random.nextDouble(), -1 / skew));
+			requests[i] = new String("ISBN" + (1_000_000_000L + rank));// a new String per request, as a path variable
+		}
+	}
+
+	@Benchmark
+	public void record() {
+		sketch.record(requests[ThreadLocalRandom.current().nextInt(SAMPLES)]);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(HotKeySketchBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,94 @@
+package edu.cmu.andrew.application.benchmark;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.persistence.BookRepository;
+
+/**
+ * Benchmark of the purchase of one copy of a single hot ISBN by many threads. readModifyWrite is the PUT flow (read
+ * the book, decrement the quantity and save it, the optimistic lock rejects the writes based on a stale version and
+ * the client reads and tries again), conditionalUpdate is the purchase flow (one UPDATE ... WHERE quantity >= n).
+ * Throughput mode reports the purchases per second, the number of retries of the PUT flow is printed at the end.
+ *
+ * Needs a MySQL with the BOOK table, see BenchmarkContext. Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=edu.cmu.andrew.application.benchmark.PurchaseContentionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(16)
+@Fork(1)
+public class PurchaseContentionBenchmark {
+
+	private static final String HOT_ISBN = "BENCH-HOT";
+
+	private ConfigurableApplicationContext context;
+	private BookRepository bookRepository;
+	private final AtomicLong retries = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContext.start();
+		bookRepository = context.getBean(BookRepository.class);
+		context.getBean(JdbcTemplate.class).update("DELETE FROM BOOK WHERE ISBN = ?", HOT_ISBN);
+		bookRepository.insert(new Book(HOT_ISBN, "Benchmark title", "Benchmark author", "Benchmark description",
+				"technical", 10.5d, Integer.MAX_VALUE));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		System.out.println("\nRetries of the read-modify-write flow: " + retries.get());
+		context.getBean(JdbcTemplate.class).update("DELETE FROM BOOK WHERE ISBN = ?", HOT_ISBN);
+		context.close();
+	}
+
+	@Benchmark
+	public Book readModifyWrite() {
+		while (true) {
+			Book book = bookRepository.findById(HOT_ISBN).get();
+			book.setQuantity(book.getQuantity() - 1);
+			try {
+				return bookRepository.save(book);
+			} catch (ObjectOptimisticLockingFailureException e) {
+				retries.incrementAndGet();
+			}
+		}
+	}
+
+	@Benchmark
+	public Object conditionalUpdate() {
+		SortedMap<String, Integer> lines = new TreeMap<>();
+		lines.put(HOT_ISBN, 1);
+		return bookRepository.purchase(lines);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(PurchaseContentionBenchmark.class.getSimpleName()).build()).run();
+	}
+}
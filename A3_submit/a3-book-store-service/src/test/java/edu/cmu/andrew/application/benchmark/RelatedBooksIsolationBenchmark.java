@@ -0,0 +1,132 @@
+package edu.cmu.andrew.application.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.persistence.BookRepository;
+
+/**
+ * Load test of getBook while the recommendation engine is degraded. The application runs with its embedded Tomcat
+ * limited to 20 worker threads and points to a stub engine that answers after engineDelayMs. The "mixed" group runs
+ * 8 threads reading a book and 32 threads asking for related books of always different ISBNs (no cache hits). With
+ * the engine calls isolated in the thread pool bulkhead the getBook p99 reported by SampleTime must be the same for
+ * engineDelayMs 0 and 2500, the slow engine only consumes the bulkhead budget and not the Tomcat threads.
+ *
+ * Needs a MySQL with the BOOK table, see BenchmarkContext. Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=edu.cmu.andrew.application.benchmark.RelatedBooksIsolationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class RelatedBooksIsolationBenchmark {
+
+	private static final String ISBN = "BENCH-ISO-1";
+
+	@Param({ "0", "2500" })
+	public long engineDelayMs;
+
+	private HttpServer engine;
+	private ExecutorService engineExecutor;
+	private ConfigurableApplicationContext context;
+	private HttpClient client;
+	private String baseUrl;
+	private final AtomicLong sequence = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		engine = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		engineExecutor = Executors.newCachedThreadPool();
+		engine.setExecutor(engineExecutor);
+		engine.createContext("/recommended-titles/isbn/", (exchange) -> {
+			try {
+				Thread.sleep(engineDelayMs);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		engine.start();
+
+		context = BenchmarkContext.start(WebApplicationType.SERVLET, "--server.port=0",
+				"--server.tomcat.threads.max=20",
+				"--recommendation.engine.base.path=http://localhost:" + engine.getAddress().getPort());
+		context.getBean(BookRepository.class).save(new Book(ISBN, "Benchmark title", "Benchmark author",
+				"Benchmark description", "technical", 10.5d, 1));
+		baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+		client = HttpClient.newHttpClient();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.getBean(JdbcTemplate.class).update("DELETE FROM BOOK WHERE ISBN LIKE 'BENCH-%'");
+		context.close();
+		engine.stop(0);
+		engineExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(8)
+	public int getBook() throws IOException, InterruptedException {
+		return send("/books/" + ISBN);
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(32)
+	public int relatedBooks() throws IOException, InterruptedException {
+		return send("/books/BENCH-REL-" + sequence.incrementAndGet() + "/related-books");
+	}
+
+	private int send(String path) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+		return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RelatedBooksIsolationBenchmark.class.getSimpleName()).build()).run();
+	}
+}
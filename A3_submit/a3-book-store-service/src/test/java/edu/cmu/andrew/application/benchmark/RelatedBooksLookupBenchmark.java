@@ -0,0 +1,116 @@
+package edu.cmu.andrew.application.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.cmu.andrew.application.business.dto.RecommendedBookDTO;
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.bussines.RelatedBooksIndex;
+
+/**
+ * Benchmark of the lookups of the local related books index over a synthetic catalog (authors, genres and
+ * description words drawn from skewed vocabularies, so some authors and words are in many books). The time to
+ * index the catalog and to compute the related books of every book is printed once, with the live heap used by
+ * the index. SampleTime mode reports the p50, p99 and p99.9 of a lookup. It does not need the DB, run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=edu.cmu.andrew.application.benchmark.RelatedBooksLookupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RelatedBooksLookupBenchmark {
+
+	@Param({ "100000", "1000000" })
+	public int books;
+
+	private RelatedBooksIndex index;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(42);
+		String[] words = vocabulary(random, 50000);
+		String[] surnames = vocabulary(random, books / 4);
+		String[] genres = vocabulary(random, 30);
+		long before = liveHeap();
+		long start = System.nanoTime();
+		index = new RelatedBooksIndex(3, 1, 2, 5, 200);
+		for (int i = 0; i < books; i++) {
+			index.indexIfAbsent(book(random, words, surnames, genres, i));
+		}
+		long indexed = System.nanoTime();
+		index.computeAll();
+		long computed = System.nanoTime();
+		System.out.printf("%nRelated books of %d books: indexed in %d ms, computed in %d ms (%.1f us per book), "
+				+ "%d MB of heap%n", books, (indexed - start) / 1_000_000, (computed - indexed) / 1_000_000,
+				(computed - indexed) / 1000.0 / books, (liveHeap() - before) >> 20);
+	}
+
+	@Benchmark
+	public List<RecommendedBookDTO> related() {
+		return index.related("BENCH-" + ThreadLocalRandom.current().nextInt(books));
+	}
+
+	/**
+	 * Auxiliary method that builds a book with a description of ten to thirty words
+	 */
+	private static Book book(Random random, String[] words, String[] surnames, String[] genres, int sequence) {
+		StringBuilder description = new StringBuilder();
+		int length = 10 + random.nextInt(21);
+		for (int j = 0; j < length; j++) {
+			description.append(j == 0 ? "" : " ").append(skewed(random, words));
+		}
+		return new Book("BENCH-" + sequence, skewed(random, words) + " " + skewed(random, words),
+				skewed(random, surnames), description.toString(), skewed(random, genres), 10.5d, 1);
+	}
+
+	private static String skewed(Random random, String[] values) {
+		return values[(int) (values.length * Math.pow(random.nextDouble(), 3))];
+	}
+
+	/**
+	 * Auxiliary method that builds capitalized pseudo words of four to ten letters
+	 */
+	private static String[] vocabulary(Random random, int size) {
+		String[] words = new String[size];
+		for (int i = 0; i < size; i++) {
+			char[] letters = new char[4 + random.nextInt(7)];
+			for (int j = 0; j < letters.length; j++) {
+				letters[j] = (char) ((j == 0 ? 'A' : 'a') + random.nextInt(26));
+			}
+			words[i] = new String(letters);
+		}
+		return words;
+	}
+
+	private static long liveHeap() {
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RelatedBooksLookupBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,131 @@
+package edu.cmu.andrew.application.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.cmu.andrew.application.business.dto.BookSuggestionDTO;
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.bussines.BookSuggestIndex;
+
+/**
+ * Benchmark of the typeahead lookups of the suggest index over a synthetic catalog (titles of two to five words and
+ * authors drawn from skewed vocabularies, so short prefixes match many entries). pendingWrites books are written
+ * after the load and stay in the delta, as between two merges. SampleTime mode reports the p50, p99 and p99.9 of a
+ * lookup per prefix length, the bytes per entry of the index are printed once the index is built. It does not need
+ * the DB, run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=edu.cmu.andrew.application.benchmark.SuggestLookupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SuggestLookupBenchmark {
+
+	private static final int PREFIXES = 4096;
+
+	@Param({ "1000000" })
+	public int books;
+
+	@Param({ "1", "3", "6" })
+	public int prefixLength;
+
+	@Param({ "0", "2000" })
+	public int pendingWrites;
+
+	private BookSuggestIndex index;
+	private String[] prefixes;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(42);
+		String[] words = vocabulary(random, 20000);
+		String[] surnames = vocabulary(random, 50000);
+		index = new BookSuggestIndex(4096);
+		prefixes = new String[PREFIXES];
+		for (int i = 0; i < books; i++) {
+			Book book = book(random, words, surnames, i);
+			index.load(book);
+			if (i % (books / (PREFIXES / 2)) == 0 && i / (books / (PREFIXES / 2)) < PREFIXES / 2) {
+				int slot = 2 * (i / (books / (PREFIXES / 2)));
+				prefixes[slot] = prefix(book.getTitle());
+				prefixes[slot + 1] = prefix(book.getAuthor());
+			}
+		}
+		index.flush();
+		for (int i = 0; i < pendingWrites; i++) {
+			index.replace(null, book(random, words, surnames, books + i));
+		}
+		System.out.println("\nSuggest index: " + index.entries() + " entries, " + index.memoryBytes() + " bytes, "
+				+ index.memoryBytes() / index.entries() + " bytes per entry");
+	}
+
+	@Benchmark
+	public List<BookSuggestionDTO> suggest() {
+		return index.suggest(prefixes[ThreadLocalRandom.current().nextInt(PREFIXES)], 10);
+	}
+
+	/**
+	 * Auxiliary method that builds a book with a title of two to five words and an author, the first words of the
+	 * vocabularies are picked more often
+	 */
+	private static Book book(Random random, String[] words, String[] surnames, int sequence) {
+		StringBuilder title = new StringBuilder();
+		int length = 2 + random.nextInt(4);
+		for (int j = 0; j < length; j++) {
+			title.append(j == 0 ? "" : " ").append(skewed(random, words));
+		}
+		String author = Character.toUpperCase(skewed(random, words).charAt(0)) + ". " + skewed(random, surnames);
+		return new Book("BENCH-" + sequence, title.toString(), author, "Benchmark description", "technical", 10.5d,
+				1);
+	}
+
+	private static String skewed(Random random, String[] values) {
+		return values[(int) (values.length * Math.pow(random.nextDouble(), 3))];
+	}
+
+	private String prefix(String text) {
+		String normalized = BookSuggestIndex.normalize(text);
+		return normalized.substring(0, Math.min(prefixLength, normalized.length()));
+	}
+
+	/**
+	 * Auxiliary method that builds capitalized pseudo words of four to ten letters
+	 */
+	private static String[] vocabulary(Random random, int size) {
+		String[] words = new String[size];
+		for (int i = 0; i < size; i++) {
+			char[] letters = new char[4 + random.nextInt(7)];
+			for (int j = 0; j < letters.length; j++) {
+				letters[j] = (char) ((j == 0 ? 'A' : 'a') + random.nextInt(26));
+			}
+			words[i] = new String(letters);
+		}
+		return words;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(SuggestLookupBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,95 @@
+package edu.cmu.andrew.application.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import edu.cmu.andrew.application.business.model.Book;
+import edu.cmu.andrew.application.persistence.BookRepository;
+
+/**
+ * Load test of the platform threads (Tomcat pool of 200 threads) against the virtual threads mode with 1024
+ * concurrent connections. Every call reads a book with the near-cache disabled, so each request blocks on JDBC like
+ * on a cold cache. Throughput and SampleTime percentiles are reported for both modes. Run the virtual mode on a
+ * Java 21 JVM, on Java 17 Spring Boot ignores spring.threads.virtual.enabled and both modes are the same.
+ *
+ * Needs a MySQL with the BOOK table, see BenchmarkContext. Run with:
+ * mvn -Pjava21 test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=edu.cmu.andrew.application.benchmark.VirtualThreadsLoadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(1024)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.httpclient.connectionPoolSize=2048")
+public class VirtualThreadsLoadBenchmark {
+
+	private static final int BOOKS = 1000;
+
+	@Param({ "platform", "virtual" })
+	public String threads;
+
+	private ConfigurableApplicationContext context;
+	private HttpClient client;
+	private String baseUrl;
+	private final AtomicLong sequence = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContext.start(WebApplicationType.SERVLET, "--server.port=0",
+				"--spring.threads.virtual.enabled=" + threads.equals("virtual"),
+				"--bookstore.cache.maximum-size=0",
+				"--spring.datasource.hikari.maximum-pool-size=50");
+		BookRepository bookRepository = context.getBean(BookRepository.class);
+		for (int i = 0; i < BOOKS; i++) {
+			bookRepository.save(new Book("BENCH-VT-" + i, "Benchmark title", "Benchmark author",
+					"Benchmark description", "technical", 10.5d, 1));
+		}
+		baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.getBean(JdbcTemplate.class).update("DELETE FROM BOOK WHERE ISBN LIKE 'BENCH-%'");
+		context.close();
+	}
+
+	@Benchmark
+	public int getBook() throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest
+				.newBuilder(URI.create(baseUrl + "/books/BENCH-VT-" + sequence.incrementAndGet() % BOOKS))
+				.GET().build();
+		return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(VirtualThreadsLoadBenchmark.class.getSimpleName()).build()).run();
+	}
+}
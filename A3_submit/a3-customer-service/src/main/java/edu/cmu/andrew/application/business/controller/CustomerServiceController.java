@@ -1,11 +1,14 @@
 package edu.cmu.andrew.application.business.controller;
 
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +29,7 @@ import edu.cmu.andrew.application.business.dto.NotificationMsgDTO;
 import edu.cmu.andrew.application.business.model.Customer;
 import edu.cmu.andrew.application.bussines.CustomerRegistrationService;
 import edu.cmu.andrew.application.bussines.CustomerService;
+import edu.cmu.andrew.application.bussines.HotKeyService;
 import edu.cmu.andrew.application.persistence.CustomerRepository;
 import jakarta.validation.Valid;
 
@@ -48,10 +52,14 @@ public class CustomerServiceController implements CustomerService {
 	@Autowired
 	private CustomerRegistrationService customerRegistrationService;
 
+	@Autowired
+	private HotKeyService hotKeyService;
+
 	/**
 	 * Adds a Customer to the system. This end point will receive a JSON
-	 * representation of a customer and proceed to register, in the case of the
-	 * customer ID already exists the method will return an HTTP error code 422
+	 * representation of a customer and proceed to register with a single INSERT,
+	 * in the case of the customer ID already exists the DB rejects the INSERT on
+	 * the USER_ID unique key and the method will return an HTTP error code 422
 	 * UNPROCESSABLE_ENTITY for the case of he customer ID does not exists already,
 	 * the system will create a new customer entity instance and save it if this is
 	 * the case it will return a HTTP status code 201 CREATED
@@ -69,33 +77,36 @@ public class CustomerServiceController implements CustomerService {
 
 		final String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().build().toUriString();
 
-		Customer existingCustomer = customerRepo.findByUserId(customerDTO.getUserId());
-		if (existingCustomer != null) {
+		Customer newCustomer = new Customer();
+		newCustomer.setUserId(customerDTO.getUserId());
+		newCustomer.setName(customerDTO.getName());
+		newCustomer.setPhone(customerDTO.getPhone());
+		newCustomer.setAddress(customerDTO.getAddress());
+		newCustomer.setAddress2(customerDTO.getAddress2());
+		newCustomer.setCity(customerDTO.getCity());
+		newCustomer.setState(customerDTO.getState());
+		newCustomer.setCity(customerDTO.getCity());
+		newCustomer.setZipcode(customerDTO.getZipcode());
+
+		Customer customerSaved = null;
+		try {
+			// the ID is generated by the DB (IDENTITY) so save() persists with a single INSERT
+			customerSaved = customerRepo.save(newCustomer);
+		} catch (DataIntegrityViolationException e) {
+			if (!isDuplicateKey(e)) {
+				throw e;
+			}
 
 			NotificationMsgDTO message = new NotificationMsgDTO();
 			message.setMessage("This user ID already exists in the system.");
 			return new ResponseEntity<Object>(message, HttpStatus.UNPROCESSABLE_ENTITY);
-		} else {
-
-			Customer newCustomer = new Customer();
-			newCustomer.setUserId(customerDTO.getUserId());
-			newCustomer.setName(customerDTO.getName());
-			newCustomer.setPhone(customerDTO.getPhone());
-			newCustomer.setAddress(customerDTO.getAddress());
-			newCustomer.setAddress2(customerDTO.getAddress2());
-			newCustomer.setCity(customerDTO.getCity());
-			newCustomer.setState(customerDTO.getState());
-			newCustomer.setCity(customerDTO.getCity());
-			newCustomer.setZipcode(customerDTO.getZipcode());
-
-			Customer customerSaved = customerRepo.save(newCustomer);
-			HttpHeaders responseHeaders = new HttpHeaders();
-			responseHeaders.add("Location", baseUrl + "/customers/" + customerSaved.getId());
-			ResponseEntity<Object> responseEntity = new ResponseEntity<Object>(customerSaved, responseHeaders,
-					HttpStatus.CREATED);
-			customerRegistrationService.sendRegistrationEvent(customerDTO);
-			return responseEntity;
 		}
+		HttpHeaders responseHeaders = new HttpHeaders();
+		responseHeaders.add("Location", baseUrl + "/customers/" + customerSaved.getId());
+		ResponseEntity<Object> responseEntity = new ResponseEntity<Object>(customerSaved, responseHeaders,
+				HttpStatus.CREATED);
+		customerRegistrationService.sendRegistrationEvent(customerDTO);
+		return responseEntity;
 	}
 
 	/**
@@ -115,6 +126,7 @@ public class CustomerServiceController implements CustomerService {
 		if (!emailPatternMatches(userId)) {
 			return new ResponseEntity<Customer>(HttpStatus.BAD_REQUEST);
 		}
+		hotKeyService.record(HotKeyService.CUSTOMERS_BY_USER_ID, userId);
 
 		Customer existingCustomer = customerRepo.findByUserId(userId);
 		if (existingCustomer != null) {
@@ -137,6 +149,7 @@ public class CustomerServiceController implements CustomerService {
 	 */
 	@GetMapping("/customers/{id}")
 	public ResponseEntity<Customer> getCustomerbyId(@PathVariable Integer id) {
+		hotKeyService.record(HotKeyService.CUSTOMERS_BY_ID, String.valueOf(id));
 		Optional<Customer> customer = null;
 		customer = customerRepo.findById(id);
 		if (customer.isPresent()) {
@@ -146,6 +159,24 @@ public class CustomerServiceController implements CustomerService {
 		}
 	}
 
+	/**
+	 * Auxiliary method that tells if an integrity violation is a duplicated unique key (MySQL error 1062, SQL state
+	 * 23505 on other DBs), the other violations (NOT NULL, too long values) are not a duplicate
+	 * @param e the violation raised by the INSERT
+	 * @return true if the row already exists
+	 */
+	private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+		if (e instanceof DuplicateKeyException) {
+			return true;
+		}
+		for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+			if (cause instanceof SQLException sqlException) {
+				return sqlException.getErrorCode() == 1062 || "23505".equals(sqlException.getSQLState());
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Method to handle bad requests and validation errors. This method will
 	 * intercept errors coming from the client data and will produce a comprehensive
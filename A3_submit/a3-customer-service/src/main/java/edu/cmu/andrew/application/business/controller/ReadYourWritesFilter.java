@@ -0,0 +1,89 @@
+package edu.cmu.andrew.application.business.controller;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import edu.cmu.andrew.application.persistence.ReadWriteRoutingDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+* <h1>Read your writes filter</h1>
+*
+*  Pins to the writer pool the requests that write (any method but GET, HEAD and OPTIONS), including the reads
+*  they do before writing, and the requests of a client that wrote during the last
+*  customer.datasource.read-your-writes.window, which is the replica lag the reader is allowed to have. The client
+*  is the value of the customer.datasource.read-your-writes.client-header header, set by the BFFs to the subject
+*  of the authenticated token. The requests without it (or with it empty) are not tracked: behind the BFFs every
+*  request comes from a BFF pod, so its address would pin every client after any write.
+*
+*  Only loaded when the reader pool is enabled (customer.datasource.reader.enabled).
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Component
+@ConditionalOnProperty("customer.datasource.reader.enabled")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+	private static final int MAXIMUM_CLIENTS = 100_000;
+
+	@Value("${customer.datasource.read-your-writes.window:2s}")
+	private Duration window;
+
+	@Value("${customer.datasource.read-your-writes.client-header:X-Client-Id}")
+	private String clientHeader;
+
+	private final ConcurrentMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String client = request.getHeader(clientHeader);
+		boolean tracked = StringUtils.hasText(client);// sent empty by the BFFs for a request without subject
+		boolean write = !READ_METHODS.contains(request.getMethod());
+		ReadWriteRoutingDataSource.pinToWriter(write || (tracked && wroteRecently(client)));
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			ReadWriteRoutingDataSource.pinToWriter(false);
+			if (write && tracked) {// the window starts once the write is committed
+				wrote(client);
+			}
+		}
+	}
+
+	/**
+	 * Auxiliary method that tells if the client wrote within the window
+	 */
+	private boolean wroteRecently(String client) {
+		Long lastWrite = lastWrites.get(client);
+		return lastWrite != null && System.nanoTime() - lastWrite < window.toNanos();
+	}
+
+	/**
+	 * Auxiliary method that records a write of the client, the clients out of their window are dropped when there
+	 * are too many
+	 */
+	private void wrote(String client) {
+		long now = System.nanoTime();
+		if (lastWrites.size() >= MAXIMUM_CLIENTS) {
+			lastWrites.values().removeIf((lastWrite) -> now - lastWrite >= window.toNanos());
+		}
+		lastWrites.put(client, now);
+	}
+}
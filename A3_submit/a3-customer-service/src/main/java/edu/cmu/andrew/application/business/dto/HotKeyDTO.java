@@ -0,0 +1,47 @@
+package edu.cmu.andrew.application.business.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+* <h1>HotKeyDTO</h1>
+* 
+* Data Transfer Object with a hot key of a request path and its estimated time-decayed count of requests.
+*  
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@JsonPropertyOrder({ "key", "count" })
+public class HotKeyDTO {
+
+	private String key;
+
+	private long count;
+
+	public HotKeyDTO() {
+		super();
+	}
+
+	public HotKeyDTO(String key, long count) {
+		super();
+		this.key = key;
+		this.count = count;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public void setKey(String key) {
+		this.key = key;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+}
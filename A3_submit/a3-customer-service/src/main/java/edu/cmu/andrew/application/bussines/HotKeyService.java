@@ -0,0 +1,152 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import edu.cmu.andrew.application.business.dto.HotKeyDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+* <h1>Hot Key Service</h1>
+*
+* Business service that tracks the hot keys of the read paths of the service, one HotKeySketch per path: the IDs of
+* GET /customers/{id} ("customers-by-id") and the user IDs of GET /customers?userId= ("customers-by-user-id").
+* Every sketch is halved every customer.hotkeys.half-life, so the counts are time-decayed and the top lists follow the current traffic.
+* The top lists are exposed by the "hotkeys" actuator endpoint. The user IDs are emails, so they are recorded as a
+* salted hash (HMAC-SHA256 with customer.hotkeys.salt, a random salt per start when empty) and never in clear.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Service
+public class HotKeyService {
+
+	public static final String CUSTOMERS_BY_ID = "customers-by-id";
+	public static final String CUSTOMERS_BY_USER_ID = "customers-by-user-id";
+
+	@Value("${customer.hotkeys.enabled:true}")
+	private boolean enabled;
+
+	@Value("${customer.hotkeys.depth:4}")
+	private int depth;
+
+	@Value("${customer.hotkeys.width:8192}")
+	private int width;
+
+	@Value("${customer.hotkeys.top-k:20}")
+	private int topK;
+
+	@Value("${customer.hotkeys.half-life:5m}")
+	private Duration halfLife;
+
+	@Value("${customer.hotkeys.salt:}")
+	private String salt;
+
+	private Mac redactionMac;// initialized prototype, every redaction uses a clone of it
+
+	private Map<String, HotKeySketch> sketches;
+
+	private ScheduledExecutorService decay;
+
+	/**
+	 * Builds the sketches once the configuration values are injected and starts their decay
+	 */
+	@PostConstruct
+	public void init() {
+		sketches = new LinkedHashMap<>();
+		sketches.put(CUSTOMERS_BY_ID, new HotKeySketch(depth, width, topK));
+		sketches.put(CUSTOMERS_BY_USER_ID, new HotKeySketch(depth, width, topK));
+		byte[] secret = salt.getBytes(StandardCharsets.UTF_8);
+		if (secret.length == 0) {
+			secret = new byte[32];
+			new SecureRandom().nextBytes(secret);
+		}
+		try {
+			redactionMac = Mac.getInstance("HmacSHA256");
+			redactionMac.init(new SecretKeySpec(secret, "HmacSHA256"));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HmacSHA256 is not available", e);
+		}
+		if (enabled) {
+			decay = Executors.newSingleThreadScheduledExecutor((task) -> {
+				Thread thread = new Thread(task, "hotkeys-decay");
+				thread.setDaemon(true);
+				return thread;
+			});
+			decay.scheduleAtFixedRate(() -> sketches.values().forEach(HotKeySketch::decay), halfLife.toMillis(),
+					halfLife.toMillis(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (decay != null) {
+			decay.shutdownNow();
+		}
+	}
+
+	/**
+	 * Method to count a request of a key, the user IDs are counted by their redacted key
+	 * @param path the name of the request path, CUSTOMERS_BY_ID or CUSTOMERS_BY_USER_ID
+	 * @param key the key requested
+	 */
+	public void record(String path, String key) {
+		if (enabled) {
+			sketches.get(path).record(CUSTOMERS_BY_USER_ID.equals(path) ? redact(key) : key);
+		}
+	}
+
+	/**
+	 * Method to get the key a user ID is listed with, the first 16 hex digits of its salted hash. The keyed Mac is
+	 * cloned instead of looked up and initialized per request, a clone also works on virtual threads where a
+	 * ThreadLocal would be built again for every request
+	 * @param userId the user ID (email) of the customer
+	 * @return the redacted key of the user ID
+	 */
+	public String redact(String userId) {
+		try {
+			Mac mac = (Mac) redactionMac.clone();
+			byte[] hash = mac.doFinal(userId.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(hash, 0, 8);
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException("HmacSHA256 can not be cloned", e);
+		}
+	}
+
+	/**
+	 * Method to get the hot keys of every request path
+	 * @return the top keys of every path, the most requested first
+	 */
+	public Map<String, List<HotKeyDTO>> top() {
+		Map<String, List<HotKeyDTO>> top = new LinkedHashMap<>();
+		sketches.forEach((path, sketch) -> top.put(path, sketch.top()));
+		return top;
+	}
+
+	/**
+	 * Method to get the hot keys of a request path
+	 * @param path the name of the request path
+	 * @return the top keys of the path, null if the path is not tracked
+	 */
+	public List<HotKeyDTO> top(String path) {
+		HotKeySketch sketch = sketches.get(path);
+		return sketch == null ? null : sketch.top();
+	}
+}
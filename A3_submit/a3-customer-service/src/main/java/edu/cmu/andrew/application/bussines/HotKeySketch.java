@@ -0,0 +1,152 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import edu.cmu.andrew.application.business.dto.HotKeyDTO;
+
+/**
+* <h1>Hot Key Sketch</h1>
+*
+* Frequency sketch of the keys of a request path. The counts are kept in a count-min sketch (depth rows of width
+* counters, a key increments one counter per row and its estimate is the smallest of them), so the memory does not
+* grow with the number of distinct keys and an estimate is never below the real count. The counters are
+* incremented with compare-and-set, recording a key does not lock.
+*
+* The keys whose estimate reaches the count of the lightest of the current top keys become candidates of the top
+* list. Only a key that is not a candidate yet takes the lock of the top list, where a min-heap ordered by the
+* current estimates evicts the lightest candidate and gives the new admission threshold, so once the top list is
+* stable the hot keys never lock. decay() halves every counter, called every half-life it turns the counts into
+* exponentially time-decayed counts.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class HotKeySketch {
+
+	private final AtomicIntegerArray counters;
+	private final int depth;
+	private final int mask;
+	private final int topK;
+
+	private final Set<String> candidates = ConcurrentHashMap.newKeySet();
+
+	private volatile int threshold;// estimate a key needs to become a candidate, 0 while the top list is not full
+
+	/**
+	 * @param depth the number of rows of the sketch (hash functions)
+	 * @param width the number of counters of every row, rounded up to a power of two
+	 * @param topK the number of hot keys to keep
+	 */
+	public HotKeySketch(int depth, int width, int topK) {
+		int rowWidth = Integer.highestOneBit(Math.max(2, width) - 1) << 1;
+		this.counters = new AtomicIntegerArray(depth * rowWidth);
+		this.depth = depth;
+		this.mask = rowWidth - 1;
+		this.topK = topK;
+	}
+
+	/**
+	 * Method to count a request of a key
+	 * @param key the key requested
+	 */
+	public void record(String key) {
+		int hash = spread(key.hashCode());
+		int step = spread(hash ^ 0x5bd1e995) | 1;
+		int estimate = Integer.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			int index = row * (mask + 1) + ((hash + row * step) & mask);
+			int count = counters.get(index);
+			while (count != Integer.MAX_VALUE && !counters.compareAndSet(index, count, count + 1)) {
+				count = counters.get(index);
+			}
+			estimate = Math.min(estimate, count == Integer.MAX_VALUE ? count : count + 1);
+		}
+		if (estimate > threshold && !candidates.contains(key)) {
+			admit(key);
+		}
+	}
+
+	/**
+	 * Method to get the estimated count of a key
+	 * @param key the key to look up
+	 * @return the smallest of its counters, never below the decayed count of the key
+	 */
+	public int estimate(String key) {
+		int hash = spread(key.hashCode());
+		int step = spread(hash ^ 0x5bd1e995) | 1;
+		int estimate = Integer.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			estimate = Math.min(estimate, counters.get(row * (mask + 1) + ((hash + row * step) & mask)));
+		}
+		return estimate;
+	}
+
+	/**
+	 * Method to get the hot keys
+	 * @return the top keys with their estimated counts, the most requested first
+	 */
+	public List<HotKeyDTO> top() {
+		List<HotKeyDTO> top = new ArrayList<>();
+		for (String key : candidates) {
+			int estimate = estimate(key);
+			if (estimate > 0) {
+				top.add(new HotKeyDTO(key, estimate));
+			}
+		}
+		top.sort(Comparator.comparingLong(HotKeyDTO::getCount).reversed());
+		return top.size() > topK ? top.subList(0, topK) : top;
+	}
+
+	/**
+	 * Method to halve every counter (and the admission threshold), the counts of the keys not requested anymore
+	 * fade out
+	 */
+	public void decay() {
+		for (int i = 0; i < counters.length(); i++) {
+			counters.updateAndGet(i, (count) -> count >>> 1);
+		}
+		threshold = threshold >>> 1;
+	}
+
+	/**
+	 * Method to get the memory used by the counters
+	 * @return the size of the counters in bytes
+	 */
+	public long memoryBytes() {
+		return counters.length() * 4L;
+	}
+
+	/**
+	 * Auxiliary method that adds a key to the candidates, once there are more than topK the lightest one (by its
+	 * current estimate) is evicted and the next lightest sets the threshold
+	 */
+	private synchronized void admit(String key) {
+		if (!candidates.add(key) || candidates.size() <= topK) {
+			return;
+		}
+		PriorityQueue<HotKeyDTO> heap = new PriorityQueue<>(candidates.size(),
+				Comparator.comparingLong(HotKeyDTO::getCount));
+		for (String candidate : candidates) {
+			heap.add(new HotKeyDTO(candidate, estimate(candidate)));
+		}
+		while (heap.size() > topK) {
+			candidates.remove(heap.poll().getKey());
+		}
+		threshold = (int) heap.peek().getCount();
+	}
+
+	private static int spread(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		return hash ^ (hash >>> 16);
+	}
+}
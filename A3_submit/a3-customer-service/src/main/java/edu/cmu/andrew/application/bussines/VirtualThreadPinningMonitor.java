@@ -0,0 +1,99 @@
+package edu.cmu.andrew.application.bussines;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+* <h1>Virtual Thread Pinning Monitor</h1>
+*
+* Diagnostics for the virtual threads mode (spring.threads.virtual.enabled on Java 21). It listens to the JFR event
+* jdk.VirtualThreadPinned, emitted when a virtual thread blocks while it is pinned to its carrier thread (for
+* instance inside a synchronized block of the MySQL driver, Hikari or the Kafka producer) for longer than the
+* configured threshold, and logs the source of the pinning with the top of the stack.
+*
+* Only loaded when customer.virtual-threads.pinning-monitor.enabled is true. On Java 17 the event does not exist
+* and the monitor logs nothing. For a one-off investigation -Djdk.tracePinnedThreads=short can be added to
+* JVM_ARGS instead.
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Component
+@ConditionalOnProperty(value = "customer.virtual-threads.pinning-monitor.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+	private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+	private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+	private static final int PRINTED_FRAMES = 8;
+
+	@Value("${customer.virtual-threads.pinning-monitor.threshold:20ms}")
+	private Duration threshold;
+
+	private RecordingStream recordingStream;
+
+	/**
+	 * Starts the JFR recording stream once the configuration values are injected
+	 */
+	@PostConstruct
+	public void start() {
+		recordingStream = new RecordingStream();
+		recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+		recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+		recordingStream.startAsync();
+	}
+
+	@PreDestroy
+	public void stop() {
+		recordingStream.close();
+	}
+
+	/**
+	 * Auxiliary method that logs a pinning event
+	 * @param event the jdk.VirtualThreadPinned event
+	 */
+	private void onPinned(RecordedEvent event) {
+		List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+		logger.warn("Virtual thread pinned for {}ms ({}):{}", event.getDuration().toMillis(), source(frames),
+				frames.stream().limit(PRINTED_FRAMES)
+						.map((frame) -> "\n\tat " + frame.getMethod().getType().getName() + "."
+								+ frame.getMethod().getName() + ":" + frame.getLineNumber())
+						.collect(Collectors.joining()));
+	}
+
+	/**
+	 * Auxiliary method that finds the library responsible of the pinning, the first frame of the MySQL driver,
+	 * Hikari or the Kafka client in the stack
+	 * @param frames the stack of the pinned virtual thread, top first
+	 * @return mysql, hikari, kafka or other
+	 */
+	private static String source(List<RecordedFrame> frames) {
+		for (RecordedFrame frame : frames) {
+			String type = frame.getMethod().getType().getName();
+			if (type.startsWith("com.mysql.")) {
+				return "mysql";
+			}
+			if (type.startsWith("com.zaxxer.hikari.")) {
+				return "hikari";
+			}
+			if (type.startsWith("org.apache.kafka.")) {
+				return "kafka";
+			}
+		}
+		return "other";
+	}
+}
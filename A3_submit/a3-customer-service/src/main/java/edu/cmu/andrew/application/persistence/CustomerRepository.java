@@ -1,6 +1,7 @@
 package edu.cmu.andrew.application.persistence;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import edu.cmu.andrew.application.business.model.Customer;
 
@@ -20,5 +21,6 @@ public interface CustomerRepository extends JpaRepository<Customer, Integer>{
 	 * @param userId the userId to search in the DB
 	 * @return a Customer instance if the given userId is found, null otherwise
 	 */
+	@Transactional(readOnly = true)
 	public Customer findByUserId(String userId);
 }
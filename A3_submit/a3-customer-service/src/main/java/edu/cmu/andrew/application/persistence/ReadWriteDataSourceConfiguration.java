@@ -0,0 +1,99 @@
+package edu.cmu.andrew.application.persistence;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+* <h1>Read/write datasource configuration</h1>
+*
+*  Opt-in split of the datasource in two pools (customer.datasource.reader.enabled). The writer pool is the one
+*  configured with the spring.datasource properties (Aurora writer endpoint) and sized with spring.datasource.hikari,
+*  the reader pool connects to customer.datasource.reader.url (Aurora reader endpoint) and is sized with
+*  customer.datasource.reader.hikari; its user and password default to the ones of the writer. JPA uses a
+*  ReadWriteRoutingDataSource over both pools, the read-only transactions go to the reader.
+*
+*  Both pools publish the Hikari metrics tagged with their pool name ("writer" and "reader"), among them the
+*  timers "hikaricp.connections.acquire" (wait for a connection) and "hikaricp.connections.usage" (time every
+*  transaction holds its connection).
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@Configuration
+@ConditionalOnProperty("customer.datasource.reader.enabled")
+public class ReadWriteDataSourceConfiguration {
+
+	/**
+	 * Pool of connections to the writer
+	 * @param properties the spring.datasource properties
+	 * @return the writer pool, its Hikari settings are bound from spring.datasource.hikari
+	 */
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource writerDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName(ReadWriteRoutingDataSource.WRITER);
+		return dataSource;
+	}
+
+	/**
+	 * Pool of connections to the reader
+	 * @param properties the spring.datasource properties, for the credentials and driver of the reader
+	 * @param url the JDBC URL of the reader endpoint
+	 * @param username the user of the reader, the one of the writer by default
+	 * @param password the password of the reader, the one of the writer by default
+	 * @return the reader pool, its Hikari settings are bound from customer.datasource.reader.hikari
+	 */
+	@Bean
+	@ConfigurationProperties("customer.datasource.reader.hikari")
+	public HikariDataSource readerDataSource(DataSourceProperties properties,
+			@Value("${customer.datasource.reader.url}") String url,
+			@Value("${customer.datasource.reader.username:}") String username,
+			@Value("${customer.datasource.reader.password:}") String password) {
+		HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+				.driverClassName(properties.determineDriverClassName())
+				.url(url)
+				.username(username.isEmpty() ? properties.determineUsername() : username)
+				.password(password.isEmpty() ? properties.determinePassword() : password)
+				.build();
+		dataSource.setPoolName(ReadWriteRoutingDataSource.READER);
+		return dataSource;
+	}
+
+	/**
+	 * Datasource used by JPA, the connection is only taken from a pool when the first statement of the
+	 * transaction runs so the routing sees if the transaction is read-only
+	 * @param writer the writer pool
+	 * @param reader the reader pool
+	 * @param meterRegistry the registry where the routing counters are published
+	 * @return the routing datasource behind a lazy connection proxy
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("writerDataSource") DataSource writer,
+			@Qualifier("readerDataSource") DataSource reader, MeterRegistry meterRegistry) {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(meterRegistry);
+		routing.setTargetDataSources(Map.of(ReadWriteRoutingDataSource.WRITER, writer,
+				ReadWriteRoutingDataSource.READER, reader));
+		routing.setDefaultTargetDataSource(writer);
+		routing.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+}
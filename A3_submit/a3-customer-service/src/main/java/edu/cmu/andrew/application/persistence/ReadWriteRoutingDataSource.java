@@ -0,0 +1,80 @@
+package edu.cmu.andrew.application.persistence;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+* <h1>ReadWriteRoutingDataSource</h1>
+*
+* Datasource that sends the read-only transactions to the reader pool (Aurora reader endpoint) and everything else
+* to the writer pool. The pool is chosen when the transaction gets its connection, so this datasource is used behind
+* a LazyConnectionDataSourceProxy that only asks for the connection once the read-only flag of the transaction is
+* set. The connections asked outside of a transaction (Hibernate bootstrap, schema tools) go to the writer.
+*
+* A request of a client that wrote within the read-your-writes window is pinned to the writer with pinToWriter(), so
+* the client does not read a replica that has not applied its own write yet.
+*
+* Metrics: the counter "datasource.routing" tagged with the pool and the reason of the choice (write, read or
+* read-your-writes).
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String WRITER = "writer";
+	public static final String READER = "reader";
+
+	private static final ThreadLocal<Boolean> PINNED_TO_WRITER = new ThreadLocal<>();
+
+	private final Counter writeCounter;
+	private final Counter readCounter;
+	private final Counter readYourWritesCounter;
+
+	/**
+	 * @param meterRegistry the registry where the routing counters are published
+	 */
+	public ReadWriteRoutingDataSource(MeterRegistry meterRegistry) {
+		writeCounter = counter(meterRegistry, WRITER, "write");
+		readCounter = counter(meterRegistry, READER, "read");
+		readYourWritesCounter = counter(meterRegistry, WRITER, "read-your-writes");
+	}
+
+	/**
+	 * Method to pin the transactions of the current thread to the writer, or release them
+	 * @param pinned true while the current request must read its own writes
+	 */
+	public static void pinToWriter(boolean pinned) {
+		if (pinned) {
+			PINNED_TO_WRITER.set(Boolean.TRUE);
+		} else {
+			PINNED_TO_WRITER.remove();
+		}
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			writeCounter.increment();
+			return WRITER;
+		}
+		if (PINNED_TO_WRITER.get() != null) {
+			readYourWritesCounter.increment();
+			return WRITER;
+		}
+		readCounter.increment();
+		return READER;
+	}
+
+	private static Counter counter(MeterRegistry meterRegistry, String pool, String reason) {
+		return Counter.builder("datasource.routing")
+				.description("Connections routed to every pool")
+				.tag("pool", pool)
+				.tag("reason", reason)
+				.register(meterRegistry);
+	}
+}
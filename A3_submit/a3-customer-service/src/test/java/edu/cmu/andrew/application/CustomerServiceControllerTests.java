@@ -1,6 +1,8 @@
 package edu.cmu.andrew.application;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -10,7 +12,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -20,6 +24,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import edu.cmu.andrew.application.business.dto.CustomerDTO;
 import edu.cmu.andrew.application.business.model.Customer;
+import edu.cmu.andrew.application.bussines.HotKeyService;
 import edu.cmu.andrew.application.persistence.CustomerRepository;
 
 /**
@@ -39,17 +44,27 @@ class CustomerServiceControllerTests {
 	@LocalServerPort
 	private int PORT;
 
+	@LocalManagementPort
+	private int MANAGEMENT_PORT;
+
 	@Autowired
 	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private HotKeyService hotKeyService;
 	private static String BASE_URL = "http://localhost:";
 	private static String ADD_CUSTOMER_URL = "/customers";
 	private static String RETRIEVE_CUSTOMER_URL = "/customers/";
 	private static String RETRIEVE_CUSTOMER_BY_USERID_URL = "/customers?userId=";
+	private static String HOT_CUSTOMERS_BY_ID_URL = "/actuator/hotkeys/customers-by-id";
+	private static String HOT_CUSTOMERS_BY_USER_ID_URL = "/actuator/hotkeys/customers-by-user-id";
 	private final ObjectMapper objectMapper = new ObjectMapper();
 	private final Integer exampleID = 10;
 	private final Integer exampleNonExistingIdCustomer = 15;
 	private final String exampleUserId = "jc@gmail.com";
 	private final String exampleNonExistingUserId = "jc1986@gmail.com";
+	private final Integer exampleHotID = 20;
+	private final String exampleHotUserId = "hot@gmail.com";
 	private final Customer customerEntity = new Customer(exampleID, "jc@gmail.com", "JuanCarlosV", "+5546984526",
 			"Mexico", "Jalisco", "Zapopan", "MX", "58102");
 	private final CustomerDTO customerDTO = new CustomerDTO("jc@gmail.com", "JuanCarlosV", "+5546984526", "Mexico",
@@ -199,12 +214,28 @@ class CustomerServiceControllerTests {
 	 */
 	@Test
 	void addCustomerShouldReturn422ForExistingUserId() {
-		Mockito.when(mockedCustomerRepository.findByUserId(exampleUserId)).thenReturn(customerEntity);
+		Mockito.when(mockedCustomerRepository.save(Mockito.any(Customer.class)))
+				.thenThrow(new DataIntegrityViolationException("Duplicate entry",
+						new SQLIntegrityConstraintViolationException("Duplicate entry", "23000", 1062)));
 		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + ADD_CUSTOMER_URL, customerDTO,
 				String.class);
 		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
 	}
 
+	/**
+	 * Test the negative case when a customer tries to register to the system and the DB rejects it for a reason
+	 * other than a duplicate user ID (a value too long for its column), it is not reported as an existing user ID
+	 */
+	@Test
+	void addCustomerShouldNotReturn422ForOtherIntegrityViolations() {
+		Mockito.when(mockedCustomerRepository.save(Mockito.any(Customer.class)))
+				.thenThrow(new DataIntegrityViolationException("Data too long",
+						new SQLException("Data too long for column 'name'", "22001", 1406)));
+		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + ADD_CUSTOMER_URL, customerDTO,
+				String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+	}
+
 	/**
 	 * Test the negative case when a customer tries to register to the system but it exists already returning the error message:
 	 *  "This user ID already exists in the system."
@@ -215,7 +246,9 @@ class CustomerServiceControllerTests {
 	@Test
 	void addCustomerShouldReturnErrorMsgForExistingUserId() throws JsonMappingException, JsonProcessingException {
 
-		Mockito.when(mockedCustomerRepository.findByUserId(exampleUserId)).thenReturn(customerEntity);
+		Mockito.when(mockedCustomerRepository.save(Mockito.any(Customer.class)))
+				.thenThrow(new DataIntegrityViolationException("Duplicate entry",
+						new SQLIntegrityConstraintViolationException("Duplicate entry", "23000", 1062)));
 		ResponseEntity<String> result = this.restTemplate.postForEntity(BASE_URL + PORT + ADD_CUSTOMER_URL, customerDTO,
 				String.class);
 		JsonNode root = objectMapper.readTree(result.getBody());
@@ -293,4 +326,52 @@ class CustomerServiceControllerTests {
 
 	}
 
+	/**
+	 * Test the positive case when a customer is read many times by it's ID, it is listed by the hotkeys actuator
+	 * endpoint as the most requested customer
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void getCustomerByIDShouldBeCountedAsHotKey() throws JsonMappingException, JsonProcessingException {
+
+		Mockito.when(mockedCustomerRepository.findById(exampleHotID)).thenReturn(customerEmptyResult);
+		for (int i = 0; i < 50; i++) {
+			this.restTemplate.getForEntity(BASE_URL + PORT + RETRIEVE_CUSTOMER_URL + exampleHotID, String.class);
+		}
+		ResponseEntity<String> result = this.restTemplate
+				.getForEntity(BASE_URL + MANAGEMENT_PORT + HOT_CUSTOMERS_BY_ID_URL, String.class);
+		JsonNode hotKeys = objectMapper.readTree(result.getBody());
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(hotKeys.get(0).path("key").asText()).isEqualTo(String.valueOf(exampleHotID));
+		assertThat(hotKeys.get(0).path("count").asLong()).isGreaterThanOrEqualTo(50);
+	}
+
+	/**
+	 * Test the positive case when a customer is read many times by it's userId, it is listed by the hotkeys actuator
+	 * endpoint by its redacted key, the email is not exposed and the hotkeys are not served on the service port
+	 * @throws JsonMappingException
+	 * @throws JsonProcessingException
+	 */
+	@Test
+	void getCustomerByUserIdShouldBeCountedAsRedactedHotKey() throws JsonMappingException, JsonProcessingException {
+
+		Mockito.when(mockedCustomerRepository.findByUserId(exampleHotUserId)).thenReturn(null);
+		for (int i = 0; i < 50; i++) {
+			this.restTemplate.getForEntity(BASE_URL + PORT + RETRIEVE_CUSTOMER_BY_USERID_URL + exampleHotUserId,
+					String.class);
+		}
+		ResponseEntity<String> result = this.restTemplate
+				.getForEntity(BASE_URL + MANAGEMENT_PORT + HOT_CUSTOMERS_BY_USER_ID_URL, String.class);
+		ResponseEntity<String> publicResult = this.restTemplate
+				.getForEntity(BASE_URL + PORT + HOT_CUSTOMERS_BY_USER_ID_URL, String.class);
+		JsonNode hotKeys = objectMapper.readTree(result.getBody());
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).doesNotContain(exampleHotUserId);
+		assertThat(hotKeys.get(0).path("key").asText()).isEqualTo(hotKeyService.redact(exampleHotUserId));
+		assertThat(publicResult.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
 }
@@ -0,0 +1,139 @@
+package edu.cmu.andrew.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import edu.cmu.andrew.application.business.dto.CustomerDTO;
+import edu.cmu.andrew.application.bussines.CustomerRegistrationService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+* <h1>Customer read replica routing</h1>
+*  Test Class to validate the routing of the Customer Service reads with the reader pool enabled. Two in-memory
+*  databases stand in for the Aurora writer and reader endpoints, there is no replication between them so a
+*  customer inserted in only one of them tells which pool served the read
+*
+* @author  Juan Carlos Villegas Montiel
+* @version 1.0
+* @since   2026-10-18
+*/
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:writer;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true",
+		"spring.jpa.hibernate.ddl-auto=create",
+		"customer.datasource.reader.enabled=true",
+		"customer.datasource.reader.url=jdbc:h2:mem:reader;MODE=MySQL;DB_CLOSE_DELAY=-1;INIT=CREATE TABLE IF NOT EXISTS "
+				+ "CUSTOMER (ID INT AUTO_INCREMENT PRIMARY KEY, USER_ID VARCHAR(255) NOT NULL UNIQUE, "
+				+ "name VARCHAR(255), phone VARCHAR(255), address VARCHAR(255), address2 VARCHAR(255), "
+				+ "city VARCHAR(255), state VARCHAR(255), zipcode VARCHAR(255))",
+		"customer.datasource.read-your-writes.window=2s" })
+class CustomerServiceReadReplicaTests {
+
+	@MockBean
+	private CustomerRegistrationService mockedCustomerRegistrationService;
+
+	@Autowired
+	@Qualifier("readerDataSource")
+	private DataSource readerDataSource;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@LocalServerPort
+	private int PORT;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+	private static String BASE_URL = "http://localhost:";
+	private static String ADD_CUSTOMER_URL = "/customers";
+	private static String RETRIEVE_CUSTOMER_BY_USERID_URL = "/customers?userId=";
+	private static String CLIENT_HEADER = "X-Client-Id";
+	private final String exampleReplicatedUserId = "replica@gmail.com";
+	private final CustomerDTO customerDTO = new CustomerDTO("writer@gmail.com", "JuanCarlosV", "+5546984526",
+			"Mexico", "Jalisco", "Zapopan", "MX", "58102");
+	private final CustomerDTO anonymousCustomerDTO = new CustomerDTO("anonymous@gmail.com", "JuanCarlosV",
+			"+5546984526", "Mexico", "Jalisco", "Zapopan", "MX", "58102");
+
+	/**
+	 * Test the positive case when a customer is query it by it's userId, the service reads it from the reader pool
+	 */
+	@Test
+	void getCustomerByUserIdShouldBeReadFromTheReader() {
+
+		new JdbcTemplate(readerDataSource).update("INSERT INTO CUSTOMER (USER_ID, name, phone, address, city, state, "
+				+ "zipcode) VALUES (?, 'Replica', '+5546984526', 'Mexico', 'Zapopan', 'MX', '58102')",
+				exampleReplicatedUserId);
+		ResponseEntity<String> result = get(RETRIEVE_CUSTOMER_BY_USERID_URL + exampleReplicatedUserId,
+				"reader-client");
+
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(meterRegistry.get("hikaricp.connections.usage").tag("pool", "reader").timer().count())
+				.isGreaterThan(0);
+	}
+
+	/**
+	 * Test the positive case when a client adds a customer, it reads the new customer from the writer within the
+	 * read-your-writes window while other clients read from the reader (where it was not replicated)
+	 */
+	@Test
+	void readsAfterAWriteShouldBeReadFromTheWriterWithinTheWindow() {
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(CLIENT_HEADER, "writing-client");
+		ResponseEntity<String> added = this.restTemplate.exchange(BASE_URL + PORT + ADD_CUSTOMER_URL, HttpMethod.POST,
+				new HttpEntity<CustomerDTO>(customerDTO, headers), String.class);
+		ResponseEntity<String> ownRead = get(RETRIEVE_CUSTOMER_BY_USERID_URL + customerDTO.getUserId(),
+				"writing-client");
+		ResponseEntity<String> otherRead = get(RETRIEVE_CUSTOMER_BY_USERID_URL + customerDTO.getUserId(),
+				"other-client");
+
+		assertThat(added.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(ownRead.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(otherRead.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	/**
+	 * Test the positive case when a request without the client header adds a customer, the next reads without the
+	 * header are still served by the reader, the address of the caller (a BFF pod) does not identify the client
+	 */
+	@Test
+	void readsWithoutClientHeaderShouldNotBePinnedAfterAWrite() {
+
+		ResponseEntity<String> added = this.restTemplate.postForEntity(BASE_URL + PORT + ADD_CUSTOMER_URL,
+				anonymousCustomerDTO, String.class);
+		ResponseEntity<String> read = get(RETRIEVE_CUSTOMER_BY_USERID_URL + anonymousCustomerDTO.getUserId(), null);
+
+		assertThat(added.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(read.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	/**
+	 * Auxiliary method that sends a GET request as a client, without the client header if it is null
+	 */
+	private ResponseEntity<String> get(String url, String client) {
+		HttpHeaders headers = new HttpHeaders();
+		if (client != null) {
+			headers.set(CLIENT_HEADER, client);
+		}
+		return this.restTemplate.exchange(BASE_URL + PORT + url, HttpMethod.GET, new HttpEntity<Void>(headers),
+				String.class);
+	}
+}